@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * ID generator where each thread reserves a block of ids from a shared {@link ReservableIDGenerator} and hands
+ * them out without contention.
+ * <p>
+ * Ids are unique but only ordered per thread. Ids left in the block of a thread that dies are never used.
+ */
+public class BlockIDGenerator implements ReservableIDGenerator {
+
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final ReservableIDGenerator delegate;
+
+    private final int blockSize;
+
+    /**
+     * Per thread {next, end} of the reserved block.
+     */
+    private final ThreadLocal<long[]> block = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
+
+    public BlockIDGenerator() {
+        this(new LongIDGenerator(), DEFAULT_BLOCK_SIZE);
+    }
+
+    public BlockIDGenerator(ReservableIDGenerator delegate, int blockSize) {
+        Validate.notNull(delegate, "delegate argument should not be null.");
+        Validate.isTrue(blockSize > 0, "blockSize should be greater than zero.");
+
+        this.delegate = delegate;
+        this.blockSize = blockSize;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public Long next() {
+        long[] range = block.get();
+
+        if(range[0] >= range[1]) {
+            range[0] = delegate.reserve(blockSize);
+            range[1] = range[0] + blockSize;
+        }
+
+        return range[0]++;
+    }
+
+    /**
+     * Bulk reservations go straight to the shared generator.
+     *
+     * {@inheritDoc}
+     */
+    public long reserve(int count) {
+        return delegate.reserve(count);
+    }
+}
@@ -18,14 +18,16 @@
 
 package org.piraso.api;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * Sequential ID Generator.
+ * Sequential ID Generator, safe to share between threads.
  */
 public class IntegerIDGenerator implements NextGenerator<Integer> {
 
-    private int id = 0;
+    private final AtomicInteger id = new AtomicInteger();
 
     public Integer next() {
-        return ++id;
+        return id.incrementAndGet();
     }
 }
@@ -18,14 +18,27 @@
 
 package org.piraso.api;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Sequential ID Generator.
+ * Sequential ID Generator, safe to share between threads.
  */
-public class LongIDGenerator implements NextGenerator<Long> {
+public class LongIDGenerator implements ReservableIDGenerator {
 
-    private long id = 0;
+    private final AtomicLong id = new AtomicLong();
 
     public Long next() {
-        return ++id;
+        return id.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long reserve(int count) {
+        if(count <= 0) {
+            throw new IllegalArgumentException("count should be greater than zero.");
+        }
+
+        return id.getAndAdd(count) + 1;
     }
 }
@@ -47,10 +47,18 @@ public final class PirasoConstants {
 
     public static final String SERVICE_GET_REGISTRY_PARAMETER_VALUE = "getRegistry";
 
+    public static final String SERVICE_WATCH_REGISTRY_PARAMETER_VALUE = "watchRegistry";
+
     public static final String SERVICE_REQUEST_ID_PARAMETER_VALUE = "requestId";
 
+    public static final String SERVICE_RESERVE_REQUEST_ID_PARAMETER_VALUE = "reserveRequestId";
+
+    public static final String REQUEST_ID_COUNT_PARAMETER = "count";
+
     public static final String SERVICE_LOG_PARAMETER_VALUE = "log";
 
+    public static final String SERVICE_LOG_BATCH_PARAMETER_VALUE = "logBatch";
+
     public static final String ENTRY_PARAMETER = "entry";
 
     public static final String ENTRY_CLASS_NAME_PARAMETER = "entryClassName";
@@ -59,6 +67,10 @@ public final class PirasoConstants {
 
     public static final String ENTRY_REQUEST_ID_PARAMETER = "entryRequestId";
 
+    public static final String FORMAT_PARAMETER = "format";
+
+    public static final String FORMAT_BINARY_PARAMETER_VALUE = "binary";
+
     public static final String ENCODING_UTF_8 = "UTF-8";
 
     public static final String STATUS_OK = "SUCCESS";
@@ -69,6 +81,10 @@ public final class PirasoConstants {
 
     public static final String JSON_CONTENT_TYPE = "application/json";
 
+    public static final String BINARY_CONTENT_TYPE = "application/x-piraso-binary";
+
+    public static final String BATCH_CONTENT_TYPE = "application/x-piraso-batch";
+
     //--- These are the cascaded properties for call propagation.
 
     public static final String REMOTE_ADDRESS_HEADER = "Piraso-Remote-Address";
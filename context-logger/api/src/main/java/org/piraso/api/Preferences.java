@@ -27,18 +27,33 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Monitor preferences.
+ * <p>
+ * Property keys and url patterns are compiled once on first evaluation and answers of {@link #isRegexEnabled(String)}
+ * and {@link #isUrlAcceptable(String)} are memoized, so repeated evaluations do not allocate. The compiled state is
+ * discarded by every mutator of this class; modifying the maps or lists returned by the getters in place is not
+ * detected unless it changes their size.
  */
 public class Preferences {
 
+    /**
+     * Maximum number of memoized answers kept per kind of evaluation.
+     */
+    public static final int MAX_MEMOIZED = 512;
+
     private Map<String, Boolean> booleanProperties;
 
     private Map<String, Integer> integerProperties;
 
     private List<String> urlPatterns;
 
+    private transient volatile Compiled compiled;
+
     public Map<String, Boolean> getBooleanProperties() {
         return booleanProperties;
     }
@@ -49,6 +64,7 @@ public class Preferences {
         }
 
         booleanProperties.put(name, value);
+        compiled = null;
     }
 
     public void addProperty(String name, int value) {
@@ -65,10 +81,12 @@ public class Preferences {
         }
 
         urlPatterns.add(pattern);
+        compiled = null;
     }
 
     public void setBooleanProperties(Map<String, Boolean> booleanProperties) {
         this.booleanProperties = booleanProperties;
+        compiled = null;
     }
 
     public Map<String, Integer> getIntegerProperties() {
@@ -85,6 +103,7 @@ public class Preferences {
 
     public void setUrlPatterns(List<String> urlPatterns) {
         this.urlPatterns = urlPatterns;
+        compiled = null;
     }
 
     public boolean isUrlAcceptable(String url) {
@@ -93,17 +112,17 @@ public class Preferences {
             return true;
         }
 
-        for(String pattern : urlPatterns) {
-            if(url.matches(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
+        return getCompiled().isUrlAcceptable(url);
     }
 
     public boolean isEnabled(String property) {
-        return MapUtils.isNotEmpty(booleanProperties) && booleanProperties.containsKey(property) && booleanProperties.get(property);
+        if(MapUtils.isEmpty(booleanProperties)) {
+            return false;
+        }
+
+        Boolean value = booleanProperties.get(property);
+
+        return value != null && value;
     }
 
     public boolean isRegexEnabled(String name) {
@@ -111,13 +130,23 @@ public class Preferences {
             return false;
         }
 
-        for(Map.Entry<String, Boolean> value : booleanProperties.entrySet()) {
-            if(name.matches(value.getKey())) {
-                return value.getValue();
-            }
+        return getCompiled().isRegexEnabled(name);
+    }
+
+    /**
+     * Retrieves the compiled state, compiling again when the properties or url patterns changed size.
+     *
+     * @return the compiled state
+     */
+    private Compiled getCompiled() {
+        Compiled current = compiled;
+
+        if(current == null || !current.isCompiledFrom(booleanProperties, urlPatterns)) {
+            current = new Compiled(booleanProperties, urlPatterns);
+            compiled = current;
         }
 
-        return false;
+        return current;
     }
 
     public Integer getIntValue(String property) {
@@ -137,4 +166,115 @@ public class Preferences {
     public int hashCode() {
         return HashCodeBuilder.reflectionHashCode(this);
     }
+
+    /**
+     * Compiled property keys and url patterns together with the memoized answers.
+     */
+    private static final class Compiled {
+
+        private final Map<String, Boolean> booleanProperties;
+
+        private final int booleanPropertiesSize;
+
+        private final List<String> urlPatterns;
+
+        private final int urlPatternsSize;
+
+        private final Pattern[] keys;
+
+        private final boolean[] values;
+
+        private final Pattern[] urls;
+
+        private final Map<String, Boolean> regexMemo = new ConcurrentHashMap<String, Boolean>();
+
+        private final Map<String, Boolean> urlMemo = new ConcurrentHashMap<String, Boolean>();
+
+        private Compiled(Map<String, Boolean> booleanProperties, List<String> urlPatterns) {
+            this.booleanProperties = booleanProperties;
+            this.booleanPropertiesSize = booleanProperties != null ? booleanProperties.size() : 0;
+            this.urlPatterns = urlPatterns;
+            this.urlPatternsSize = urlPatterns != null ? urlPatterns.size() : 0;
+
+            keys = new Pattern[booleanPropertiesSize];
+            values = new boolean[booleanPropertiesSize];
+
+            if(booleanProperties != null) {
+                int i = 0;
+                for(Map.Entry<String, Boolean> entry : booleanProperties.entrySet()) {
+                    keys[i] = compile(entry.getKey());
+                    values[i++] = entry.getValue() != null && entry.getValue();
+                }
+            }
+
+            urls = new Pattern[urlPatternsSize];
+            for(int i = 0; i < urlPatternsSize; i++) {
+                urls[i] = compile(urlPatterns.get(i));
+            }
+        }
+
+        /**
+         * Invalid patterns never match.
+         *
+         * @param regex the pattern to compile
+         * @return the compiled pattern, {@code null} if not valid
+         */
+        private static Pattern compile(String regex) {
+            try {
+                return regex != null ? Pattern.compile(regex) : null;
+            } catch(PatternSyntaxException e) {
+                return null;
+            }
+        }
+
+        private boolean isCompiledFrom(Map<String, Boolean> booleanProperties, List<String> urlPatterns) {
+            return this.booleanProperties == booleanProperties && this.urlPatterns == urlPatterns &&
+                    booleanPropertiesSize == (booleanProperties != null ? booleanProperties.size() : 0) &&
+                    urlPatternsSize == (urlPatterns != null ? urlPatterns.size() : 0);
+        }
+
+        private boolean isRegexEnabled(String name) {
+            Boolean memo = regexMemo.get(name);
+            if(memo != null) {
+                return memo;
+            }
+
+            boolean result = false;
+            for(int i = 0; i < keys.length; i++) {
+                if(keys[i] != null && keys[i].matcher(name).matches()) {
+                    result = values[i];
+                    break;
+                }
+            }
+
+            memoize(regexMemo, name, result);
+
+            return result;
+        }
+
+        private boolean isUrlAcceptable(String url) {
+            Boolean memo = urlMemo.get(url);
+            if(memo != null) {
+                return memo;
+            }
+
+            boolean result = false;
+            for(Pattern pattern : urls) {
+                if(pattern != null && pattern.matcher(url).matches()) {
+                    result = true;
+                    break;
+                }
+            }
+
+            memoize(urlMemo, url, result);
+
+            return result;
+        }
+
+        private static void memoize(Map<String, Boolean> memo, String key, boolean result) {
+            if(memo.size() < MAX_MEMOIZED) {
+                memo.put(key, result);
+            }
+        }
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api;
+
+/**
+ * ID generator which is able to hand out a range of consecutive ids at once.
+ */
+public interface ReservableIDGenerator extends NextGenerator<Long> {
+
+    /**
+     * Reserve {@code count} consecutive ids, none of these will be returned by any later call.
+     *
+     * @param count the number of ids to reserve
+     * @return the first id of the reserved range, the range ends at {@code first + count - 1}
+     */
+    long reserve(int count);
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ID generator producing ids ordered by creation time, even across restarts of the process.
+ * <p>
+ * An id is composed of the milliseconds since {@link #EPOCH}, a {@value #SEQUENCE_BITS} bits sequence within the
+ * millisecond and a {@value #NODE_BITS} bits node id, so processes with different node ids never collide. When
+ * the sequence is exhausted the following millisecond is borrowed, ids are never repeated.
+ */
+public class TimeOrderedIDGenerator implements NextGenerator<Long> {
+
+    /**
+     * 2012-01-01T00:00:00Z
+     */
+    public static final long EPOCH = 1325376000000l;
+
+    public static final int SEQUENCE_BITS = 12;
+
+    public static final int NODE_BITS = 10;
+
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private final AtomicLong last = new AtomicLong();
+
+    private final long node;
+
+    public TimeOrderedIDGenerator() {
+        this(0);
+    }
+
+    public TimeOrderedIDGenerator(int node) {
+        Validate.isTrue(node >= 0 && node <= MAX_NODE, "node should be between 0 and " + MAX_NODE + ".");
+
+        this.node = node;
+    }
+
+    public Long next() {
+        while(true) {
+            long prev = last.get();
+            long candidate = Math.max(prev + 1, (currentTimeMillis() - EPOCH) << SEQUENCE_BITS);
+
+            if(last.compareAndSet(prev, candidate)) {
+                return (candidate << NODE_BITS) | node;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the time in milliseconds given the id.
+     *
+     * @param id the id
+     * @return the time the id was created
+     */
+    public static long getTime(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
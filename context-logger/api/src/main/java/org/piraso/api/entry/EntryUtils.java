@@ -59,6 +59,22 @@ public final class EntryUtils {
         return stackTrace;
     }
 
+    /**
+     * Encodes the entry into a {@link RawEntry} snapshot. The snapshot holds the entry class name and json content
+     * and can be shared by any number of loggers and writers without being serialized again.
+     *
+     * @param entry the entry to encode
+     * @return the encoded snapshot
+     * @throws IOException on serialization error
+     */
+    public static RawEntry toRawEntry(Entry entry) throws IOException {
+        if(RawEntry.class.isInstance(entry)) {
+            return (RawEntry) entry;
+        }
+
+        return new RawEntry(entry.getRequestId(), entry.getClass().getName(), JacksonUtils.MAPPER.writeValueAsString(entry));
+    }
+
     public static Entry cloneEntry(Entry entry) throws IOException {
         try {
             ObjectMapper mapper = JacksonUtils.MAPPER;
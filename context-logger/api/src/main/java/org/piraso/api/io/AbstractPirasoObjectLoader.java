@@ -35,4 +35,18 @@ public abstract class AbstractPirasoObjectLoader implements PirasoObjectLoader {
     }
 
     public abstract Object loadObject(String className, String content) throws IOException, ClassNotFoundException;
+
+    /**
+     * Loads the object from content which may still be reused by the caller once this returns, subclasses
+     * should override to parse the content without converting it to a {@link String}.
+     *
+     * @param className the object class name
+     * @param content the json content
+     * @return the loaded object
+     * @throws IOException on parse error
+     * @throws ClassNotFoundException on unknown class
+     */
+    public Object loadObject(String className, CharSequence content) throws IOException, ClassNotFoundException {
+        return loadObject(className, content.toString());
+    }
 }
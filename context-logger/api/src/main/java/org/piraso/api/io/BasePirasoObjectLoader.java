@@ -18,17 +18,41 @@
 
 package org.piraso.api.io;
 
+import org.codehaus.jackson.map.ObjectReader;
+
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Base Loader
+ * Base Loader, a jackson {@link ObjectReader} is prebuilt and cached per class name.
  */
 public class BasePirasoObjectLoader extends AbstractPirasoObjectLoader {
 
+    private final ConcurrentMap<String, ObjectReader> readers = new ConcurrentHashMap<String, ObjectReader>();
+
     @Override
-    @SuppressWarnings("unchecked")
     public Object loadObject(String className, String content) throws IOException, ClassNotFoundException {
-        Class clazz = Class.forName(className);
-        return mapper.readValue(content, clazz);
+        return getReader(className).readValue(content);
+    }
+
+    @Override
+    public Object loadObject(String className, CharSequence content) throws IOException, ClassNotFoundException {
+        if(content instanceof String) {
+            return loadObject(className, (String) content);
+        }
+
+        return getReader(className).readValue(new CharSequenceReader(content));
+    }
+
+    protected ObjectReader getReader(String className) throws ClassNotFoundException {
+        ObjectReader reader = readers.get(className);
+
+        if(reader == null) {
+            reader = mapper.reader(Class.forName(className));
+            readers.putIfAbsent(className, reader);
+        }
+
+        return reader;
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Binary framing of a piraso entry stream.
+ * <p>
+ * The stream starts with the {@link #MAGIC} bytes followed by a sequence of frames, each frame being a type byte,
+ * a varint payload length and the payload:
+ * <ul>
+ *     <li>{@link #FRAME_START}: the stream id and watched address as length prefixed UTF-8 strings</li>
+ *     <li>{@link #FRAME_CLASS}: a class name dictionary entry, its varint index and length prefixed name</li>
+ *     <li>{@link #FRAME_ENTRY}: the varint class index, zigzag varint request id, zigzag varint epoch millis
+ *     date and the UTF-8 JSON entry content filling the rest of the payload</li>
+ *     <li>{@link #FRAME_END}: end of stream, empty payload</li>
+ * </ul>
+ * Frames of unknown type are skipped by readers.
+ */
+final class BinaryEntryFormat {
+
+    static final byte[] MAGIC = {'P', 'R', 'S', 'B', 1};
+
+    static final int FRAME_START = 1;
+
+    static final int FRAME_CLASS = 2;
+
+    static final int FRAME_ENTRY = 3;
+
+    static final int FRAME_END = 4;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private BinaryEntryFormat() {}
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.write((int) value);
+    }
+
+    static void writeString(OutputStream out, byte[] utf8) throws IOException {
+        writeVarLong(out, utf8.length);
+        out.write(utf8);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int varLongSize(long value) {
+        int size = 1;
+
+        while((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+
+        return size;
+    }
+
+    static int stringSize(byte[] utf8) {
+        return varLongSize(utf8.length) + utf8.length;
+    }
+
+    /**
+     * Reads a varint.
+     *
+     * @param in the input
+     * @return the value or {@code -1} on end of stream before the first byte
+     * @throws IOException on io error or end of stream within the varint
+     */
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+
+        for(int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+
+            if(b < 0) {
+                if(shift == 0) {
+                    return -1;
+                }
+
+                throw new EOFException("Unexpected end of stream within varint.");
+            }
+
+            value |= (long) (b & 0x7F) << shift;
+
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint.");
+    }
+
+    static long readZigZag(InputStream in) throws IOException {
+        long value = readVarLong(in);
+
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static String readString(InputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if(length < 0) {
+            throw new EOFException("Unexpected end of stream within string.");
+        }
+
+        byte[] bytes = new byte[length];
+        readFully(in, bytes, 0, length);
+
+        return new String(bytes, UTF_8);
+    }
+
+    static void readFully(InputStream in, byte[] buf, int off, int len) throws IOException {
+        while(len > 0) {
+            int read = in.read(buf, off, len);
+
+            if(read < 0) {
+                throw new EOFException("Unexpected end of stream within frame.");
+            }
+
+            off += read;
+            len -= read;
+        }
+    }
+
+    /**
+     * Determines whether the stream starts with the binary {@link #MAGIC}, the stream is reset to where it was.
+     *
+     * @param in a stream supporting mark
+     * @return {@code true} for a binary stream
+     * @throws IOException on io error
+     */
+    static boolean isBinary(InputStream in) throws IOException {
+        in.mark(MAGIC.length);
+
+        try {
+            for(byte b : MAGIC) {
+                if(in.read() != (b & 0xFF)) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+}
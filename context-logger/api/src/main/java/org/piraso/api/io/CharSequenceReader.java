@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.api.io;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * {@link Reader} over a {@link CharSequence}, lets Jackson parse a {@link StringBuilder} or
+ * {@link java.nio.CharBuffer} without copying it into an intermediate {@link String}.
+ * <p>
+ * The sequence should not be modified while being read.
+ */
+final class CharSequenceReader extends Reader {
+
+    private final CharSequence content;
+
+    private int position;
+
+    CharSequenceReader(CharSequence content) {
+        this.content = content;
+    }
+
+    @Override
+    public int read(char[] buf, int off, int len) {
+        int length = content.length();
+        if(position >= length) {
+            return -1;
+        }
+
+        int count = Math.min(len, length - position);
+
+        if(content instanceof StringBuilder) {
+            ((StringBuilder) content).getChars(position, position + count, buf, off);
+        } else if(content instanceof CharBuffer && ((CharBuffer) content).hasArray()) {
+            CharBuffer chars = (CharBuffer) content;
+            System.arraycopy(chars.array(), chars.arrayOffset() + chars.position() + position, buf, off, count);
+        } else {
+            for(int i = 0; i < count; i++) {
+                buf[off + i] = content.charAt(position + i);
+            }
+        }
+
+        position += count;
+
+        return count;
+    }
+
+    @Override
+    public int read() {
+        return position < content.length() ? content.charAt(position++) : -1;
+    }
+
+    @Override
+    public long skip(long n) {
+        int count = (int) Math.min(Math.max(n, 0), content.length() - position);
+        position += count;
+
+        return count;
+    }
+
+    @Override
+    public boolean ready() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
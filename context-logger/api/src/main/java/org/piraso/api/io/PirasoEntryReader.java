@@ -20,6 +20,7 @@ package org.piraso.api.io;
 
 import org.piraso.api.JacksonUtils;
 import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.RawEntry;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -30,12 +31,28 @@ import org.xml.sax.helpers.DefaultHandler;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.util.*;
 
+import static org.piraso.api.io.BinaryEntryFormat.*;
+
 /**
  * Piraso entry reader.
+ * <p>
+ * Both the xml stream and the {@link BinaryEntryFormat} framing are supported, the format is detected from the
+ * first bytes of the stream.
+ * <p>
+ * Entry content is handed to the {@link PirasoObjectLoaderRegistry} as a reused {@link CharSequence}, no
+ * intermediate {@link String} is created per entry.
  */
 public class PirasoEntryReader extends DefaultHandler {
 
@@ -43,7 +60,11 @@ public class PirasoEntryReader extends DefaultHandler {
 
     private List<EntryReadListener> listeners = Collections.synchronizedList(new LinkedList<EntryReadListener>());
 
-    private StringBuilder content = new StringBuilder();
+    private StringBuilder content = new StringBuilder(1024);
+
+    private CharsetDecoder decoder;
+
+    private CharBuffer chars;
 
     private ObjectMapper mapper;
 
@@ -63,6 +84,8 @@ public class PirasoEntryReader extends DefaultHandler {
 
     private boolean stopped;
 
+    private boolean rawEntries;
+
     public PirasoEntryReader(InputStream in) {
         this.in = in;
         this.owningThread = Thread.currentThread();
@@ -70,11 +93,164 @@ public class PirasoEntryReader extends DefaultHandler {
         mapper = JacksonUtils.createMapper();
     }
 
+    /**
+     * Determines whether entries are passed to listeners as {@link RawEntry} without being loaded, letting the
+     * caller load them on other threads.
+     *
+     * @param rawEntries {@code true} to skip loading
+     */
+    public void setRawEntries(boolean rawEntries) {
+        this.rawEntries = rawEntries;
+    }
+
+    public boolean isRawEntries() {
+        return rawEntries;
+    }
+
     public void start() throws SAXException, ParserConfigurationException, IOException {
+        InputStream input = in.markSupported() ? in : new BufferedInputStream(in);
+
+        if(isBinary(input)) {
+            readBinary(input);
+            return;
+        }
+
         SAXParserFactory factory = SAXParserFactory.newInstance();
         SAXParser parser = factory.newSAXParser();
 
-        parser.parse(in, this);
+        parser.parse(input, this);
+    }
+
+    /**
+     * Reads the binary frames until the end frame or end of stream.
+     *
+     * @param input the binary input
+     * @throws IOException on io error
+     * @throws SAXException when stopped
+     */
+    private void readBinary(InputStream input) throws IOException, SAXException {
+        List<String> classNames = new ArrayList<String>();
+        byte[] buf = new byte[1024];
+
+        readFully(input, buf, 0, MAGIC.length);
+
+        while(true) {
+            validateStopped();
+
+            int type = input.read();
+            if(type < 0 || type == FRAME_END) {
+                return;
+            }
+
+            long length = readVarLong(input);
+            if(length < 0 || length > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Invalid frame length '%d'.", length));
+            }
+
+            if(buf.length < length) {
+                buf = new byte[Math.max((int) length, buf.length * 2)];
+            }
+
+            readFully(input, buf, 0, (int) length);
+            ByteArrayInputStream frame = new ByteArrayInputStream(buf, 0, (int) length);
+
+            if(type == FRAME_START) {
+                id = readString(frame);
+                watchedAddr = readString(frame);
+
+                fireEntryReadStartedEvent(new EntryReadEvent(this, id, watchedAddr));
+            } else if(type == FRAME_CLASS) {
+                int index = (int) readVarLong(frame);
+                String className = readString(frame);
+
+                while(classNames.size() <= index) {
+                    classNames.add(null);
+                }
+
+                classNames.set(index, className);
+            } else if(type == FRAME_ENTRY) {
+                int index = (int) readVarLong(frame);
+                long requestId = readZigZag(frame);
+                long time = readZigZag(frame);
+                String className = index >= 0 && index < classNames.size() ? classNames.get(index) : null;
+                int available = frame.available();
+
+                readEntry(className, requestId, new Date(time), decode(buf, (int) length - available, available));
+            }
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 bytes into the reused char buffer.
+     *
+     * @param buf the bytes
+     * @param off the offset
+     * @param len the number of bytes
+     * @return the decoded content, valid until the next decode
+     * @throws CharacterCodingException on decoding error
+     */
+    private CharBuffer decode(byte[] buf, int off, int len) throws CharacterCodingException {
+        if(decoder == null) {
+            decoder = UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        // UTF-8 never decodes to more chars than bytes
+        if(chars == null || chars.capacity() < len) {
+            chars = CharBuffer.allocate(Math.max(len, 1024));
+        }
+
+        chars.clear();
+        decoder.reset();
+
+        CoderResult result = decoder.decode(ByteBuffer.wrap(buf, off, len), chars, true);
+        if(result.isError()) {
+            result.throwException();
+        }
+
+        decoder.flush(chars);
+        chars.flip();
+
+        return chars;
+    }
+
+    private Date parseDate(String value) throws IOException {
+        int length = value != null ? value.length() : 0;
+        boolean digits = length > 0 && length < 19;
+
+        for(int i = 0; digits && i < length; i++) {
+            char c = value.charAt(i);
+            digits = c >= '0' && c <= '9';
+        }
+
+        // dates are written as epoch millis, avoid creating a json parser for these
+        if(digits) {
+            return new Date(Long.parseLong(value));
+        }
+
+        return mapper.readValue(value, Date.class);
+    }
+
+    private void readEntry(String className, Long requestId, Date date, CharSequence entryContent) {
+        try {
+            if(className != null) {
+                Entry entry;
+
+                if(rawEntries) {
+                    entry = new RawEntry(requestId, className, entryContent.toString());
+                } else {
+                    entry = (Entry) PirasoObjectLoaderRegistry.INSTANCE.loadObject(className, entryContent);
+                }
+
+                fireEntryReadEvent(new EntryReadEvent(this, requestId, entry, date));
+            } else {
+                LOG.warn(String.format("Unable to parse entry with value '%s'", entryContent));
+            }
+        } catch (Exception e) {
+            String msg = String.format("Unable to parse entry with class name '%s' and value '%s'", className, entryContent);
+            LOG.warn(msg, e);
+        }
     }
 
     public void stop() {
@@ -94,20 +270,10 @@ public class PirasoEntryReader extends DefaultHandler {
         validateStopped();
 
         if(qName.equals("entry")) {
-            try {
-                if(currentEntryClassName != null) {
-                    Entry entry = (Entry) PirasoObjectLoaderRegistry.INSTANCE.loadObject(currentEntryClassName, content.toString());
-                    fireEntryReadEvent(new EntryReadEvent(this, currentEntryId, entry, currentEntryDate));
-                } else {
-                    LOG.warn(String.format("Unable to parse entry with value '%s'", content));
-                }
-            } catch (Exception e) {
-                String msg = String.format("Unable to parse entry with class name '%s' and value '%s'", currentEntryClassName, content);
-                LOG.warn(msg, e);
-            }
+            readEntry(currentEntryClassName, currentEntryId, currentEntryDate, content);
         }
 
-        content.delete(0, content.length());
+        content.setLength(0);
     }
 
     @Override
@@ -122,7 +288,7 @@ public class PirasoEntryReader extends DefaultHandler {
         } else if(qName.equals("entry")) {
             try {
                 currentEntryClassName = attributes.getValue("class-name");
-                currentEntryDate = mapper.readValue(attributes.getValue("date"), Date.class);
+                currentEntryDate = parseDate(attributes.getValue("date"));
                 currentEntryId = Long.valueOf(attributes.getValue("id"));
             } catch (Exception e) {
                 LOG.warn(String.format("Unable to parse entry with attributes '%s'", attributes.toString()));
@@ -138,7 +304,7 @@ public class PirasoEntryReader extends DefaultHandler {
     public void characters(char[] ch, int start, int length) throws SAXException {
         validateStopped();
 
-        content.append(new String(ch, start, length));
+        content.append(ch, start, length);
     }
 
     public String getId() {
@@ -18,7 +18,6 @@
 
 package org.piraso.api.io;
 
-import org.codehaus.jackson.JsonGenerationException;
 import org.piraso.api.JacksonUtils;
 import org.piraso.api.entry.Entry;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -37,12 +36,28 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.piraso.api.io.BinaryEntryFormat.*;
 
 /**
  * Piraso entry stream writer.
+ * <p>
+ * By default entries are encoded by streaming them directly to the underlying writer. The previous
+ * DOM based encoding can still be used through {@link #setStreaming(boolean)}, both produce the same
+ * {@code <piraso>} document.
+ * <p>
+ * When constructed with an {@link OutputStream} entries are written using the compact {@link BinaryEntryFormat}
+ * framing instead, class names are sent once per stream and entry contents are not escaped.
+ * <p>
+ * A writer constructed with only a {@link PrintWriter} writes a document fragment, the entries without the
+ * {@link #getDocumentStart(String, String) document start} and {@link #DOCUMENT_END document end}.
  */
 public class PirasoEntryWriter implements Closeable {
 
+    public static final String DOCUMENT_END = "</piraso>";
+
     private ObjectMapper mapper;
 
     private PrintWriter writer;
@@ -51,25 +66,123 @@ public class PirasoEntryWriter implements Closeable {
 
     private Transformer transformer;
 
+    private boolean streaming = true;
+
+    private boolean autoFlush = true;
+
+    private boolean fragment;
+
+    /**
+     * Binary output, {@code null} when writing xml.
+     */
+    private OutputStream out;
+
+    /**
+     * Binary class name dictionary, class name to index.
+     */
+    private Map<String, Integer> classIndexes;
+
     public PirasoEntryWriter(String id, String watchedAddr, PrintWriter writer) throws ParserConfigurationException, TransformerConfigurationException {
         this.writer = writer;
         mapper = JacksonUtils.createMapper();
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
+        init(id, watchedAddr);
+    }
 
-        builder = factory.newDocumentBuilder();
-        transformer = transformerFactory.newTransformer();
+    /**
+     * Construct a writer of a document fragment, only entries are written.
+     *
+     * @param writer the fragment writer
+     */
+    public PirasoEntryWriter(PrintWriter writer) {
+        this.writer = writer;
+        this.fragment = true;
+        mapper = JacksonUtils.createMapper();
+    }
 
-        init(id, watchedAddr);
+    /**
+     * Construct a writer using the binary framing.
+     *
+     * @param id the stream id
+     * @param watchedAddr the watched address
+     * @param out the binary output
+     * @throws IOException on io error
+     */
+    public PirasoEntryWriter(String id, String watchedAddr, OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        this.classIndexes = new HashMap<String, Integer>();
+        mapper = JacksonUtils.createMapper();
+
+        initBinary(id, watchedAddr);
+    }
+
+    /**
+     * The start of an xml document, up to the first entry.
+     *
+     * @param id the stream id
+     * @param watchedAddr the watched address
+     * @return the document start
+     */
+    public static String getDocumentStart(String id, String watchedAddr) {
+        String separator = System.getProperty("line.separator");
+
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + separator +
+                String.format("<piraso id=\"%s\" watched-address=\"%s\">", id, watchedAddr) + separator;
     }
 
     private void init(String id, String watchedAddr) {
-        writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
-        writer.println(String.format("<piraso id=\"%s\" watched-address=\"%s\">", id, watchedAddr));
+        writer.write(getDocumentStart(id, watchedAddr));
         writer.flush();
     }
 
+    private void initBinary(String id, String watchedAddr) throws IOException {
+        byte[] idBytes = String.valueOf(id).getBytes(UTF_8);
+        byte[] addrBytes = String.valueOf(watchedAddr).getBytes(UTF_8);
+
+        out.write(MAGIC);
+        out.write(FRAME_START);
+        writeVarLong(out, stringSize(idBytes) + stringSize(addrBytes));
+        writeString(out, idBytes);
+        writeString(out, addrBytes);
+        out.flush();
+    }
+
+    /**
+     * Determines whether this writer uses the binary framing.
+     *
+     * @return {@code true} when binary
+     */
+    public boolean isBinary() {
+        return out != null;
+    }
+
+    /**
+     * Determines whether entries are streamed directly to the writer or built through a DOM document.
+     *
+     * @param streaming {@code true} for streaming, {@code false} for DOM
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Determines whether the writer is flushed after each entry. When disabled the caller is responsible for
+     * invoking {@link #flush()}, this allows several entries to be sent in one burst.
+     *
+     * @param autoFlush {@code true} to flush after each entry
+     */
+    public void setAutoFlush(boolean autoFlush) {
+        this.autoFlush = autoFlush;
+    }
+
+    public boolean isAutoFlush() {
+        return autoFlush;
+    }
+
     private String getEntryClassName(Entry entry) {
         if(RawEntry.class.isInstance(entry)) {
             return ((RawEntry) entry).getRawClassName();
@@ -86,7 +199,22 @@ public class PirasoEntryWriter implements Closeable {
         return mapper.writeValueAsString(entry);
     }
 
+    private void initDOM() throws ParserConfigurationException, TransformerConfigurationException {
+        if(builder != null) {
+            return;
+        }
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+        builder = factory.newDocumentBuilder();
+        transformer = transformerFactory.newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+    }
+
     private String createXMLString(Date date, Entry entry) throws ParserConfigurationException, SAXException, IOException, TransformerException {
+        initDOM();
+
         StringReader reader = new StringReader(String.format("<entry id=\"%d\" date=\"%s\" class-name=\"%s\"></entry>",
                 entry.getRequestId(), mapper.writeValueAsString(date), getEntryClassName(entry)));
 
@@ -100,23 +228,179 @@ public class PirasoEntryWriter implements Closeable {
         StreamResult outputTarget = new StreamResult(out);
         DOMSource source = new DOMSource(document);
 
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
         transformer.transform(source, outputTarget);
 
         StringBuffer buf = out.getBuffer();
         return buf.toString();
     }
 
+    /**
+     * Streams the entry element directly to the writer. Attributes are written in the same order and
+     * characters are escaped the same way as the DOM serializer does.
+     *
+     * @param date the entry date
+     * @param entry the entry to write
+     * @throws IOException on io error
+     */
+    private void writeEntry(Date date, Entry entry) throws IOException {
+        String content = getEntryContent(entry);
+
+        writer.write("<entry class-name=\"");
+        escape(getEntryClassName(entry), true);
+        writer.write("\" date=\"");
+        writer.write(String.valueOf(date.getTime()));
+        writer.write("\" id=\"");
+        writer.write(String.valueOf(entry.getRequestId()));
+
+        if(content == null || content.length() == 0) {
+            writer.write("\"/>");
+        } else {
+            writer.write("\">");
+            escape(content, false);
+            writer.write("</entry>");
+        }
+    }
+
+    private void escape(String str, boolean attribute) {
+        int len = str.length();
+        int mark = 0;
+
+        for(int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            String replacement;
+
+            if(c == '<') {
+                replacement = "&lt;";
+            } else if(c == '>') {
+                replacement = "&gt;";
+            } else if(c == '&') {
+                replacement = "&amp;";
+            } else if(c == '"' && attribute) {
+                replacement = "&quot;";
+            } else if(c == '\n' && !attribute) {
+                replacement = null;
+            } else if(c == '\t' && !attribute) {
+                continue;
+            } else if(c < 0x20 || (c >= 0x7F && c <= 0x9F)) {
+                replacement = "&#" + (int) c + ";";
+            } else if(Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(str.charAt(i + 1))) {
+                replacement = "&#" + Character.toCodePoint(c, str.charAt(i + 1)) + ";";
+            } else {
+                continue;
+            }
+
+            writer.write(str, mark, i - mark);
+
+            if(Character.isHighSurrogate(c)) {
+                i++;
+            }
+
+            mark = i + 1;
+
+            if(replacement == null) {
+                writer.println();
+            } else {
+                writer.write(replacement);
+            }
+        }
+
+        writer.write(str, mark, len - mark);
+    }
+
+    /**
+     * Writes the entry frame, preceded by a class frame the first time the entry class name is seen.
+     *
+     * @param date the entry date
+     * @param entry the entry to write
+     * @throws IOException on io error
+     */
+    private void writeFrame(Date date, Entry entry) throws IOException {
+        String className = getEntryClassName(entry);
+        Integer index = classIndexes.get(className);
+
+        if(index == null) {
+            index = classIndexes.size();
+            classIndexes.put(className, index);
+
+            byte[] name = className.getBytes(UTF_8);
+
+            out.write(FRAME_CLASS);
+            writeVarLong(out, varLongSize(index) + stringSize(name));
+            writeVarLong(out, index);
+            writeString(out, name);
+        }
+
+        String content = getEntryContent(entry);
+        byte[] body = content != null ? content.getBytes(UTF_8) : new byte[0];
+        long requestId = entry.getRequestId() != null ? zigZag(entry.getRequestId()) : 0;
+        long time = zigZag(date.getTime());
+
+        out.write(FRAME_ENTRY);
+        writeVarLong(out, varLongSize(index) + varLongSize(requestId) + varLongSize(time) + body.length);
+        writeVarLong(out, index);
+        writeVarLong(out, requestId);
+        writeVarLong(out, time);
+        out.write(body);
+    }
+
     public void write(Date date, Entry entry) throws ParserConfigurationException, SAXException, IOException, TransformerException {
-        writer.println(createXMLString(date, entry));
-        writer.flush();
+        if(out != null) {
+            writeFrame(date, entry);
+
+            if(autoFlush) {
+                out.flush();
+            }
+
+            return;
+        }
+
+        if(streaming) {
+            writeEntry(date, entry);
+            writer.println();
+        } else {
+            writer.println(createXMLString(date, entry));
+        }
+
+        if(autoFlush) {
+            writer.flush();
+        }
     }
+
     public void write(Entry entry) throws ParserConfigurationException, SAXException, IOException, TransformerException {
         write(new Date(), entry);
     }
 
+    public void flush() {
+        if(out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                // same as PrintWriter, errors surface on the next write or close
+            }
+
+            return;
+        }
+
+        writer.flush();
+    }
+
     public void close() {
-        writer.write("</piraso>");
+        if(out != null) {
+            try {
+                out.write(FRAME_END);
+                out.write(0);
+                out.close();
+            } catch (IOException ignored) {
+                // client already gone
+            }
+
+            return;
+        }
+
+        if(!fragment) {
+            writer.write(DOCUMENT_END);
+        }
+
         writer.close();
     }
 }
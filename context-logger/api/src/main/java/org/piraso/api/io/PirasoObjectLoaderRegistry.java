@@ -20,12 +20,19 @@ package org.piraso.api.io;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.piraso.api.entry.RawEntry;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Register a {@link org.piraso.api.entry.Entry} loader
+ * <p>
+ * The loader able to load a given class name is remembered, later objects of that class go straight to it.
+ * Class names no loader knows are remembered as well and loaded as {@link RawEntry} so the content is kept.
  */
 public final class PirasoObjectLoaderRegistry {
 
@@ -33,25 +40,105 @@ public final class PirasoObjectLoaderRegistry {
 
     public static final PirasoObjectLoaderRegistry INSTANCE = new PirasoObjectLoaderRegistry();
 
+    /**
+     * Maximum number of class names remembered as unknown, protects against unbounded growth from garbage
+     * class names.
+     */
+    public static final int MAX_UNKNOWN = 1024;
+
+    private static final PirasoObjectLoader UNKNOWN = new PirasoObjectLoader() {
+        public Object loadObject(String className, String content) throws ClassNotFoundException {
+            throw new ClassNotFoundException(className);
+        }
+    };
+
     static {
         INSTANCE.addEntryLoader(new BasePirasoObjectLoader());
     }
 
-    private List<PirasoObjectLoader> loaders = new LinkedList<PirasoObjectLoader>();
+    private List<PirasoObjectLoader> loaders = new CopyOnWriteArrayList<PirasoObjectLoader>();
+
+    private final ConcurrentMap<String, PirasoObjectLoader> resolved = new ConcurrentHashMap<String, PirasoObjectLoader>();
+
+    /**
+     * Number of class names in {@link #resolved} remembered as unknown.
+     */
+    private final AtomicInteger unknownCount = new AtomicInteger();
 
     public void addEntryLoader(PirasoObjectLoader loader) {
         loaders.add(loader);
+
+        // the new loader may know previously unknown classes
+        resolved.clear();
+        unknownCount.set(0);
     }
 
     public Object loadObject(String className, String content) {
+        return loadObject(className, (CharSequence) content);
+    }
+
+    /**
+     * Loads an object from json content without requiring it as a {@link String}, the content is only copied
+     * for loaders which does not extend {@link AbstractPirasoObjectLoader}.
+     *
+     * @param className the object class name
+     * @param content the json content
+     * @return the loaded object, a {@link RawEntry} when no loader knows the class name
+     * @throws IllegalStateException when the content could not be loaded
+     */
+    public Object loadObject(String className, CharSequence content) {
+        PirasoObjectLoader loader = resolved.get(className);
+
+        if(loader == UNKNOWN) {
+            return new RawEntry(null, className, content.toString());
+        }
+
+        if(loader != null) {
+            try {
+                return load(loader, className, content);
+            } catch(Exception e) {
+                throw new IllegalStateException(String.format("Unable to load class %s: %s", className, e.getMessage()), e);
+            }
+        }
+
+        return resolve(className, content);
+    }
+
+    private Object resolve(String className, CharSequence content) {
+        Exception error = null;
+
         for(PirasoObjectLoader loader : loaders) {
             try {
-                return loader.loadObject(className, content);
+                Object result = load(loader, className, content);
+                resolved.put(className, loader);
+
+                return result;
+            } catch(ClassNotFoundException e) {
+                LOG.debug(e.getMessage(), e);
             } catch(Exception e) {
-                LOG.warn(e.getMessage(), e);
+                LOG.debug(e.getMessage(), e);
+                error = e;
             }
         }
 
-        throw new IllegalStateException(String.format("No loader found to load class %s", className));
+        if(error != null) {
+            // the class may be known, the content is not
+            throw new IllegalStateException(String.format("No loader found to load class %s", className), error);
+        }
+
+        if(unknownCount.get() < MAX_UNKNOWN && resolved.putIfAbsent(className, UNKNOWN) == null) {
+            unknownCount.incrementAndGet();
+            LOG.warn(String.format("No loader found for class %s, loaded as raw entry.", className));
+        }
+
+        return new RawEntry(null, className, content.toString());
+    }
+
+    private static Object load(PirasoObjectLoader loader, String className, CharSequence content) throws Exception {
+        if(loader instanceof AbstractPirasoObjectLoader) {
+            return ((AbstractPirasoObjectLoader) loader).loadObject(className, content);
+        }
+
+        return loader.loadObject(className, content.toString());
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Test for {@link BlockIDGenerator}.
+ */
+public class BlockIDGeneratorTest {
+
+    @Test
+    public void testNext() throws Exception {
+        LongIDGenerator shared = new LongIDGenerator();
+        BlockIDGenerator generator = new BlockIDGenerator(shared, 3);
+
+        assertEquals(Long.valueOf(1l), generator.next());
+        assertEquals(Long.valueOf(2l), generator.next());
+        assertEquals(Long.valueOf(3l), generator.next());
+
+        // another process takes from the shared generator
+        assertEquals(Long.valueOf(4l), shared.next());
+
+        // next block is reserved
+        assertEquals(Long.valueOf(5l), generator.next());
+    }
+
+    @Test
+    public void testReserve() throws Exception {
+        BlockIDGenerator generator = new BlockIDGenerator(new LongIDGenerator(), 3);
+
+        assertEquals(Long.valueOf(1l), generator.next());
+        assertEquals(4l, generator.reserve(5));
+        assertEquals(Long.valueOf(2l), generator.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBlockSize() throws Exception {
+        new BlockIDGenerator(new LongIDGenerator(), 0);
+    }
+
+    @Test
+    public void testConcurrentNext() throws Exception {
+        LongIDGeneratorTest.assertUnique(new BlockIDGenerator(new LongIDGenerator(), 7));
+    }
+}
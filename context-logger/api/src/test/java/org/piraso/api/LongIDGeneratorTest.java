@@ -20,6 +20,9 @@ package org.piraso.api;
 
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.concurrent.*;
+
 import static junit.framework.Assert.assertEquals;
 
 /**
@@ -35,4 +38,63 @@ public class LongIDGeneratorTest {
         assertEquals(Long.valueOf(2l), generator.next());
         assertEquals(Long.valueOf(3l), generator.next());
     }
+
+    @Test
+    public void testReserve() throws Exception {
+        LongIDGenerator generator = new LongIDGenerator();
+
+        assertEquals(Long.valueOf(1l), generator.next());
+        assertEquals(2l, generator.reserve(10));
+        assertEquals(Long.valueOf(12l), generator.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReserveInvalidCount() throws Exception {
+        new LongIDGenerator().reserve(0);
+    }
+
+    @Test
+    public void testConcurrentNext() throws Exception {
+        assertUnique(new LongIDGenerator());
+    }
+
+    /**
+     * Ensures ids generated from several threads are never duplicated.
+     *
+     * @param generator the generator to test
+     * @throws Exception on error
+     */
+    static void assertUnique(final NextGenerator<Long> generator) throws Exception {
+        final int threads = 8;
+        final int perThread = 10000;
+        final Set<Long> ids = new ConcurrentSkipListSet<Long>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for(int i = 0; i < threads; i++) {
+                futures[i] = executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+
+                        for(int j = 0; j < perThread; j++) {
+                            ids.add(generator.next());
+                        }
+
+                        return null;
+                    }
+                });
+            }
+
+            start.countDown();
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+    }
 }
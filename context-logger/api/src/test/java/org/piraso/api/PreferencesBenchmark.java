@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link Preferences} regex and url evaluation given the number of regex preference keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreferencesBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int keys;
+
+    private Preferences preferences;
+
+    private String[] levels;
+
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        preferences = new Preferences();
+
+        for(int i = 0; i < keys; i++) {
+            preferences.addProperty("module" + i + "\\..*", i % 2 == 0);
+            preferences.addUrlPattern("/app/module" + i + "/.*");
+        }
+
+        // mix of matching and not matching level names
+        levels = new String[] {"module0.sql", "module" + (keys - 1) + ".method", "other.level", "module" + keys + ".sql"};
+    }
+
+    @Benchmark
+    public boolean isRegexEnabled() {
+        return preferences.isRegexEnabled(levels[index++ & 3]);
+    }
+
+    @Benchmark
+    public boolean isUrlAcceptable() {
+        return preferences.isUrlAcceptable(index++ % 2 == 0 ? "/app/module0/list.do" : "/other/list.do");
+    }
+
+    @Benchmark
+    public boolean isEnabled() {
+        return preferences.isEnabled(levels[index++ & 3]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PreferencesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
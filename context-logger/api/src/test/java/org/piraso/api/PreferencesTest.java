@@ -21,7 +21,9 @@ package org.piraso.api;
 import org.hamcrest.CoreMatchers;
 import org.junit.Test;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static junit.framework.Assert.assertFalse;
@@ -126,6 +128,83 @@ public class PreferencesTest extends AbstractJacksonTest {
 
     @Test
     public void testIsRegex() throws Exception {
+        Preferences preferences = new Preferences();
+
+        assertFalse(preferences.isRegexEnabled("sql.connection"));
+
+        preferences.addProperty("sql\\..*", true);
+
+        assertTrue(preferences.isRegexEnabled("sql.connection"));
+        assertTrue(preferences.isRegexEnabled("sql.connection"));
+        assertFalse(preferences.isRegexEnabled("method.call"));
+
+        // memoized answers are discarded when properties changes
+        preferences.addProperty("method\\..*", true);
+
+        assertTrue(preferences.isRegexEnabled("method.call"));
+
+        // invalid patterns never match
+        preferences.addProperty("[invalid", true);
+
+        assertFalse(preferences.isRegexEnabled("[invalid"));
+        assertTrue(preferences.isRegexEnabled("sql.connection"));
+    }
+
+    @Test
+    public void testIsRegexDisabled() throws Exception {
+        Preferences preferences = new Preferences();
+
+        preferences.addProperty("sql\\..*", false);
+
+        assertFalse(preferences.isRegexEnabled("sql.connection"));
+
+        Map<String, Boolean> properties = new HashMap<String, Boolean>();
+        properties.put("sql\\..*", true);
+        preferences.setBooleanProperties(properties);
+
+        assertTrue(preferences.isRegexEnabled("sql.connection"));
+    }
+
+    @Test
+    public void testUrlAcceptableMemoized() throws Exception {
+        Preferences preferences = new Preferences();
+
+        preferences.addUrlPattern("/app/.*");
+
+        assertTrue(preferences.isUrlAcceptable("/app/list"));
+        assertFalse(preferences.isUrlAcceptable("/other"));
+        assertFalse(preferences.isUrlAcceptable("/other"));
+
+        preferences.addUrlPattern("/other");
+
+        assertTrue(preferences.isUrlAcceptable("/other"));
+
+        // more urls than the memo can hold are still evaluated
+        for(int i = 0; i < Preferences.MAX_MEMOIZED * 2; i++) {
+            assertTrue(preferences.isUrlAcceptable("/app/" + i));
+            assertFalse(preferences.isUrlAcceptable("/none/" + i));
+        }
+
+        preferences.setUrlPatterns(null);
+
+        assertTrue(preferences.isUrlAcceptable("/none/1"));
+    }
+
+    @Test
+    public void testCompiledStateNotInEquality() throws Exception {
+        Preferences p1 = new Preferences();
+        p1.addProperty("sql\\..*", true);
+        p1.addUrlPattern("/test");
+
+        Preferences p2 = new Preferences();
+        p2.addProperty("sql\\..*", true);
+        p2.addUrlPattern("/test");
+
+        assertTrue(p1.isRegexEnabled("sql.connection"));
+        assertTrue(p1.isUrlAcceptable("/test"));
 
+        assertThat(p1, is(p2));
+        assertThat(p1.hashCode(), is(p2.hashCode()));
+        assertThat(mapper.writeValueAsString(p1), is(mapper.writeValueAsString(p2)));
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Test for {@link TimeOrderedIDGenerator}.
+ */
+public class TimeOrderedIDGeneratorTest {
+
+    @Test
+    public void testNext() throws Exception {
+        final long now = System.currentTimeMillis();
+
+        TimeOrderedIDGenerator generator = new TimeOrderedIDGenerator(5) {
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+
+        long first = generator.next();
+        long second = generator.next();
+
+        assertTrue(second > first);
+        assertEquals(now, TimeOrderedIDGenerator.getTime(first));
+        assertEquals(5, first & TimeOrderedIDGenerator.MAX_NODE);
+        assertEquals(5, second & TimeOrderedIDGenerator.MAX_NODE);
+    }
+
+    @Test
+    public void testSequenceExhausted() throws Exception {
+        final long now = System.currentTimeMillis();
+
+        TimeOrderedIDGenerator generator = new TimeOrderedIDGenerator() {
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+
+        long prev = generator.next();
+        for(int i = 0; i < (1 << TimeOrderedIDGenerator.SEQUENCE_BITS) * 2; i++) {
+            long id = generator.next();
+
+            assertTrue(id > prev);
+            prev = id;
+        }
+
+        // borrowed from the following milliseconds
+        assertEquals(now + 2, TimeOrderedIDGenerator.getTime(prev));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNode() throws Exception {
+        new TimeOrderedIDGenerator(TimeOrderedIDGenerator.MAX_NODE + 1);
+    }
+
+    @Test
+    public void testConcurrentNext() throws Exception {
+        LongIDGeneratorTest.assertUnique(new TimeOrderedIDGenerator());
+    }
+}
@@ -24,8 +24,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 
-import static junit.framework.Assert.assertNull;
-import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.*;
 
 /**
  * Test for {@link EntryUtils} class.
@@ -74,4 +73,17 @@ public class EntryUtilsTest {
         assertTrue(EntryUtils.toEntry(obj).length == obj.length);
         assertTrue(EntryUtils.toEntry(st).length == st.length);
     }
+
+    @Test
+    public void testToRawEntry() throws Exception {
+        MessageEntry entry = new MessageEntry(1l, "message");
+        RawEntry raw = EntryUtils.toRawEntry(entry);
+
+        assertEquals(Long.valueOf(1l), raw.getRequestId());
+        assertEquals(MessageEntry.class.getName(), raw.getRawClassName());
+        assertTrue(raw.getRawContent().contains("\"message\":\"message\""));
+
+        // already encoded entries are returned as is
+        assertSame(raw, EntryUtils.toRawEntry(raw));
+    }
 }
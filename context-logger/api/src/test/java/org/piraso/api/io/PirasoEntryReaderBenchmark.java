@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.api.io;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.piraso.api.entry.*;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark replaying a recorded piraso stream with {@link PirasoEntryReader}.
+ * <p>
+ * Each invocation reads the whole recording, scores are entries per millisecond. Run through {@link #main} to
+ * also get the bytes allocated per entry ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PirasoEntryReaderBenchmark {
+
+    private static final int ENTRIES = 10000;
+
+    @Param({"false", "true"})
+    private boolean binary;
+
+    private File recording;
+
+    private int read;
+
+    @Setup
+    public void setup() throws Exception {
+        recording = File.createTempFile("piraso-benchmark", ".pir");
+        recording.deleteOnExit();
+
+        PirasoEntryWriter writer;
+        if(binary) {
+            writer = new PirasoEntryWriter("1", "127.0.0.1", new FileOutputStream(recording));
+        } else {
+            writer = new PirasoEntryWriter("1", "127.0.0.1", new PrintWriter(new OutputStreamWriter(new FileOutputStream(recording), "UTF-8")));
+        }
+
+        Date date = new Date();
+        Method method = Integer.class.getMethod("valueOf", String.class);
+
+        for(int i = 0; i < ENTRIES; i++) {
+            Entry entry;
+
+            if(i % 3 == 0) {
+                HttpRequestEntry httpRequest = new HttpRequestEntry("/app/orders/list.do");
+                httpRequest.setMethod("GET");
+                httpRequest.setQueryString("page=" + i + "&sort=<date>");
+                httpRequest.setRemoteAddr("127.0.0.1");
+                httpRequest.setParameters(new LinkedHashMap<String, String[]>());
+                httpRequest.getParameters().put("page", new String[] {String.valueOf(i)});
+                httpRequest.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko)");
+                entry = httpRequest;
+            } else if(i % 3 == 1) {
+                MethodCallEntry methodCall = new MethodCallEntry(method, new ElapseTimeEntry(date.getTime(), date.getTime() + i));
+                methodCall.setArguments(EntryUtils.toEntry(new Object[] {String.valueOf(i)}));
+                methodCall.setReturnedValue(new ObjectEntry(i));
+                entry = methodCall;
+            } else {
+                entry = new MessageEntry("message " + i);
+            }
+
+            entry.setRequestId((long) i / 3);
+            writer.write(date, entry);
+        }
+
+        writer.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if(read != ENTRIES) {
+            throw new IllegalStateException(String.format("Expected %d entries but read %d.", ENTRIES, read));
+        }
+
+        recording.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public int replay() throws Exception {
+        InputStream in = new BufferedInputStream(new FileInputStream(recording), 64 * 1024);
+
+        try {
+            PirasoEntryReader reader = new PirasoEntryReader(in);
+            final int[] count = new int[1];
+
+            reader.addListener(new EntryReadAdapter() {
+                @Override
+                public void readEntry(EntryReadEvent evt) {
+                    count[0]++;
+                }
+            });
+
+            reader.start();
+            read = count[0];
+
+            return read;
+        } finally {
+            in.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PirasoEntryReaderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
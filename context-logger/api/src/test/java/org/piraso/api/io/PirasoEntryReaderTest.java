@@ -20,6 +20,7 @@ package org.piraso.api.io;
 
 import org.piraso.api.entry.Entry;
 import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.RawEntry;
 import org.junit.Test;
 import org.xml.sax.SAXException;
 
@@ -89,10 +90,13 @@ public class PirasoEntryReaderTest {
 
         reader.start();
 
-        // no entry was read since all passed entries are invalid.
-        assertTrue(entriesRead.isEmpty());
-        assertTrue(idsRead.isEmpty());
-        assertTrue(datesRead.isEmpty());
+        // the entry with invalid date is skipped, the unknown class is read as raw entry.
+        assertEquals(1, entriesRead.size());
+        assertEquals(Long.valueOf(1l), idsRead.get(0));
+        assertEquals(new Date(1319349832439l), datesRead.get(0));
+        assertTrue(RawEntry.class.isInstance(entriesRead.get(0)));
+        assertEquals("invalidClassName", ((RawEntry) entriesRead.get(0)).getRawClassName());
+        assertEquals("{\"message\":\"message\",\"elapseTime\":null}", ((RawEntry) entriesRead.get(0)).getRawContent());
     }
 
     @Test
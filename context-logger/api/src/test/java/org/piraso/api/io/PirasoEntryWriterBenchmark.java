@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.api.io;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.piraso.api.entry.*;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing the streaming and DOM encoding of {@link PirasoEntryWriter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PirasoEntryWriterBenchmark {
+
+    @Param({"true", "false"})
+    private boolean streaming;
+
+    private PirasoEntryWriter writer;
+
+    private MethodCallEntry methodCall;
+
+    private HttpRequestEntry httpRequest;
+
+    private Date date;
+
+    @Setup
+    public void setup() throws Exception {
+        writer = new PirasoEntryWriter("1", "127.0.0.1", new PrintWriter(new NullWriter()));
+        writer.setStreaming(streaming);
+        date = new Date();
+
+        Method method = Integer.class.getMethod("valueOf", String.class);
+        methodCall = new MethodCallEntry(method, new ElapseTimeEntry(date.getTime(), date.getTime() + 30l));
+        methodCall.setArguments(EntryUtils.toEntry(new Object[] {"13"}));
+        methodCall.setReturnedValue(new ObjectEntry(13));
+        methodCall.setStackTrace(EntryUtils.toEntry(Thread.currentThread().getStackTrace()));
+        methodCall.setRequestId(1l);
+
+        httpRequest = new HttpRequestEntry("/app/orders/list.do");
+        httpRequest.setMethod("GET");
+        httpRequest.setQueryString("page=2&sort=<date>");
+        httpRequest.setRemoteAddr("127.0.0.1");
+        httpRequest.setParameters(new LinkedHashMap<String, String[]>());
+        httpRequest.getParameters().put("page", new String[] {"2"});
+        httpRequest.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko)");
+        httpRequest.addHeader("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+        httpRequest.addHeader("Cookie", "JSESSIONID=5F2A9C1B7E3D; theme=\"dark\"");
+        httpRequest.setRequestId(1l);
+    }
+
+    @Benchmark
+    public void methodCallEntry() throws Exception {
+        writer.write(date, methodCall);
+    }
+
+    @Benchmark
+    public void httpRequestEntry() throws Exception {
+        writer.write(date, httpRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PirasoEntryWriterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static class NullWriter extends Writer {
+        @Override
+        public void write(char[] buf, int off, int len) {
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
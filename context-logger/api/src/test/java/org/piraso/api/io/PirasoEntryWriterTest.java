@@ -18,12 +18,21 @@
 
 package org.piraso.api.io;
 
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.HttpRequestEntry;
 import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.RawEntry;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -47,4 +56,80 @@ public class PirasoEntryWriterTest {
         assertTrue(actual.contains("message"));
         assertTrue(actual.contains(MessageEntry.class.getName()));
     }
+
+    @Test
+    public void testStreamingSameAsDOM() throws Exception {
+        HttpRequestEntry request = new HttpRequestEntry("/test?a=1&b=<2>");
+        request.setMethod("GET");
+        request.addHeader("User-Agent", "\"quoted\" \u00e9\u4e2d\ud83d\ude00");
+        request.setRequestId(1l);
+
+        RawEntry raw = new RawEntry(1l, "custom.Entry", "line1\nline2\r\tend & more");
+
+        Entry[] entries = new Entry[] {new MessageEntry(1l, "a < b && c > d"), request, raw};
+        Date date = new Date();
+
+        assertEquals(writeAll(false, date, entries), writeAll(true, date, entries));
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws Exception {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        Date date = new Date();
+
+        PirasoEntryWriter writer = new PirasoEntryWriter("1", "2", buf);
+        writer.write(date, new MessageEntry(1l, "a < b && c > d \u4e2d\ud83d\ude00"));
+        writer.write(date, new MessageEntry(300l, "second"));
+        writer.write(new Date(date.getTime() + 1), new MessageEntry(-1l, ""));
+        writer.close();
+
+        final List<EntryReadEvent> events = new ArrayList<EntryReadEvent>();
+        PirasoEntryReader reader = new PirasoEntryReader(new ByteArrayInputStream(buf.toByteArray()));
+        reader.addListener(new EntryReadAdapter() {
+            @Override
+            public void readEntry(EntryReadEvent evt) {
+                events.add(evt);
+            }
+        });
+
+        reader.start();
+
+        assertEquals("1", reader.getId());
+        assertEquals("2", reader.getWatchedAddr());
+        assertEquals(3, events.size());
+        assertEquals("a < b && c > d \u4e2d\ud83d\ude00", ((MessageEntry) events.get(0).getEntry()).getMessage());
+        assertEquals(date, events.get(0).getDate());
+        assertEquals(Long.valueOf(300l), events.get(1).getRequestId());
+        assertEquals(Long.valueOf(-1l), events.get(2).getRequestId());
+        assertEquals(date.getTime() + 1, events.get(2).getDate().getTime());
+    }
+
+    @Test
+    public void testBinaryClassNameSentOnce() throws Exception {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+
+        PirasoEntryWriter writer = new PirasoEntryWriter("1", "2", buf);
+        writer.write(new MessageEntry(1l, "first"));
+        writer.write(new MessageEntry(1l, "second"));
+        writer.close();
+
+        String content = new String(buf.toByteArray(), "UTF-8");
+
+        assertEquals(content.indexOf(MessageEntry.class.getName()), content.lastIndexOf(MessageEntry.class.getName()));
+    }
+
+    private String writeAll(boolean streaming, Date date, Entry... entries) throws Exception {
+        StringWriter buf = new StringWriter();
+
+        PirasoEntryWriter writer = new PirasoEntryWriter("1", "2", new PrintWriter(buf));
+        writer.setStreaming(streaming);
+
+        for(Entry entry : entries) {
+            writer.write(date, entry);
+        }
+
+        writer.close();
+
+        return buf.toString();
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.api.io;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.RawEntry;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test for {@link PirasoObjectLoaderRegistry} class.
+ */
+public class PirasoObjectLoaderRegistryTest {
+
+    private static final String CONTENT = "{\"message\":\"message\",\"elapseTime\":null}";
+
+    private PirasoObjectLoaderRegistry registry;
+
+    private PirasoObjectLoader custom;
+
+    @Before
+    public void setUp() throws Exception {
+        custom = mock(PirasoObjectLoader.class);
+        when(custom.loadObject(anyString(), anyString())).thenThrow(new ClassNotFoundException());
+
+        registry = new PirasoObjectLoaderRegistry();
+        registry.addEntryLoader(custom);
+        registry.addEntryLoader(new BasePirasoObjectLoader());
+    }
+
+    @Test
+    public void testLoadObject() throws Exception {
+        MessageEntry entry = (MessageEntry) registry.loadObject(MessageEntry.class.getName(), new StringBuilder(CONTENT));
+        assertEquals("message", entry.getMessage());
+
+        entry = (MessageEntry) registry.loadObject(MessageEntry.class.getName(), CONTENT);
+        assertEquals("message", entry.getMessage());
+
+        // the resolved loader is remembered
+        verify(custom, times(1)).loadObject(anyString(), anyString());
+    }
+
+    @Test
+    public void testUnknownClassLoadedAsRawEntry() throws Exception {
+        for(int i = 0; i < 3; i++) {
+            RawEntry entry = (RawEntry) registry.loadObject("unknown.Entry", CONTENT);
+
+            assertEquals("unknown.Entry", entry.getRawClassName());
+            assertEquals(CONTENT, entry.getRawContent());
+        }
+
+        // unknown class names are not resolved again
+        verify(custom, times(1)).loadObject(anyString(), anyString());
+    }
+
+    @Test
+    public void testKnownClassesNotCountedAsUnknown() throws Exception {
+        registry.addEntryLoader(new PirasoObjectLoader() {
+            public Object loadObject(String className, String content) throws ClassNotFoundException {
+                if(!className.startsWith("known.")) {
+                    throw new ClassNotFoundException(className);
+                }
+
+                return new MessageEntry(className);
+            }
+        });
+
+        for(int i = 0; i <= PirasoObjectLoaderRegistry.MAX_UNKNOWN; i++) {
+            registry.loadObject("known.Entry" + i, CONTENT);
+        }
+
+        registry.loadObject("unknown.Entry", CONTENT);
+        registry.loadObject("unknown.Entry", CONTENT);
+
+        // still remembered as unknown
+        verify(custom, times(1)).loadObject(eq("unknown.Entry"), anyString());
+    }
+
+    @Test
+    public void testUnknownLimit() throws Exception {
+        for(int i = 0; i < PirasoObjectLoaderRegistry.MAX_UNKNOWN; i++) {
+            registry.loadObject("unknown.Entry" + i, CONTENT);
+        }
+
+        registry.loadObject("unknown.Other", CONTENT);
+        registry.loadObject("unknown.Other", CONTENT);
+
+        // over the limit, resolved each time but still loaded as raw entry
+        verify(custom, times(2)).loadObject(eq("unknown.Other"), anyString());
+        assertTrue(registry.loadObject("unknown.Other", CONTENT) instanceof RawEntry);
+    }
+
+    @Test
+    public void testAddLoaderResolvesAgain() throws Exception {
+        registry.loadObject("unknown.Entry", CONTENT);
+
+        PirasoObjectLoader loader = mock(PirasoObjectLoader.class);
+        when(loader.loadObject("unknown.Entry", CONTENT)).thenReturn(new MessageEntry("loaded"));
+        registry.addEntryLoader(loader);
+
+        assertEquals("loaded", ((MessageEntry) registry.loadObject("unknown.Entry", CONTENT)).getMessage());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidContent() throws Exception {
+        registry.loadObject(MessageEntry.class.getName(), "{invalid");
+    }
+}
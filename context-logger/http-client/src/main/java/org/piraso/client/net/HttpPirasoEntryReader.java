@@ -42,9 +42,21 @@ public class HttpPirasoEntryReader {
     private HttpPirasoTestHandler testHandler;
 
     public HttpPirasoEntryReader(HttpClient client, HttpContext context) {
-        startHandler = new HttpPirasoStartHandler(client, context);
-        stopHandler = new HttpPirasoStopHandler(client, context);
-        testHandler = new HttpPirasoTestHandler(client, context);
+        this(client, client, context);
+    }
+
+    /**
+     * Construct a reader whose streaming start request and short stop and test requests use different clients, so
+     * stopping is never held back by streaming connections.
+     *
+     * @param streamClient the client of the start request
+     * @param controlClient the client of the stop and test requests
+     * @param context the http context
+     */
+    public HttpPirasoEntryReader(HttpClient streamClient, HttpClient controlClient, HttpContext context) {
+        startHandler = new HttpPirasoStartHandler(streamClient, context);
+        stopHandler = new HttpPirasoStopHandler(controlClient, context);
+        testHandler = new HttpPirasoTestHandler(controlClient, context);
     }
 
     public void setUri(String uri) {
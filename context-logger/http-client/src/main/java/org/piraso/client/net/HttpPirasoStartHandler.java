@@ -57,6 +57,8 @@ public class HttpPirasoStartHandler extends AbstractHttpHandler {
 
     private boolean complete;
 
+    private boolean binary;
+
     private HttpEntity responseEntity;
 
     private List<EntryReadListener> listeners = Collections.synchronizedList(new LinkedList<EntryReadListener>());
@@ -79,6 +81,20 @@ public class HttpPirasoStartHandler extends AbstractHttpHandler {
         return reader.getWatchedAddr();
     }
 
+    /**
+     * Requests the compact binary stream instead of xml. Servers not supporting it still reply with xml, which is
+     * read as usual.
+     *
+     * @param binary {@code true} to request the binary stream
+     */
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
     public void execute() throws IOException, SAXException, ParserConfigurationException {
         try {
             doExecute();
@@ -102,6 +118,10 @@ public class HttpPirasoStartHandler extends AbstractHttpHandler {
             params.add(new BasicNameValuePair(WATCHED_ADDR_PARAMETER, watchedAddr));
         }
 
+        if(binary) {
+            params.add(new BasicNameValuePair(FORMAT_PARAMETER, FORMAT_BINARY_PARAMETER_VALUE));
+        }
+
         post.setEntity(new UrlEncodedFormEntity(params, ENCODING_UTF_8));
 
         HttpResponse response = client.execute(targetHost, post, context);
@@ -114,7 +134,7 @@ public class HttpPirasoStartHandler extends AbstractHttpHandler {
         responseEntity = response.getEntity();
         String contentType = responseEntity.getContentType().getValue().toLowerCase();
 
-        if(!contentType.contains(XML_CONTENT_TYPE)) {
+        if(!contentType.contains(XML_CONTENT_TYPE) && !contentType.contains(BINARY_CONTENT_TYPE)) {
             throw new HttpPirasoException("Invalid response content type: " + responseEntity.getContentType());
         }
 
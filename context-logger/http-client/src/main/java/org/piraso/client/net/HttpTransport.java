@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.client.net;
+
+import org.apache.http.*;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pooled keep alive http transport whose {@link #getClient() client} is shared by {@link AbstractHttpHandler}
+ * instances, so handlers reuse connections instead of reconnecting on every request.
+ * <p>
+ * Connections are kept alive for the duration the server advertises, or {@link #getKeepAlive()} when it does not.
+ * Compressed responses are inflated transparently. The leased and available pooled connections and the latency
+ * until the response headers are received are tracked.
+ * <p>
+ * A request waits at most the {@link #setConnectionRequestTimeout(long) connection request timeout} for a pooled
+ * connection and then fails, it never blocks forever behind long lived streaming responses holding the connections.
+ */
+public class HttpTransport {
+
+    public static final int DEFAULT_MAX_TOTAL = 100;
+
+    public static final int DEFAULT_MAX_PER_ROUTE = 20;
+
+    public static final long DEFAULT_KEEP_ALIVE = 30000l;
+
+    public static final long DEFAULT_CONNECTION_REQUEST_TIMEOUT = 5000l;
+
+    private static final String START_ATTRIBUTE = HttpTransport.class.getName() + ".start";
+
+    private final MeteredConnManager manager;
+
+    private final DefaultHttpClient client;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private volatile long keepAlive = DEFAULT_KEEP_ALIVE;
+
+    public HttpTransport() {
+        this(new BasicHttpParams());
+    }
+
+    public HttpTransport(HttpParams params) {
+        manager = new MeteredConnManager();
+        manager.setMaxTotal(DEFAULT_MAX_TOTAL);
+        manager.setDefaultMaxPerRoute(DEFAULT_MAX_PER_ROUTE);
+
+        client = new DefaultHttpClient(manager, params);
+        setConnectionRequestTimeout(DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+        client.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = super.getKeepAliveDuration(response, context);
+
+                return duration >= 0 ? duration : keepAlive;
+            }
+        });
+
+        client.addRequestInterceptor(new RequestAcceptEncoding());
+        client.addResponseInterceptor(new ResponseContentEncoding());
+
+        client.addRequestInterceptor(new HttpRequestInterceptor() {
+            public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+                context.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            }
+        });
+        client.addResponseInterceptor(new HttpResponseInterceptor() {
+            public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+                Long start = (Long) context.removeAttribute(START_ATTRIBUTE);
+
+                if(start != null) {
+                    latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }
+        });
+    }
+
+    public HttpClient getClient() {
+        return client;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        manager.setMaxTotal(maxTotal);
+    }
+
+    public void setDefaultMaxPerRoute(int maxPerRoute) {
+        manager.setDefaultMaxPerRoute(maxPerRoute);
+    }
+
+    /**
+     * Overrides the default per route limit for the given host.
+     *
+     * @param host the target host
+     * @param max the maximum connections to the host
+     */
+    public void setMaxForRoute(HttpHost host, int max) {
+        manager.setMaxForRoute(new HttpRoute(host), max);
+    }
+
+    /**
+     * @param timeout how long in milliseconds a request waits for a pooled connection before failing with a
+     * {@link org.apache.http.conn.ConnectionPoolTimeoutException}
+     */
+    public void setConnectionRequestTimeout(long timeout) {
+        client.getParams().setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, timeout);
+    }
+
+    public long getConnectionRequestTimeout() {
+        return client.getParams().getLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, 0);
+    }
+
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * @param keepAlive how long in milliseconds an idle connection is reused when the server does not say
+     */
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * @return the pooled connections currently used by a request
+     */
+    public int getLeasedConnections() {
+        return manager.leased.get();
+    }
+
+    /**
+     * @return the pooled idle connections ready for reuse
+     */
+    public int getAvailableConnections() {
+        return Math.max(0, manager.getConnectionsInPool() - manager.leased.get());
+    }
+
+    /**
+     * @return the latency until the response headers are received
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Closes the pooled connections idle for longer than the given time.
+     *
+     * @param idle the idle time in milliseconds
+     */
+    public void closeIdleConnections(long idle) {
+        manager.closeExpiredConnections();
+        manager.closeIdleConnections(idle, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        manager.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("leased: %d, available: %d, latency: [%s]", getLeasedConnections(), getAvailableConnections(), latency);
+    }
+
+    /**
+     * Counts the connections handed out until they are released.
+     */
+    private static class MeteredConnManager extends ThreadSafeClientConnManager {
+
+        private final AtomicInteger leased = new AtomicInteger();
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            final ClientConnectionRequest request = super.requestConnection(route, state);
+
+            return new ClientConnectionRequest() {
+                public ManagedClientConnection getConnection(long timeout, TimeUnit unit) throws InterruptedException, ConnectionPoolTimeoutException {
+                    ManagedClientConnection connection = request.getConnection(timeout, unit);
+                    leased.incrementAndGet();
+
+                    return connection;
+                }
+
+                public void abortRequest() {
+                    request.abortRequest();
+                }
+            };
+        }
+
+        @Override
+        public void releaseConnection(ManagedClientConnection conn, long validDuration, TimeUnit timeUnit) {
+            try {
+                super.releaseConnection(conn, validDuration, timeUnit);
+            } finally {
+                leased.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.client.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of request latencies in milliseconds, using fixed exponential buckets.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    /**
+     * One count per bound, the last one counts the latencies above the highest bound.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    public void record(long millis) {
+        int i = 0;
+        while(i < BOUNDS.length && millis > BOUNDS[i]) {
+            i++;
+        }
+
+        counts.incrementAndGet(i);
+        count.incrementAndGet();
+        sum.addAndGet(millis);
+    }
+
+    /**
+     * The inclusive upper bound of each bucket but the last, which is unbounded.
+     *
+     * @return the bucket upper bounds in milliseconds
+     */
+    public long[] getBounds() {
+        return BOUNDS.clone();
+    }
+
+    /**
+     * The bucket counts, one more than {@link #getBounds()}.
+     *
+     * @return a snapshot of the bucket counts
+     */
+    public long[] getCounts() {
+        long[] result = new long[counts.length()];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = counts.get(i);
+        }
+
+        return result;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * The upper bound of the bucket holding the given percentile.
+     *
+     * @param percentile between 0 and 100
+     * @return the latency in milliseconds, {@link Long#MAX_VALUE} when above the highest bound or {@code 0} when empty
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = getCounts();
+
+        long total = 0;
+        for(long c : snapshot) {
+            total += c;
+        }
+
+        if(total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+
+        for(int i = 0; i < BOUNDS.length; i++) {
+            seen += snapshot[i];
+
+            if(seen >= rank) {
+                return BOUNDS[i];
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        long[] snapshot = getCounts();
+        StringBuilder buf = new StringBuilder();
+
+        for(int i = 0; i < snapshot.length; i++) {
+            if(i > 0) {
+                buf.append(", ");
+            }
+
+            buf.append(i < BOUNDS.length ? "<=" + BOUNDS[i] : ">" + BOUNDS[BOUNDS.length - 1]);
+            buf.append("ms: ").append(snapshot[i]);
+        }
+
+        return buf.toString();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.client.net;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.Test;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Test for {@link HttpTransport} class.
+ */
+public class HttpTransportTest {
+
+    @Test
+    public void testDefaults() throws Exception {
+        HttpTransport transport = new HttpTransport();
+
+        try {
+            assertEquals(HttpTransport.DEFAULT_CONNECTION_REQUEST_TIMEOUT, transport.getConnectionRequestTimeout());
+            assertEquals(HttpTransport.DEFAULT_KEEP_ALIVE, transport.getKeepAlive());
+            assertEquals(0, transport.getLeasedConnections());
+            assertEquals(0, transport.getAvailableConnections());
+        } finally {
+            transport.shutdown();
+        }
+    }
+
+    @Test
+    public void testConnectionRequestTimeout() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        final HttpTransport transport = new HttpTransport();
+        final HttpHost host = new HttpHost("127.0.0.1", server.getLocalPort());
+
+        transport.setDefaultMaxPerRoute(1);
+        transport.setConnectionRequestTimeout(200l);
+
+        try {
+            // holds the only connection of the route, the server never answers
+            Thread streaming = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        transport.getClient().execute(host, new HttpGet("/stream"));
+                    } catch (Exception ignored) {
+                        // server closed
+                    }
+                }
+            });
+            streaming.setDaemon(true);
+            streaming.start();
+
+            Socket accepted = server.accept();
+            assertEquals(1, transport.getLeasedConnections());
+
+            long start = System.currentTimeMillis();
+            try {
+                transport.getClient().execute(host, new HttpGet("/stop"));
+                fail("request should not wait for the streaming connection");
+            } catch (ConnectionPoolTimeoutException expected) {
+                assertTrue(System.currentTimeMillis() - start < 5000l);
+            } finally {
+                accepted.close();
+            }
+        } finally {
+            transport.shutdown();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.client.net;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Test for {@link LatencyHistogram} class.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testRecord() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(3);
+        histogram.record(60000);
+
+        long[] counts = histogram.getCounts();
+
+        assertEquals(histogram.getBounds().length + 1, counts.length);
+        assertEquals(2, counts[0]);
+        assertEquals(1, counts[2]);
+        assertEquals(1, counts[counts.length - 1]);
+        assertEquals(4, histogram.getCount());
+        assertEquals(15001.0, histogram.getMean());
+    }
+
+    @Test
+    public void testPercentile() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentile(50));
+
+        for(int i = 0; i < 99; i++) {
+            histogram.record(8);
+        }
+
+        histogram.record(60000);
+
+        assertEquals(10, histogram.getPercentile(50));
+        assertEquals(10, histogram.getPercentile(99));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+}
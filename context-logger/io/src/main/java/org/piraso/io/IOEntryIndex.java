@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.io;
+
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.MessageEntry;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Secondary indexes of the entries held by an {@link IOEntryManager}, maintained as entries are added.
+ * <p>
+ * Entries are indexed by class, group, level and the tokens of {@link MessageEntry} messages. A token is a maximal
+ * run of ASCII letters, digits and underscores, indexed lower cased. Lookups return entry references, sorted in
+ * the order {@link IOEntryManager#visit(IOEntryVisitor)} visits them and to be resolved with
+ * {@link IOEntryManager#visit(long[], IOEntryVisitor)}. Lookups are weakly consistent with concurrent adds.
+ */
+public class IOEntryIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ConcurrentMap<Class<?>, Postings> classes = new ConcurrentHashMap<Class<?>, Postings>();
+
+    private final ConcurrentMap<String, Postings> groups = new ConcurrentHashMap<String, Postings>();
+
+    private final ConcurrentMap<String, Postings> levels = new ConcurrentHashMap<String, Postings>();
+
+    private final ConcurrentMap<String, Postings> tokens = new ConcurrentHashMap<String, Postings>();
+
+    static long reference(long sequence, long rowNum) {
+        return sequence << 32 | rowNum;
+    }
+
+    static long sequence(long reference) {
+        return reference >>> 32;
+    }
+
+    static int rowNum(long reference) {
+        return (int) reference;
+    }
+
+    void add(long reference, Entry entry) {
+        postings(classes, entry.getClass()).add(reference);
+
+        if(entry.getLevel() != null) {
+            postings(levels, entry.getLevel()).add(reference);
+        }
+
+        if(entry.getGroup() != null && entry.getGroup().getGroups() != null) {
+            for(String group : new HashSet<String>(entry.getGroup().getGroups())) {
+                if(group != null) {
+                    postings(groups, group).add(reference);
+                }
+            }
+        }
+
+        if(MessageEntry.class.isInstance(entry)) {
+            for(String token : tokenize(((MessageEntry) entry).getMessage())) {
+                postings(tokens, token).add(reference);
+            }
+        }
+    }
+
+    private static <K> Postings postings(ConcurrentMap<K, Postings> map, K key) {
+        Postings postings = map.get(key);
+
+        if(postings == null) {
+            Postings created = new Postings();
+
+            postings = map.putIfAbsent(key, created);
+            if(postings == null) {
+                postings = created;
+            }
+        }
+
+        return postings;
+    }
+
+    static boolean isTokenChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    static Set<String> tokenize(String message) {
+        if(message == null) {
+            return Collections.emptySet();
+        }
+
+        Set<String> result = new HashSet<String>();
+        int start = -1;
+
+        for(int i = 0; i <= message.length(); i++) {
+            boolean tokenChar = i < message.length() && isTokenChar(message.charAt(i));
+
+            if(tokenChar && start < 0) {
+                start = i;
+            } else if(!tokenChar && start >= 0) {
+                result.add(message.substring(start, i).toLowerCase(Locale.ENGLISH));
+                start = -1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Entries which are instances of the given class.
+     *
+     * @param type the entry class
+     * @return the sorted entry references
+     */
+    public long[] getByClass(Class<?> type) {
+        List<long[]> lists = new ArrayList<long[]>();
+
+        // few distinct entry classes, check each for assignability
+        for(Map.Entry<Class<?>, Postings> entry : classes.entrySet()) {
+            if(type.isAssignableFrom(entry.getKey())) {
+                lists.add(entry.getValue().toArray());
+            }
+        }
+
+        return union(lists);
+    }
+
+    /**
+     * Entries having the given group.
+     *
+     * @param group the group
+     * @return the sorted entry references
+     */
+    public long[] getByGroup(String group) {
+        Postings postings = groups.get(group);
+
+        return postings != null ? sort(postings.toArray()) : EMPTY;
+    }
+
+    /**
+     * Entries of the given level.
+     *
+     * @param level the level
+     * @return the sorted entry references
+     */
+    public long[] getByLevel(String level) {
+        Postings postings = levels.get(level);
+
+        return postings != null ? sort(postings.toArray()) : EMPTY;
+    }
+
+    /**
+     * {@link MessageEntry} entries whose message contains the given fragment, ignoring case. The fragment should
+     * only hold token characters, the candidates of a fragment with other characters are not exact.
+     *
+     * @param fragment the message fragment
+     * @return the sorted entry references
+     */
+    public long[] getByMessageFragment(String fragment) {
+        String lower = fragment.toLowerCase(Locale.ENGLISH);
+        List<long[]> lists = new ArrayList<long[]>();
+
+        // a fragment of token characters is always within a single token
+        for(Map.Entry<String, Postings> entry : tokens.entrySet()) {
+            if(entry.getKey().contains(lower)) {
+                lists.add(entry.getValue().toArray());
+            }
+        }
+
+        return union(lists);
+    }
+
+    /**
+     * Union of sorted entry references.
+     *
+     * @param lists the sorted references
+     * @return the sorted union
+     */
+    public static long[] union(List<long[]> lists) {
+        if(lists.isEmpty()) {
+            return EMPTY;
+        }
+
+        int size = 0;
+        for(long[] list : lists) {
+            size += list.length;
+        }
+
+        long[] result = new long[size];
+        int offset = 0;
+        for(long[] list : lists) {
+            System.arraycopy(list, 0, result, offset, list.length);
+            offset += list.length;
+        }
+
+        return sort(result);
+    }
+
+    /**
+     * Intersection of sorted entry references.
+     *
+     * @param a the sorted references
+     * @param b the sorted references
+     * @return the sorted intersection
+     */
+    public static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int size = 0;
+
+        for(int i = 0, j = 0; i < a.length && j < b.length;) {
+            if(a[i] < b[j]) {
+                i++;
+            } else if(a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Sorts and removes duplicates in place.
+     */
+    private static long[] sort(long[] references) {
+        if(references.length == 0) {
+            return references;
+        }
+
+        Arrays.sort(references);
+
+        int size = 1;
+        for(int i = 1; i < references.length; i++) {
+            if(references[i] != references[size - 1]) {
+                references[size++] = references[i];
+            }
+        }
+
+        return size == references.length ? references : Arrays.copyOf(references, size);
+    }
+
+    /**
+     * Append only list of entry references, appends of concurrent requests may be out of order.
+     */
+    private static final class Postings {
+
+        private long[] references = new long[4];
+
+        private int size;
+
+        private synchronized void add(long reference) {
+            if(size == references.length) {
+                references = Arrays.copyOf(references, size * 2);
+            }
+
+            references[size++] = reference;
+        }
+
+        private synchronized long[] toArray() {
+            return Arrays.copyOf(references, size);
+        }
+    }
+}
@@ -23,46 +23,117 @@ import org.piraso.io.util.IOEntryRequest;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Holds the requests received from a source.
+ * <p>
+ * Requests are looked up by id in a concurrent map and kept in received order in a skip list index, no lock is
+ * held while entries are added so a session can be queried and visited while entries keep streaming in. Visits
+ * are weakly consistent: requests and entries added during a visit may or may not be visited.
+ * <p>
+ * Added entries are also indexed, see {@link #getIndex()}.
  *
  * @author adleon
  */
 public class IOEntryManager {
     private static final Logger LOG = Logger.getLogger(IOEntryManager.class.getName());
+
+    /**
+     * Map key of the entries without request id.
+     */
+    private static final Long NO_REQUEST_ID = Long.MIN_VALUE;
     
     private String id;
 
-    private Map<Long, IOEntryRequest> requests;
+    private ConcurrentMap<Long, RequestSlot> requests;
+
+    private ConcurrentSkipListMap<Long, IOEntryRequest> ordered;
+
+    private AtomicLong sequence;
+
+    private IOEntryIndex index;
     
     public IOEntryManager(String id) {
         this.id = id;
-        this.requests = Collections.synchronizedMap(new LinkedHashMap<Long, IOEntryRequest>());
+        this.requests = new ConcurrentHashMap<Long, RequestSlot>();
+        this.ordered = new ConcurrentSkipListMap<Long, IOEntryRequest>();
+        this.sequence = new AtomicLong();
+        this.index = new IOEntryIndex();
         
         LOG.log(Level.INFO, "IOManager created for {0}", id);
     }
 
+    /**
+     * The requests in received order.
+     *
+     * @return a weakly consistent view of the requests
+     */
     public Collection<IOEntryRequest> getRequests() {
-        return requests.values();
+        return Collections.unmodifiableCollection(ordered.values());
+    }
+
+    private static Long key(Long requestId) {
+        return requestId != null ? requestId : NO_REQUEST_ID;
+    }
+
+    private RequestSlot getSlot(Long requestId) {
+        RequestSlot slot = requests.get(key(requestId));
+
+        if(slot == null) {
+            throw new IllegalArgumentException(String.format("Request with id '%d' not found.", requestId));
+        }
+
+        return slot;
     }
     
-    private IOEntryRequest createOrGetRequest(Long requestId) {
-        IOEntryRequest request = requests.get(requestId);
+    private RequestSlot createOrGetRequest(Long requestId) {
+        Long key = key(requestId);
+        RequestSlot slot = requests.get(key);
         
-        if(request == null) {
-            request = new IOEntryRequest(id, requestId);
-            requests.put(requestId, request);
+        if(slot == null) {
+            RequestSlot created = new RequestSlot(sequence.incrementAndGet(), new IOEntryRequest(id, requestId));
+
+            slot = requests.putIfAbsent(key, created);
+
+            if(slot == null) {
+                slot = created;
+                ordered.put(slot.sequence, slot.request);
+            }
         }
         
-        return request;
+        return slot;
     }
-    
-    public synchronized IOEntry addEntry(EntryReadEvent evt) throws IOException {
-        IOEntryRequest request = createOrGetRequest(evt.getRequestId());
-        
-        return request.addEntry(evt);
+
+    /**
+     * Adds an entry, no lock is held so entries of different requests can be added concurrently.
+     *
+     * @param evt the read event
+     * @return the added entry
+     * @throws IOException on cache error
+     */
+    public IOEntry addEntry(EntryReadEvent evt) throws IOException {
+        RequestSlot slot = createOrGetRequest(evt.getRequestId());
+        IOEntry entry = slot.request.addEntry(evt);
+
+        // indexed once visible so references always resolve
+        index.add(IOEntryIndex.reference(slot.sequence, entry.getRowNum()), evt.getEntry());
+
+        return entry;
+    }
+
+    /**
+     * The secondary indexes of the added entries.
+     *
+     * @return the index
+     */
+    public IOEntryIndex getIndex() {
+        return index;
     }
 
     public String getId() {
@@ -70,46 +141,97 @@ public class IOEntryManager {
     }
 
     public void visit(IOEntryVisitor visitor) throws IOException {
-        List<IOEntryRequest> tmp = new ArrayList<IOEntryRequest>(requests.values());
-
-        for(IOEntryRequest request : tmp) {
+        for(IOEntryRequest request : ordered.values()) {
             request.visit(visitor);
         }
     }
-    
-    public void visit(List<Long> requestIds, IOEntryVisitor visitor) throws IOException {
-        List<IOEntryRequest> tmp = new ArrayList<IOEntryRequest>(requests.values());
-        
-        for(IOEntryRequest request : tmp) {
-            if(!requestIds.contains(request.getId())) {
-                continue;
+
+    /**
+     * Visits the entries of the given requests in received order, unknown ids are ignored.
+     *
+     * @param requestIds the request ids
+     * @param visitor the visitor
+     * @throws IOException on cache error
+     */
+    public void visit(Collection<Long> requestIds, IOEntryVisitor visitor) throws IOException {
+        List<RequestSlot> slots = new ArrayList<RequestSlot>(requestIds.size());
+
+        // one lookup per id instead of scanning every request
+        for(Long requestId : new HashSet<Long>(requestIds)) {
+            RequestSlot slot = requests.get(key(requestId));
+
+            if(slot != null) {
+                slots.add(slot);
             }
-            
-            request.visit(visitor);
+        }
+
+        Collections.sort(slots);
+
+        for(RequestSlot slot : slots) {
+            slot.request.visit(visitor);
         }
     }
 
-    public IOEntry getEntryAt(Long requestId, int rowNum) throws IOException {
-        if(!requests.containsKey(requestId)) {
-            throw new IllegalArgumentException(String.format("Request with id '%d' not found.", requestId));
+    /**
+     * Visits the given entry references, as returned by the {@link #getIndex() index}.
+     *
+     * @param references the sorted entry references
+     * @param visitor the visitor
+     * @throws IOException on cache error
+     */
+    public void visit(long[] references, IOEntryVisitor visitor) throws IOException {
+        for(long reference : references) {
+            IOEntry entry = getEntry(reference);
+
+            if(entry != null) {
+                visitor.visit(entry);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the entry of the given reference, as returned by the {@link #getIndex() index}.
+     *
+     * @param reference the entry reference
+     * @return the entry or {@code null} when its request is still being created
+     * @throws IOException on cache error
+     */
+    public IOEntry getEntry(long reference) throws IOException {
+        IOEntryRequest request = ordered.get(IOEntryIndex.sequence(reference));
+
+        if(request == null) {
+            // request created concurrently and not yet published
+            return null;
         }
 
-        return createOrGetRequest(requestId).get(rowNum);
+        return request.get(IOEntryIndex.rowNum(reference));
+    }
+
+    public IOEntry getEntryAt(Long requestId, int rowNum) throws IOException {
+        return getSlot(requestId).request.get(rowNum);
     }
     
     public int size(Long requestId) {
-        if(!requests.containsKey(requestId)) {
-            throw new IllegalArgumentException(String.format("Request with id '%d' not found.", requestId));
-        }
-        
-        return createOrGetRequest(requestId).size();
+        return getSlot(requestId).request.size();
     }
 
     public IOEntry getRequest(Long requestId) {
-        if(!requests.containsKey(requestId)) {
-            throw new IllegalArgumentException(String.format("Request with id '%d' not found.", requestId));
+        return getSlot(requestId).request.getRequest();
+    }
+
+    private static final class RequestSlot implements Comparable<RequestSlot> {
+
+        private final long sequence;
+
+        private final IOEntryRequest request;
+
+        private RequestSlot(long sequence, IOEntryRequest request) {
+            this.sequence = sequence;
+            this.request = request;
         }
 
-        return createOrGetRequest(requestId).getRequest();
+        public int compareTo(RequestSlot o) {
+            return sequence < o.sequence ? -1 : (sequence == o.sequence ? 0 : 1);
+        }
     }
 }
@@ -36,7 +36,7 @@ public class IOEntryReader implements EntryReadListener {
     
     private static final Logger LOG = Logger.getLogger(IOEntryReader.class.getName());
 
-    private IOEntryManager manager;
+    private volatile IOEntryManager manager;
 
     private IOEntrySource source;
 
@@ -95,14 +95,29 @@ public class IOEntryReader implements EntryReadListener {
         return manager;
     }
     
-    @Override
-    public synchronized void readEntry(EntryReadEvent evt) {
+    private synchronized IOEntryManager createOrGetManager() {
         if(manager == null) {
             manager = new IOEntryManager(source.getId());
         }
+
+        return manager;
+    }
+
+    /**
+     * Adds the entry to the manager and notifies the listeners. May be invoked concurrently for entries of
+     * different requests, entries of the same request are expected in order from a single thread.
+     *
+     * @param evt the read event
+     */
+    @Override
+    public void readEntry(EntryReadEvent evt) {
+        IOEntryManager tmp = manager;
+        if(tmp == null) {
+            tmp = createOrGetManager();
+        }
         
         try {
-            IOEntry entry = manager.addEntry(evt);
+            IOEntry entry = tmp.addEntry(evt);
             
             fireEntryReadEvent(new IOEntryEvent(this, entry));
         } catch (IOException ex) {
@@ -164,4 +179,8 @@ public class IOEntryReader implements EntryReadListener {
     public void addReceivedListener(IOEntryReceivedListener listener) {
         listeners.add(IOEntryReceivedListener.class, listener);
     }
+
+    public void removeReceivedListener(IOEntryReceivedListener listener) {
+        listeners.remove(IOEntryReceivedListener.class, listener);
+    }
 }
@@ -16,48 +16,153 @@
  * limitations under the License.
  */
 
-package org.piraso.io.cache;
 
+package org.piraso.io.cache;
 
-import org.piraso.api.JacksonUtils;
 import org.piraso.io.util.IOEntrySerializable;
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.Element;
-import org.codehaus.jackson.map.ObjectMapper;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Date;
 
 /**
  * Cache Manager
+ * <p>
+ * Entries are appended to a memory-mapped {@link IOEntrySegmentStore} in a compact binary record, only the
+ * entry json is left to decode when read back. Each {@link IOEntryRequestCache} keeps the record offsets of its
+ * rows in index blocks within the same store, so heap usage stays small however many entries are received.
  */
 public class IOEntryCacheManager {
     
     public static final IOEntryCacheManager INSTANCE = new IOEntryCacheManager();
 
-    private Cache cache;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int HAS_ID = 1;
+
+    private static final int HAS_DATE = 2;
+
+    private static final int HAS_ROW_NUM = 4;
+
+    private static final int HAS_CLASS_TYPE = 8;
 
-    private ObjectMapper mapper;
+    private static final int HAS_ENTRY_VALUE = 16;
+
+    private final IOEntrySegmentStore store;
 
     private IOEntryCacheManager() {
-        CacheManager manager = CacheManager.getInstance();
+        this(new File(System.getProperty("java.io.tmpdir"), "piraso" + File.separator + "cache"), IOEntrySegmentStore.DEFAULT_SEGMENT_SIZE);
+    }
+
+    IOEntryCacheManager(File dir, int segmentSize) {
+        store = new IOEntrySegmentStore(dir, segmentSize);
+    }
+
+    /**
+     * Creates a request cache owned by the caller, its rows are released with the store.
+     *
+     * @return the request cache
+     */
+    public IOEntryRequestCache createRequestCache() {
+        return new IOEntryRequestCache(this);
+    }
 
-        mapper = JacksonUtils.MAPPER;
-        cache = manager.getCache(IOEntrySerializable.class.getName());
+    IOEntrySegmentStore getStore() {
+        return store;
     }
 
-    public void add(String id, long requestId, IOEntrySerializable entry) throws IOException {
-        IOEntryCacheKey key = new IOEntryCacheKey(id, requestId, entry.getRowNum());
+    /**
+     * Appends the entry record to the store, only the append itself is serialized.
+     *
+     * @param entry the entry
+     * @return the record address
+     * @throws IOException on store error
+     */
+    long write(IOEntrySerializable entry) throws IOException {
+        byte[] classType = entry.getClassType() != null ? entry.getClassType().getBytes(UTF_8) : null;
+        byte[] entryValue = entry.getEntryValue() != null ? entry.getEntryValue().getBytes(UTF_8) : null;
 
-        cache.put(new Element(key, mapper.writeValueAsString(entry)));
+        int size = 1 + 3 * 8 + 8;
+        size += classType != null ? classType.length : 0;
+        size += entryValue != null ? entryValue.length : 0;
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+
+        int flags = (entry.getId() != null ? HAS_ID : 0)
+                | (entry.getDate() != null ? HAS_DATE : 0)
+                | (entry.getRowNum() != null ? HAS_ROW_NUM : 0)
+                | (classType != null ? HAS_CLASS_TYPE : 0)
+                | (entryValue != null ? HAS_ENTRY_VALUE : 0);
+
+        buf.put((byte) flags);
+
+        if(entry.getId() != null) {
+            buf.putLong(entry.getId());
+        }
+        if(entry.getDate() != null) {
+            buf.putLong(entry.getDate().getTime());
+        }
+        if(entry.getRowNum() != null) {
+            buf.putLong(entry.getRowNum());
+        }
+        if(classType != null) {
+            buf.putInt(classType.length);
+            buf.put(classType);
+        }
+        if(entryValue != null) {
+            buf.putInt(entryValue.length);
+            buf.put(entryValue);
+        }
+
+        return store.append(buf.array(), 0, buf.position());
+    }
+
+    /**
+     * Reads back an entry record.
+     *
+     * @param address the record address
+     * @return the entry
+     */
+    IOEntrySerializable read(long address) {
+        ByteBuffer record = store.read(address);
+        IOEntrySerializable entry = new IOEntrySerializable();
+
+        int flags = record.get();
+
+        if((flags & HAS_ID) != 0) {
+            entry.setId(record.getLong());
+        }
+        if((flags & HAS_DATE) != 0) {
+            entry.setDate(new Date(record.getLong()));
+        }
+        if((flags & HAS_ROW_NUM) != 0) {
+            entry.setRowNum(record.getLong());
+        }
+        if((flags & HAS_CLASS_TYPE) != 0) {
+            entry.setClassType(readString(record));
+        }
+        if((flags & HAS_ENTRY_VALUE) != 0) {
+            entry.setEntryValue(readString(record));
+        }
+
+        return entry;
     }
 
-    public IOEntrySerializable get(String id, long requestId, long rowNum) throws IOException {
-        IOEntryCacheKey key = new IOEntryCacheKey(id, requestId, rowNum);
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+
+        if(record.hasArray()) {
+            String value = new String(record.array(), record.arrayOffset() + record.position(), length, UTF_8);
+            record.position(record.position() + length);
+
+            return value;
+        }
 
-        Element el = cache.get(key);
-        String value = (String) el.getValue();
+        byte[] bytes = new byte[length];
+        record.get(bytes);
 
-        return mapper.readValue(value, IOEntrySerializable.class);
+        return new String(bytes, UTF_8);
     }
 }
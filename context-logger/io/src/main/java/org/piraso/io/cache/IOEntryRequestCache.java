@@ -16,35 +16,94 @@
  * limitations under the License.
  */
 
+
 package org.piraso.io.cache;
 
 import org.piraso.io.util.IOEntrySerializable;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Wrapper class for request cache.
+ * <p>
+ * Record addresses are kept in fixed size index blocks allocated from the store, a row is found with two reads
+ * whatever its position. Only the block addresses are kept in heap.
+ * <p>
+ * Distinct rows may be put concurrently, only allocating a block locks. Reads never lock, a row is visible to
+ * threads which learned about it through a happens-before edge with its put (e.g. a volatile row count).
  */
 public class IOEntryRequestCache {
 
-    private String parentId;
+    static final int BLOCK_SHIFT = 6;
+
+    static final int BLOCK_ENTRIES = 1 << BLOCK_SHIFT;
 
-    private long requestId;
+    private final IOEntryCacheManager cache;
 
-    private IOEntryCacheManager cache;
+    private final IOEntrySegmentStore store;
 
-    public IOEntryRequestCache(String parentId, long requestId) {
-        this.parentId = parentId;
-        this.requestId = requestId;
+    private volatile long[] blocks = new long[0];
 
-        cache = IOEntryCacheManager.INSTANCE;
+    IOEntryRequestCache(IOEntryCacheManager cache) {
+        this.cache = cache;
+        this.store = cache.getStore();
     }
 
     public void put(IOEntrySerializable serializable) throws IOException {
-        cache.add(parentId, requestId, serializable);
+        int rowNum = serializable.getRowNum().intValue();
+        long address = cache.write(serializable);
+
+        // zero marks an empty slot
+        store.putLong(slot(getBlock(rowNum >>> BLOCK_SHIFT), rowNum), address + 1);
+    }
+
+    private long getBlock(int block) throws IOException {
+        long[] tmp = blocks;
+
+        if(block < tmp.length && tmp[block] >= 0) {
+            return tmp[block];
+        }
+
+        synchronized (this) {
+            tmp = blocks;
+
+            if(block >= tmp.length) {
+                int length = tmp.length;
+
+                tmp = Arrays.copyOf(tmp, Math.max(block + 1, length * 2));
+                Arrays.fill(tmp, length, tmp.length, -1l);
+            } else if(tmp[block] < 0) {
+                tmp = tmp.clone();
+            } else {
+                return tmp[block];
+            }
+
+            tmp[block] = store.allocate(BLOCK_ENTRIES * 8);
+            blocks = tmp;
+
+            return tmp[block];
+        }
     }
 
     public IOEntrySerializable get(int rowNum) throws IOException {
-        return cache.get(parentId, requestId, rowNum);
+        long address = getAddress(rowNum);
+
+        return address > 0 ? cache.read(address - 1) : null;
+    }
+
+    private long getAddress(int rowNum) {
+        int block = rowNum >>> BLOCK_SHIFT;
+        long[] tmp = blocks;
+
+        if(rowNum < 0 || block >= tmp.length || tmp[block] < 0) {
+            return 0;
+        }
+
+        return store.getLong(slot(tmp[block], rowNum));
+    }
+
+    private static long slot(long blockAddress, int rowNum) {
+        return blockAddress + ((rowNum & (BLOCK_ENTRIES - 1)) << 3);
     }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.io.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of memory-mapped segment files.
+ * <p>
+ * Space is handed out as addresses, the segment index in the high 32 bits and the offset within the segment in
+ * the low 32 bits, and is never reused. Regions are zero filled when allocated. Writes are serialized, reads
+ * are lock free; callers are expected to publish written addresses to reading threads themselves.
+ */
+final class IOEntrySegmentStore {
+
+    private static final Logger LOG = Logger.getLogger(IOEntrySegmentStore.class.getName());
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final File dir;
+
+    private final int segmentSize;
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    private long allocated;
+
+    private int position;
+
+    IOEntrySegmentStore(File dir, int segmentSize) {
+        if(segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize should be greater than zero.");
+        }
+
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Allocates a zero filled region.
+     *
+     * @param size the region size
+     * @return the region address
+     * @throws IOException on error creating a new segment
+     */
+    synchronized long allocate(int size) throws IOException {
+        MappedByteBuffer[] tmp = segments;
+
+        if(tmp.length == 0 || position + size > tmp[tmp.length - 1].capacity()) {
+            tmp = addSegment(Math.max(segmentSize, size));
+        }
+
+        long address = ((long) (tmp.length - 1) << 32) | position;
+
+        position += size;
+        allocated += size;
+
+        return address;
+    }
+
+    /**
+     * Appends a length prefixed record.
+     *
+     * @param buf the record bytes
+     * @param off the offset
+     * @param len the record length
+     * @return the record address
+     * @throws IOException on error creating a new segment
+     */
+    synchronized long append(byte[] buf, int off, int len) throws IOException {
+        long address = allocate(len + 4);
+
+        ByteBuffer segment = segments[segment(address)].duplicate();
+        segment.position(offset(address));
+        segment.putInt(len);
+        segment.put(buf, off, len);
+
+        return address;
+    }
+
+    /**
+     * Writes a long within an allocated region, writes to distinct addresses may happen concurrently.
+     *
+     * @param address the address
+     * @param value the value
+     */
+    void putLong(long address, long value) {
+        segments[segment(address)].putLong(offset(address), value);
+    }
+
+    long getLong(long address) {
+        return segments[segment(address)].getLong(offset(address));
+    }
+
+    /**
+     * Retrieves a view of the record at the given address.
+     *
+     * @param address the record address
+     * @return the record, positioned at its first byte and limited to its length
+     */
+    ByteBuffer read(long address) {
+        ByteBuffer segment = segments[segment(address)].duplicate();
+        int offset = offset(address);
+        int len = segment.getInt(offset);
+
+        segment.limit(offset + 4 + len);
+        segment.position(offset + 4);
+
+        return segment;
+    }
+
+    synchronized long getAllocated() {
+        return allocated;
+    }
+
+    int getSegmentCount() {
+        return segments.length;
+    }
+
+    private MappedByteBuffer[] addSegment(int size) throws IOException {
+        if(!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException(String.format("Unable to create directory '%s'.", dir.getAbsolutePath()));
+        }
+
+        File file = File.createTempFile("segment", ".dat", dir);
+        file.deleteOnExit();
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(size);
+
+            MappedByteBuffer[] tmp = new MappedByteBuffer[segments.length + 1];
+            System.arraycopy(segments, 0, tmp, 0, segments.length);
+            tmp[segments.length] = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            segments = tmp;
+            position = 0;
+
+            LOG.log(Level.FINE, "Segment {0} created.", file.getAbsolutePath());
+
+            return tmp;
+        } finally {
+            // the mapping stays valid once the channel is closed
+            raf.close();
+        }
+    }
+
+    private static int segment(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.io.impl;
+
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.RawEntry;
+import org.piraso.api.io.EntryReadEvent;
+import org.piraso.api.io.PirasoEntryReader;
+import org.piraso.api.io.PirasoObjectLoaderRegistry;
+
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads {@link RawEntry} instances framed by a scanning reader on worker threads and passes the loaded entries to
+ * the listeners of a dispatching reader.
+ * <p>
+ * The first entry of each request is loaded and dispatched by the submitting thread so requests are dispatched in
+ * submit order. The following entries are partitioned by request id, all of them are loaded and dispatched by the
+ * same worker in the order submitted. Entries of different requests are dispatched concurrently.
+ */
+final class EntryDecodePipeline {
+
+    private static final Logger LOG = Logger.getLogger(EntryDecodePipeline.class.getName());
+
+    static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    private static final EntryReadEvent END = new EntryReadEvent(EntryDecodePipeline.class, null, null);
+
+    private final PirasoEntryReader dispatcher;
+
+    private final Worker[] workers;
+
+    private volatile boolean aborted;
+
+    /**
+     * The ids of the requests already dispatched, only accessed by the submitting thread.
+     */
+    private final Set<Long> submitted = new HashSet<Long>();
+
+    EntryDecodePipeline(PirasoEntryReader dispatcher, int threads, String name) {
+        this.dispatcher = dispatcher;
+        this.workers = new Worker[threads];
+
+        for(int i = 0; i < threads; i++) {
+            workers[i] = new Worker(name + "-decode-" + (i + 1));
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Queues a raw entry event, blocks while the worker of its request is behind. The first entry of a request is
+     * dispatched right away.
+     *
+     * @param evt the event holding a {@link RawEntry}
+     * @throws InterruptedIOException when interrupted while waiting
+     */
+    void submit(EntryReadEvent evt) throws InterruptedIOException {
+        Long requestId = evt.getRequestId();
+
+        if(submitted.add(requestId)) {
+            // no other entry of this request is queued yet
+            dispatch(evt);
+            return;
+        }
+
+        int hash = requestId != null ? requestId.hashCode() : 0;
+
+        put(workers[(hash & Integer.MAX_VALUE) % workers.length], evt);
+    }
+
+    /**
+     * Waits until all queued entries are dispatched and stops the workers.
+     *
+     * @throws InterruptedIOException when interrupted while waiting
+     */
+    void finish() throws InterruptedIOException {
+        for(Worker worker : workers) {
+            put(worker, END);
+        }
+
+        try {
+            for(Worker worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the queued entries and stops the workers without waiting.
+     */
+    void abort() {
+        aborted = true;
+
+        for(Worker worker : workers) {
+            worker.queue.clear();
+            worker.interrupt();
+        }
+    }
+
+    private void dispatch(EntryReadEvent evt) {
+        RawEntry raw = (RawEntry) evt.getEntry();
+
+        try {
+            Entry entry = (Entry) PirasoObjectLoaderRegistry.INSTANCE.loadObject(raw.getRawClassName(), raw.getRawContent());
+
+            dispatcher.fireEntryReadEvent(new EntryReadEvent(dispatcher, evt.getRequestId(), entry, evt.getDate()));
+        } catch (Exception e) {
+            String msg = String.format("Unable to parse entry with class name '%s' and value '%s'", raw.getRawClassName(), raw.getRawContent());
+            LOG.log(Level.WARNING, msg, e);
+        }
+    }
+
+    private void put(Worker worker, EntryReadEvent evt) throws InterruptedIOException {
+        try {
+            worker.queue.put(evt);
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    private class Worker extends Thread {
+
+        private final BlockingQueue<EntryReadEvent> queue = new ArrayBlockingQueue<EntryReadEvent>(DEFAULT_QUEUE_SIZE);
+
+        private Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while(!aborted) {
+                    EntryReadEvent evt = queue.take();
+
+                    if(evt == END) {
+                        return;
+                    }
+
+                    dispatch(evt);
+                }
+            } catch (InterruptedException e) {
+                // aborted
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.io.impl;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sidecar index of a saved file written by {@link FileEntrySave}.
+ * <p>
+ * Saved requests are grouped into blocks, each block being a separate gzip member of the saved file. The index
+ * records the offset and compressed length of the block of each request along with its entry count, so a
+ * request can be read by inflating only its block. The index is kept
+ * next to the saved file with the {@link #EXTENSION} extension and is ignored once it no longer matches the
+ * saved file length.
+ */
+public class FileEntryIndex {
+
+    private static final Logger LOG = Logger.getLogger(FileEntryIndex.class.getName());
+
+    public static final String EXTENSION = ".idx";
+
+    private static final int MAGIC = 0x50525349;
+
+    private static final int VERSION = 1;
+
+    private String id;
+
+    private String watchedAddr;
+
+    private long fileLength;
+
+    private Map<Long, Request> requests = new LinkedHashMap<Long, Request>();
+
+    public FileEntryIndex(String id, String watchedAddr) {
+        this.id = id;
+        this.watchedAddr = watchedAddr;
+    }
+
+    public static File getIndexFile(File source) {
+        return new File(source.getPath() + EXTENSION);
+    }
+
+    /**
+     * Reads the index of the given saved file.
+     *
+     * @param source the saved file
+     * @return the index, {@code null} when missing, unreadable or stale
+     */
+    public static FileEntryIndex read(File source) {
+        File file = getIndexFile(source);
+
+        if(!file.isFile()) {
+            return null;
+        }
+
+        DataInputStream in = null;
+
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+            if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+
+            FileEntryIndex index = new FileEntryIndex(readString(in), readString(in));
+            index.fileLength = in.readLong();
+
+            if(index.fileLength != source.length()) {
+                LOG.info(String.format("Ignoring stale index '%s'.", file.getAbsolutePath()));
+                return null;
+            }
+
+            int size = in.readInt();
+            for(int i = 0; i < size; i++) {
+                index.add(new Request(in.readLong(), in.readLong(), in.readInt(), in.readInt()));
+            }
+
+            return index;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, String.format("Unable to read index '%s'.", file.getAbsolutePath()), e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Writes this index next to the given saved file.
+     *
+     * @param source the saved file, already written
+     * @throws IOException on io error
+     */
+    public void write(File source) throws IOException {
+        fileLength = source.length();
+
+        DataOutputStream out = null;
+
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getIndexFile(source))));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, id);
+            writeString(out, watchedAddr);
+            out.writeLong(fileLength);
+            out.writeInt(requests.size());
+
+            for(Request request : requests.values()) {
+                out.writeLong(request.getRequestId());
+                out.writeLong(request.getOffset());
+                out.writeInt(request.getLength());
+                out.writeInt(request.getEntryCount());
+            }
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+
+        if(value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    void add(Request request) {
+        requests.put(request.getRequestId(), request);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getWatchedAddr() {
+        return watchedAddr;
+    }
+
+    /**
+     * The indexed requests in file order.
+     *
+     * @return the requests
+     */
+    public Collection<Request> getRequests() {
+        return Collections.unmodifiableCollection(requests.values());
+    }
+
+    public Request getRequest(Long requestId) {
+        return requests.get(requestId);
+    }
+
+    /**
+     * A saved request and its block, requests of the same block share the offset and length.
+     */
+    public static class Request {
+
+        private long requestId;
+
+        private long offset;
+
+        private int length;
+
+        private int entryCount;
+
+        Request(long requestId, long offset, int length, int entryCount) {
+            this.requestId = requestId;
+            this.offset = offset;
+            this.length = length;
+            this.entryCount = entryCount;
+        }
+
+        public long getRequestId() {
+            return requestId;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+    }
+}
@@ -23,32 +23,54 @@ import org.piraso.io.IOEntry;
 import org.piraso.io.IOEntryManager;
 import org.piraso.io.IOEntryReader;
 import org.piraso.io.IOEntryVisitor;
+import org.piraso.io.util.IOEntryRequest;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.Validate;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerConfigurationException;
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPOutputStream;
 
 /**
+ * Saves the entries of the selected requests into a gzip file.
+ * <p>
+ * The requests are grouped into blocks of whole requests, each block is encoded and compressed on its own as a
+ * gzip member, in parallel when more than one thread is configured. The members are written in request order
+ * so the saved file is still a regular gzip stream. A {@link FileEntryIndex} sidecar recording the block of each
+ * request is written along, this lets {@link FileEntrySource} read requests on demand.
+ * <p>
+ * Each entry is written through {@link #visit(IOEntry)}, an entry that fails to be written is logged and left out.
+ * The file is written to a temporary file first and only replaces the given file once complete, the previous
+ * file is moved aside meanwhile and restored when the replacement fails.
  *
  * @author adleon
  */
 public class FileEntrySave implements IOEntryVisitor {
-    
+
     private static final Logger LOG = Logger.getLogger(FileEntrySave.class.getName());
-    
+
+    public static final int DEFAULT_BLOCK_ENTRIES = 512;
+
+    /**
+     * The block being encoded by the current thread.
+     */
+    private final ThreadLocal<BlockWriter> current = new ThreadLocal<BlockWriter>();
+
     private IOEntryManager manager;
     
     private IOEntryReader reader;
     
     private List<Long> requests;
-    
-    private PirasoEntryWriter writer;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private int blockEntries = DEFAULT_BLOCK_ENTRIES;
     
     public FileEntrySave(IOEntryReader reader) {
         this.reader = reader;
@@ -59,38 +81,340 @@ public class FileEntrySave implements IOEntryVisitor {
     public void addRequest(Long id) {
         requests.add(id);
     }
+
+    /**
+     * The number of threads compressing blocks, {@code 1} saves on the calling thread.
+     *
+     * @param threads the thread count
+     */
+    public void setThreads(int threads) {
+        Validate.isTrue(threads > 0, "threads should be greater than zero.");
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * The number of entries after which a block is closed, a block always holds whole requests.
+     *
+     * @param blockEntries the block entry count
+     */
+    public void setBlockEntries(int blockEntries) {
+        Validate.isTrue(blockEntries > 0, "blockEntries should be greater than zero.");
+        this.blockEntries = blockEntries;
+    }
+
+    public int getBlockEntries() {
+        return blockEntries;
+    }
     
     public void save(File file) throws IOException, ParserConfigurationException, TransformerConfigurationException {
-        FileOutputStream fo = null;
-        GZIPOutputStream go = null;
-        OutputStreamWriter io = null;
-        PrintWriter pw = null;
-        
+        FileEntryIndex index = new FileEntryIndex(reader.getId(), reader.getWatchedAddr());
+        List<List<BlockRequest>> blocks = createBlocks();
+        File tmp = new File(file.getPath() + ".tmp");
+        ExecutorService executor = null;
+        OutputStream out = null;
+        boolean completed = false;
+
+        if(threads > 1 && blocks.size() > 1) {
+            executor = Executors.newFixedThreadPool(Math.min(threads, blocks.size()), new SaveThreadFactory());
+        }
+
         try {
-             fo = new FileOutputStream(file);
-             go = new GZIPOutputStream(fo);
-             io = new OutputStreamWriter(go);
-             pw = new PrintWriter(io, true);
-             
-             writer = new PirasoEntryWriter(reader.getId(), reader.getWatchedAddr(), pw);
-             
-             manager.visit(requests, this);
+            out = new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024);
+
+            byte[] header = gzip(PirasoEntryWriter.getDocumentStart(reader.getId(), reader.getWatchedAddr()));
+            out.write(header);
+
+            long offset = header.length;
+
+            // bounds the compressed blocks held in memory
+            int window = threads * 2;
+            LinkedList<Future<Block>> pending = new LinkedList<Future<Block>>();
+            int next = 0;
+
+            for(List<BlockRequest> block : blocks) {
+                while(next < blocks.size() && pending.size() < window) {
+                    pending.add(submit(executor, new BlockTask(blocks.get(next++))));
+                }
+
+                Block member = get(pending.removeFirst());
+
+                for(int i = 0; i < block.size(); i++) {
+                    // entries without request id are saved but not indexed
+                    if(block.get(i).request.getId() == null) {
+                        continue;
+                    }
+
+                    index.add(new FileEntryIndex.Request(block.get(i).request.getId(), offset, member.content.length, member.written[i]));
+                }
+
+                out.write(member.content);
+                offset += member.content.length;
+            }
+
+            out.write(gzip(PirasoEntryWriter.DOCUMENT_END));
+            out.close();
+            completed = true;
         } finally {
-            IOUtils.closeQuietly(writer);
-            IOUtils.closeQuietly(pw);
-            IOUtils.closeQuietly(io);
-            IOUtils.closeQuietly(go);
-            IOUtils.closeQuietly(fo);
+            if(executor != null) {
+                executor.shutdownNow();
+            }
+
+            IOUtils.closeQuietly(out);
+
+            if(!completed) {
+                tmp.delete();
+            }
+        }
+
+        replace(tmp, file);
+
+        // a stale index is never left behind a replaced file
+        FileEntryIndex.getIndexFile(file).delete();
+        index.write(file);
+    }
+
+    /**
+     * Replaces the file by the saved temporary file, the previous file is kept as backup until the replacement
+     * succeeded and restored otherwise.
+     *
+     * @param tmp the saved temporary file
+     * @param file the file to replace
+     * @throws IOException when the file could not be replaced, the previous file is then left in place
+     */
+    private void replace(File tmp, File file) throws IOException {
+        File backup = new File(file.getPath() + ".bak");
+        boolean replacing = file.exists();
+
+        if(replacing && ((backup.exists() && !backup.delete()) || !rename(file, backup))) {
+            tmp.delete();
+            throw new IOException(String.format("Unable to replace file %s.", file.getAbsolutePath()));
+        }
+
+        if(!rename(tmp, file)) {
+            tmp.delete();
+
+            if(replacing && !rename(backup, file)) {
+                LOG.severe(String.format("Unable to restore %s from %s.", file.getAbsolutePath(), backup.getAbsolutePath()));
+            }
+
+            throw new IOException(String.format("Unable to rename %s to %s.", tmp.getAbsolutePath(), file.getAbsolutePath()));
+        }
+
+        if(replacing && !backup.delete()) {
+            LOG.warning(String.format("Unable to delete backup %s.", backup.getAbsolutePath()));
         }
     }
 
+    boolean rename(File from, File to) {
+        return from.renameTo(to);
+    }
+
+    /**
+     * Writes an entry to the block encoded by the calling thread, an entry that fails to be written is logged and
+     * left out of the saved file.
+     *
+     * @param entry the entry to save
+     */
     public void visit(IOEntry entry) {
+        BlockWriter block = current.get();
+
+        if(block == null) {
+            throw new IllegalStateException("Entries are only visited while saving.");
+        }
+
         try {
-            writer.write(entry.getDate(), entry.getEntry());
+            block.writer.write(entry.getDate(), entry.getEntry());
+            block.written++;
         } catch (Exception ex) {
             LOG.log(Level.SEVERE, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Groups the selected requests, in received order, into blocks of at least {@link #getBlockEntries()}
+     * entries. Entries received after this point are not saved, entries without request id are selected by a
+     * {@code null} id.
+     *
+     * @return the blocks
+     */
+    private List<List<BlockRequest>> createBlocks() {
+        Set<Long> selected = new HashSet<Long>(requests);
+        List<List<BlockRequest>> blocks = new ArrayList<List<BlockRequest>>();
+        List<BlockRequest> block = new ArrayList<BlockRequest>();
+        int count = 0;
+
+        for(IOEntryRequest request : new ArrayList<IOEntryRequest>(manager.getRequests())) {
+            int size = request.size();
+
+            if(size == 0 || !selected.contains(request.getId())) {
+                continue;
+            }
+
+            block.add(new BlockRequest(request, size));
+            count += size;
+
+            if(count >= blockEntries) {
+                blocks.add(block);
+                block = new ArrayList<BlockRequest>();
+                count = 0;
+            }
+        }
+
+        if(!block.isEmpty()) {
+            blocks.add(block);
+        }
+
+        return blocks;
+    }
+
+    private static Future<Block> submit(ExecutorService executor, Callable<Block> task) {
+        if(executor != null) {
+            return executor.submit(task);
+        }
+
+        FutureTask<Block> future = new FutureTask<Block>(task);
+        future.run();
+
+        return future;
+    }
+
+    private static Block get(Future<Block> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(Math.max(64, content.length() / 4));
+        GZIPOutputStream out = new GZIPOutputStream(buf, 8192);
+
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        return buf.toByteArray();
+    }
+
+    private static class BlockRequest {
+
+        private final IOEntryRequest request;
+
+        /**
+         * The number of entries saved, entries received later are left out.
+         */
+        private final int count;
+
+        private BlockRequest(IOEntryRequest request, int count) {
+            this.request = request;
+            this.count = count;
+        }
+    }
+
+    /**
+     * The writer of the block being encoded by a thread.
+     */
+    private static class BlockWriter {
+
+        private final PirasoEntryWriter writer;
+
+        private int written;
+
+        private BlockWriter(PirasoEntryWriter writer) {
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * A compressed block and the number of entries written per request.
+     */
+    private static class Block {
+
+        private final byte[] content;
+
+        private final int[] written;
+
+        private Block(byte[] content, int[] written) {
+            this.content = content;
+            this.written = written;
+        }
+    }
+
+    /**
+     * Encodes and compresses one block.
+     */
+    private class BlockTask implements Callable<Block> {
+
+        private final List<BlockRequest> block;
+
+        private BlockTask(List<BlockRequest> block) {
+            this.block = block;
+        }
+
+        public Block call() throws Exception {
+            StringWriter buf = new StringWriter(8192);
+
+            // blocks only hold entries, the document start and end have their own members
+            PirasoEntryWriter writer = new PirasoEntryWriter(new PrintWriter(buf));
+            writer.setAutoFlush(false);
+
+            BlockWriter blockWriter = new BlockWriter(writer);
+            int[] written = new int[block.size()];
+
+            current.set(blockWriter);
+            try {
+                for(int r = 0; r < block.size(); r++) {
+                    BlockRequest request = block.get(r);
+                    int start = blockWriter.written;
+
+                    for(int i = 0; i < request.count; i++) {
+                        IOEntry entry;
+
+                        try {
+                            entry = request.request.get(i);
+                        } catch (IOException e) {
+                            LOG.log(Level.SEVERE, e.getMessage(), e);
+                            continue;
+                        }
+
+                        visit(entry);
+                    }
+
+                    written[r] = blockWriter.written - start;
+                }
+            } finally {
+                current.remove();
+            }
+
+            writer.flush();
+
+            return new Block(gzip(buf.toString()), written);
+        }
+    }
+
+    private static class SaveThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "piraso-save-" + count.incrementAndGet());
+            thread.setDaemon(true);
 
-            throw new IllegalStateException(ex.getMessage(), ex);
+            return thread;
         }
     }
 }
@@ -18,27 +18,60 @@
 
 package org.piraso.io.impl;
 
+import org.piraso.api.io.EntryReadAdapter;
+import org.piraso.api.io.EntryReadEvent;
 import org.piraso.api.io.EntryReadListener;
 import org.piraso.api.io.PirasoEntryReader;
 import org.piraso.io.IOEntrySource;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.Validate;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
 
 /**
+ * Reads the entries of a saved file.
+ * <p>
+ * When the file has a {@link FileEntryIndex} and the source is {@link #setLazy(boolean) lazy}, starting only
+ * reads the index; the entries of a request are read from the memory-mapped file when {@link #load(Collection)
+ * loaded}. Otherwise the whole file is replayed on start, by default entries are loaded and passed to the listeners
+ * on the starting thread in file order.
+ * <p>
+ * Replay can be parallelized through {@link #setDecodeThreads(int)}: one thread scans the file while decode threads
+ * load the entries. The first entry of every request is still passed on the scanning thread so requests are seen in
+ * file order, the other entries of a request are passed in file order from a single thread, but entries of different
+ * requests are then passed concurrently so listeners need to be thread safe.
  *
  * @author adleon
  */
 public class FileEntrySource implements IOEntrySource {
     private static final Logger LOG = Logger.getLogger(FileEntrySource.class.getName());
+
+    private static final byte[] FRAGMENT_START = "<piraso>".getBytes();
+
+    private static final byte[] FRAGMENT_END = "</piraso>".getBytes();
         
+    /**
+     * Holds the listeners, entries are dispatched through it.
+     */
     private PirasoEntryReader reader;
+
+    /**
+     * Reads the file when replayed, {@code null} when lazy.
+     */
+    private PirasoEntryReader scanner;
+
+    private volatile String id;
+
+    private volatile String watchedAddr;
+
+    private int decodeThreads = 1;
     
     private boolean alive;
 
@@ -46,6 +79,12 @@ public class FileEntrySource implements IOEntrySource {
 
     private String name;
 
+    private FileEntryIndex index;
+
+    private boolean lazy;
+
+    private MappedByteBuffer mapped;
+
     public FileEntrySource(File source) throws FileNotFoundException {
         Validate.notNull(source, "source should not be null.");
         this.source = source;
@@ -55,16 +94,66 @@ public class FileEntrySource implements IOEntrySource {
         }
         
         this.name = source.getName();
+        this.index = FileEntryIndex.read(source);
     }
 
     public void setName(String name) {
         this.name = name;
     }
 
+    /**
+     * Determines whether only the index is read on start, entries being loaded per request through
+     * {@link #load(Collection)}. Has no effect when the file has no index.
+     *
+     * @param lazy {@code true} for on demand loading
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * The number of threads loading entries while replaying the file, {@code 1}, the default, loads on the scanning
+     * thread. With more than one thread the listeners are called concurrently.
+     *
+     * @param decodeThreads the thread count
+     */
+    public void setDecodeThreads(int decodeThreads) {
+        Validate.isTrue(decodeThreads > 0, "decodeThreads should be greater than zero.");
+        this.decodeThreads = decodeThreads;
+    }
+
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * The file index.
+     *
+     * @return the index, {@code null} when the file has none
+     */
+    public FileEntryIndex getIndex() {
+        return index;
+    }
+
     public void reset() {
         try {
             alive = false;
-            reader = new PirasoEntryReader(new GZIPInputStream(new FileInputStream(source)));
+
+            // the stream is never read, the reader only dispatches events
+            reader = new PirasoEntryReader(new ByteArrayInputStream(new byte[0]));
+            scanner = null;
+
+            if(!lazy || index == null) {
+                scanner = new PirasoEntryReader(new GZIPInputStream(new FileInputStream(source)));
+            }
         } catch (IOException e) {
             throw new IllegalStateException(e.getMessage(), e);
         }
@@ -83,7 +172,12 @@ public class FileEntrySource implements IOEntrySource {
             if(!alive) {
                 LOG.info("Starting Context Monitor for File : " + source.getAbsolutePath());
                 alive = true;
-                reader.start();
+
+                if(scanner == null) {
+                    reader.fireEntryReadStartedEvent(new EntryReadEvent(reader, index.getId(), index.getWatchedAddr()));
+                } else {
+                    replay();
+                }
             }
         } catch (Exception ex) {
             LOG.log(Level.SEVERE, ex.getMessage(), ex);
@@ -93,11 +187,140 @@ public class FileEntrySource implements IOEntrySource {
         }
     }
 
+    private void replay() throws Exception {
+        final EntryDecodePipeline pipeline = decodeThreads > 1 ? new EntryDecodePipeline(reader, decodeThreads, "piraso-" + name) : null;
+
+        scanner.setRawEntries(pipeline != null);
+        scanner.addListener(new EntryReadAdapter() {
+            @Override
+            public void started(EntryReadEvent evt) {
+                id = evt.getId();
+                watchedAddr = evt.getWatchedAddr();
+
+                reader.fireEntryReadStartedEvent(evt);
+            }
+
+            @Override
+            public void readEntry(EntryReadEvent evt) {
+                if(pipeline == null) {
+                    reader.fireEntryReadEvent(evt);
+                    return;
+                }
+
+                try {
+                    pipeline.submit(evt);
+                } catch (InterruptedIOException e) {
+                    scanner.stop();
+                }
+            }
+        });
+
+        boolean completed = false;
+
+        try {
+            scanner.start();
+            completed = true;
+        } finally {
+            if(pipeline != null) {
+                if(completed) {
+                    pipeline.finish();
+                } else {
+                    pipeline.abort();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the entries of the given requests from the indexed file, the entries are passed to the listeners in
+     * file order. Unknown request ids are ignored.
+     *
+     * @param requestIds the request ids
+     * @throws IOException on io error
+     */
+    public void load(Collection<Long> requestIds) throws IOException {
+        Validate.notNull(index, String.format("File %s is not indexed.", source.getAbsolutePath()));
+
+        Set<Long> ids = new HashSet<Long>(requestIds);
+        long loadedOffset = -1;
+
+        // requests sharing a block are adjacent, each block is inflated once
+        for(FileEntryIndex.Request request : index.getRequests()) {
+            if(ids.contains(request.getRequestId()) && request.getOffset() != loadedOffset) {
+                load(request, ids);
+                loadedOffset = request.getOffset();
+            }
+        }
+    }
+
+    private void load(FileEntryIndex.Request request, final Set<Long> ids) throws IOException {
+        List<InputStream> streams = new ArrayList<InputStream>(3);
+        streams.add(new ByteArrayInputStream(FRAGMENT_START));
+        streams.add(new GZIPInputStream(new ByteBufferInputStream(getMember(request)), 8192));
+        streams.add(new ByteArrayInputStream(FRAGMENT_END));
+
+        InputStream in = new SequenceInputStream(Collections.enumeration(streams));
+
+        try {
+            PirasoEntryReader fragment = new PirasoEntryReader(in);
+            fragment.addListener(new EntryReadAdapter() {
+                @Override
+                public void readEntry(EntryReadEvent evt) {
+                    if(ids.contains(evt.getRequestId())) {
+                        reader.fireEntryReadEvent(evt);
+                    }
+                }
+            });
+
+            fragment.start();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(String.format("Unable to read request %d: %s", request.getRequestId(), e.getMessage()), e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Retrieves the compressed block of a request from the memory-mapped file. Files larger than what a single
+     * mapping allows are mapped per request.
+     *
+     * @param request the request
+     * @return the block bytes
+     * @throws IOException on io error
+     */
+    private synchronized ByteBuffer getMember(FileEntryIndex.Request request) throws IOException {
+        if(mapped == null && source.length() <= Integer.MAX_VALUE) {
+            mapped = map(0, source.length());
+        }
+
+        if(mapped != null) {
+            ByteBuffer member = mapped.duplicate();
+            member.position((int) request.getOffset());
+            member.limit((int) request.getOffset() + request.getLength());
+
+            return member;
+        }
+
+        return map(request.getOffset(), request.getLength());
+    }
+
+    private MappedByteBuffer map(long position, long size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(source, "r");
+
+        try {
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, position, size);
+        } finally {
+            raf.close();
+        }
+    }
+
     public void stop() {
         try {
             if(alive) {
                 LOG.info("Starting Context Monitor for File : " + source.getAbsolutePath());
-                reader.stop();
+                (scanner != null ? scanner : reader).stop();
             } else {
                 LOG.warning("Not stopped since not alive. File: " + source.getAbsolutePath());
             }
@@ -107,7 +330,11 @@ public class FileEntrySource implements IOEntrySource {
     }
 
     public String getId() {
-        return reader.getId();
+        if(index != null) {
+            return index.getId();
+        }
+
+        return id;
     }
 
     public boolean isAlive() {
@@ -127,11 +354,11 @@ public class FileEntrySource implements IOEntrySource {
     }
 
     public String getWatchedAddr() {
-        if(reader == null) {
-            return null;
+        if(index != null) {
+            return index.getWatchedAddr();
         }
 
-        return reader.getWatchedAddr();
+        return watchedAddr;
     }
 
 }
@@ -21,10 +21,8 @@ package org.piraso.io.impl;
 import org.piraso.api.Preferences;
 import org.piraso.api.io.EntryReadListener;
 import org.piraso.client.net.HttpPirasoEntryReader;
+import org.piraso.client.net.HttpTransport;
 import org.piraso.io.IOEntrySource;
-import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpConnectionParamBean;
 import org.apache.http.params.HttpParams;
@@ -42,6 +40,16 @@ public class HttpEntrySource implements IOEntrySource {
     
     private static final Logger LOG = Logger.getLogger(HttpEntrySource.class.getName());
 
+    /**
+     * Shared by the start requests of all sources, a started source holds one connection for as long as it streams.
+     */
+    private static final HttpTransport STREAM_TRANSPORT = createTransport(1000 * 60 * 120, 200, 50);
+
+    /**
+     * Shared by the short stop and test requests, kept apart so they are never starved by streaming connections.
+     */
+    private static final HttpTransport CONTROL_TRANSPORT = createTransport(1000 * 30, 50, 10);
+
     private HttpPirasoEntryReader reader;
 
     private boolean alive;
@@ -75,24 +83,44 @@ public class HttpEntrySource implements IOEntrySource {
         this.name = name;
     }
 
-    private void initReader() {
-        alive = false;
-
-        ThreadSafeClientConnManager manager = new ThreadSafeClientConnManager();
-        manager.setDefaultMaxPerRoute(2);
-        manager.setMaxTotal(2);
-
+    private static HttpTransport createTransport(int soTimeout, int maxTotal, int maxPerRoute) {
         HttpParams params = new BasicHttpParams();
 
         // set timeout
         HttpConnectionParamBean connParamBean = new HttpConnectionParamBean(params);
         connParamBean.setConnectionTimeout(3000);
-        connParamBean.setSoTimeout(1000 * 60 * 120);
+        connParamBean.setSoTimeout(soTimeout);
+
+        HttpTransport transport = new HttpTransport(params);
+        transport.setMaxTotal(maxTotal);
+        transport.setDefaultMaxPerRoute(maxPerRoute);
+
+        // a start beyond the per route limit fails instead of waiting for another session to end
+        transport.setConnectionRequestTimeout(3000);
+
+        return transport;
+    }
+
+    /**
+     * @return the transport of the streaming start requests of all http sources
+     */
+    public static HttpTransport getStreamTransport() {
+        return STREAM_TRANSPORT;
+    }
+
+    /**
+     * @return the transport of the stop and test requests of all http sources
+     */
+    public static HttpTransport getControlTransport() {
+        return CONTROL_TRANSPORT;
+    }
+
+    private void initReader() {
+        alive = false;
 
-        HttpClient client = new DefaultHttpClient(manager, params);
         HttpContext context = new BasicHttpContext();
 
-        this.reader = new HttpPirasoEntryReader(client, context);
+        this.reader = new HttpPirasoEntryReader(STREAM_TRANSPORT.getClient(), CONTROL_TRANSPORT.getClient(), context);
 
         reader.setUri(uri);
         reader.getStartHandler().setPreferences(preferences);
@@ -18,21 +18,26 @@
 
 package org.piraso.io.util;
 
-import org.piraso.api.LongIDGenerator;
 import org.piraso.api.entry.RequestEntry;
 import org.piraso.api.entry.ResponseEntry;
 import org.piraso.api.io.EntryReadEvent;
 import org.piraso.io.IOEntry;
 import org.piraso.io.IOEntryVisitor;
+import org.piraso.io.cache.IOEntryCacheManager;
 import org.piraso.io.cache.IOEntryRequestCache;
 import org.apache.commons.lang.Validate;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Represents a single request of {@link IOEntry} received from a source.
+ * <p>
+ * Appends reserve their row without locking, rows become visible through {@link #size()} in row order once
+ * stored. Reads never lock.
  *
  * @author alvinrdeleon
  */
@@ -42,54 +47,80 @@ public class IOEntryRequest {
     
     private Long id;
 
-    private LongIDGenerator generator;
-        
-    private int count;
+    private AtomicInteger reserved;
 
-    private IOEntry request;
+    /**
+     * Number of rows stored and visible to readers.
+     */
+    private volatile int count;
+
+    private AtomicReference<IOEntry> request;
     
-    private IOEntry response;
+    private AtomicReference<IOEntry> response;
 
     private IOEntryRequestCache cache;
 
     private String parentId;
     
     public IOEntryRequest(String parentId, Long id) {
-        this.cache = new IOEntryRequestCache(parentId, id);
+        this.cache = IOEntryCacheManager.INSTANCE.createRequestCache();
         this.id = id;
         this.parentId = parentId;
-        this.generator = new LongIDGenerator();
+        this.reserved = new AtomicInteger();
+        this.request = new AtomicReference<IOEntry>();
+        this.response = new AtomicReference<IOEntry>();
 
         LOG.log(Level.INFO, String.format("IO Request with id '%s'.", id));
     }
     
     public void visit(IOEntryVisitor visitor) throws IOException {
-        for(int i = 0; i < count; i++) {
+        int size = count;
+
+        for(int i = 0; i < size; i++) {
             visitor.visit(get(i));
         }
     }
     
-    public synchronized IOEntry addEntry(EntryReadEvent evt) throws IOException {
+    public IOEntry addEntry(EntryReadEvent evt) throws IOException {
         IOEntrySerializable serializable = new IOEntrySerializable(evt);
 
-        LOG.log(Level.INFO, String.format("Request[%s]: Entry received of type '%s'.", id, evt.getEntry().getClass().getName()));
-        
-        serializable.setRowNum(generator.next() - 1);
-        
-        IOEntry ioEntry = new IOEntry(serializable, evt.getEntry());
-        
-        if(RequestEntry.class.isInstance(evt.getEntry()) && request == null) {
-            request = ioEntry;
-        } else if(ResponseEntry.class.isInstance(evt.getEntry()) && response == null) {
-            response = ioEntry;
-
-            LOG.log(Level.INFO, String.format("Request[%s]: Response received completed.", id));
+        if(LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, String.format("Request[%s]: Entry received of type '%s'.", id, evt.getEntry().getClass().getName()));
         }
-        
-        cache.put(serializable);
-        count++;
-        
-        return ioEntry;
+
+        int rowNum = reserved.getAndIncrement();
+
+        try {
+            serializable.setRowNum((long) rowNum);
+
+            IOEntry ioEntry = new IOEntry(serializable, evt.getEntry());
+
+            if(RequestEntry.class.isInstance(evt.getEntry())) {
+                request.compareAndSet(null, ioEntry);
+            } else if(ResponseEntry.class.isInstance(evt.getEntry()) && response.compareAndSet(null, ioEntry)) {
+                LOG.log(Level.INFO, String.format("Request[%s]: Response received completed.", id));
+            }
+
+            cache.put(serializable);
+
+            return ioEntry;
+        } finally {
+            publish(rowNum);
+        }
+    }
+
+    /**
+     * Makes the row visible once all previous rows are, concurrent appends to the same request may complete out
+     * of order. A row which failed to store is still published and fails when read.
+     *
+     * @param rowNum the stored row
+     */
+    private void publish(int rowNum) {
+        while(count != rowNum) {
+            Thread.yield();
+        }
+
+        count = rowNum + 1;
     }
 
     public IOEntry get(int rowNum) throws IOException {
@@ -105,11 +136,11 @@ public class IOEntryRequest {
     }
 
     public IOEntry getRequest() {
-        return request;
+        return request.get();
     }
 
     public IOEntry getResponse() {
-        return response;
+        return response.get();
     }
     
     public int size() {
@@ -20,6 +20,7 @@ package org.piraso.io.util;
 
 import org.piraso.api.JacksonUtils;
 import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.RawEntry;
 import org.piraso.api.io.EntryReadEvent;
 import org.piraso.api.io.PirasoObjectLoaderRegistry;
 
@@ -48,9 +49,17 @@ public class IOEntrySerializable {
     public IOEntrySerializable(EntryReadEvent evt) throws IOException {
         this.id = evt.getRequestId();
         this.date = evt.getDate();
-        this.classType = evt.getEntry().getClass().getName();
-        
-        this.entryValue = JacksonUtils.MAPPER.writeValueAsString(evt.getEntry());
+
+        if(RawEntry.class.isInstance(evt.getEntry())) {
+            // keep the original class name so the entry loads again once its class is known
+            RawEntry raw = (RawEntry) evt.getEntry();
+
+            this.classType = raw.getRawClassName();
+            this.entryValue = raw.getRawContent();
+        } else {
+            this.classType = evt.getEntry().getClass().getName();
+            this.entryValue = JacksonUtils.MAPPER.writeValueAsString(evt.getEntry());
+        }
     }
 
     public Long getRowNum() {
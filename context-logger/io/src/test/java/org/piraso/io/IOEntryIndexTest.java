@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.io;
+
+import org.piraso.api.entry.*;
+import org.piraso.api.io.EntryReadEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Test for {@link IOEntryIndex} class.
+ */
+public class IOEntryIndexTest {
+
+    private IOEntryManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new IOEntryManager("test-" + System.nanoTime());
+    }
+
+    private void add(long requestId, Entry entry, String level, String... groups) throws Exception {
+        entry.setLevel(level);
+
+        if(groups.length > 0) {
+            entry.setGroup(new GroupEntry(Arrays.asList(groups)));
+        }
+
+        manager.addEntry(new EntryReadEvent(this, requestId, entry, new Date()));
+    }
+
+    private List<Object> visit(long[] references) throws Exception {
+        final List<Object> result = new ArrayList<Object>();
+
+        manager.visit(references, new IOEntryVisitor() {
+            public void visit(IOEntry entry) {
+                Entry e = entry.getEntry();
+                result.add(MessageEntry.class.isInstance(e) ? ((MessageEntry) e).getMessage() : e.getClass());
+            }
+        });
+
+        return result;
+    }
+
+    @Test
+    public void testIndexes() throws Exception {
+        add(2, new MessageEntry("select id from users"), "sql", "a");
+        add(1, new MessageEntry("Update USERS set x=1"), "sql", "a", "b");
+        add(2, new RequestEntry(), "request");
+        add(1, new MessageEntry("hello"), "method", "b");
+
+        IOEntryIndex index = manager.getIndex();
+
+        // visit order: request 2 rows first as it was received first
+        assertEquals(Arrays.<Object>asList("select id from users", RequestEntry.class, "Update USERS set x=1", "hello"), visit(index.getByClass(Entry.class)));
+        assertEquals(Arrays.<Object>asList("select id from users", "Update USERS set x=1", "hello"), visit(index.getByClass(MessageEntry.class)));
+        assertEquals(Arrays.<Object>asList("select id from users", "Update USERS set x=1"), visit(index.getByGroup("a")));
+        assertEquals(Arrays.<Object>asList("Update USERS set x=1", "hello"), visit(index.getByGroup("b")));
+        assertEquals(Arrays.<Object>asList("hello"), visit(index.getByLevel("method")));
+        assertEquals(0, index.getByLevel("unknown").length);
+
+        // fragments match within tokens ignoring case
+        assertEquals(Arrays.<Object>asList("select id from users", "Update USERS set x=1"), visit(index.getByMessageFragment("user")));
+        assertEquals(Arrays.<Object>asList("Update USERS set x=1"), visit(index.getByMessageFragment("UPD")));
+        assertEquals(0, index.getByMessageFragment("delete").length);
+    }
+
+    @Test
+    public void testUnionAndIntersect() throws Exception {
+        long[] a = {1, 3, 5, 7};
+        long[] b = {3, 4, 7};
+
+        assertTrue(Arrays.equals(new long[] {3, 7}, IOEntryIndex.intersect(a, b)));
+        assertTrue(Arrays.equals(new long[] {1, 3, 4, 5, 7}, IOEntryIndex.union(Arrays.asList(a, b))));
+        assertEquals(0, IOEntryIndex.union(Collections.<long[]>emptyList()).length);
+    }
+
+    @Test
+    public void testTokenize() throws Exception {
+        assertEquals(new HashSet<String>(Arrays.asList("select", "a_1", "from", "t")), IOEntryIndex.tokenize("SELECT a_1, a_1 FROM t;"));
+        assertTrue(IOEntryIndex.tokenize(null).isEmpty());
+    }
+}
@@ -18,40 +18,151 @@
 
 package org.piraso.io;
 
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.io.EntryReadEvent;
+import org.piraso.io.util.IOEntryRequest;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static junit.framework.Assert.*;
+
 /**
  * Test for {@link IOEntryManager} class.
  */
 public class IOEntryManagerTest {
 
+    private IOEntryManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new IOEntryManager("test-" + System.nanoTime());
+    }
+
+    private IOEntry add(long requestId, String message) throws IOException {
+        return manager.addEntry(new EntryReadEvent(this, requestId, new MessageEntry(requestId, message), new Date()));
+    }
+
     @Test
     public void testAddEntry() throws Exception {
+        add(2, "a");
+        add(1, "b");
+        add(2, "c");
 
+        assertEquals(2, manager.size(2l));
+        assertEquals(1, manager.size(1l));
+        assertEquals("c", ((MessageEntry) manager.getEntryAt(2l, 1).getEntry()).getMessage());
+
+        // received order
+        List<Long> ids = new ArrayList<Long>();
+        for(IOEntryRequest request : manager.getRequests()) {
+            ids.add(request.getId());
+        }
+
+        assertEquals(Arrays.asList(2l, 1l), ids);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRequest() throws Exception {
+        manager.size(1l);
     }
 
     @Test
     public void testGetId() throws Exception {
-
+        assertEquals("id", new IOEntryManager("id").getId());
     }
 
     @Test
     public void testVisit() throws Exception {
+        for(long i = 1; i <= 5; i++) {
+            add(i, String.valueOf(i));
+        }
 
-    }
+        final List<String> messages = new ArrayList<String>();
 
-    @Test
-    public void testGetPage() throws Exception {
+        // visited in received order whatever the given order, unknown ids ignored
+        manager.visit(Arrays.asList(4l, 2l, 100l, 2l), new IOEntryVisitor() {
+            public void visit(IOEntry entry) {
+                messages.add(((MessageEntry) entry.getEntry()).getMessage());
+            }
+        });
 
+        assertEquals(Arrays.asList("2", "4"), messages);
     }
 
     @Test
-    public void testGetTotalPages() throws Exception {
+    public void testConcurrentAdd() throws Exception {
+        final int threads = 4;
+        final int perThread = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
 
-    }
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
 
-    @Test
-    public void testGetTotalEntries() throws Exception {
+            for(int t = 0; t < threads; t++) {
+                final long own = t + 10;
+
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+
+                        for(int i = 0; i < perThread; i++) {
+                            // one request of its own and one shared with the other threads
+                            add(own, String.valueOf(i));
+                            add(1l, String.valueOf(i));
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            // reads while entries stream in only see stored rows
+            Future<Integer> reader = executor.submit(new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    start.await();
+                    int reads = 0;
+
+                    while(reads < 10000) {
+                        for(IOEntryRequest request : manager.getRequests()) {
+                            int size = request.size();
+
+                            if(size > 0) {
+                                assertNotNull(request.get(size - 1).getEntry());
+                                reads++;
+                            }
+                        }
+                    }
+
+                    return reads;
+                }
+            });
+
+            start.countDown();
+
+            for(Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads + 1, manager.getRequests().size());
+        assertEquals(threads * perThread, manager.size(1l));
+
+        for(int t = 0; t < threads; t++) {
+            assertEquals(perThread, manager.size(t + 10l));
+            assertEquals(String.valueOf(perThread - 1), ((MessageEntry) manager.getEntryAt(t + 10l, perThread - 1).getEntry()).getMessage());
+        }
 
+        for(int i = 0; i < threads * perThread; i++) {
+            assertEquals(Long.valueOf(i), manager.getEntryAt(1l, i).getRowNum());
+        }
     }
 }
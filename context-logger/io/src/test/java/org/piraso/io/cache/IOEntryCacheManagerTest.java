@@ -24,17 +24,18 @@ import org.piraso.io.util.IOEntrySerializable;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Date;
 
-import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.*;
 
 /**
  * Test for {@link IOEntryCacheManager} class.
  */
 public class IOEntryCacheManagerTest {
     @Test
-    public void testAdd() throws Exception {
-        IOEntryCacheManager manager = IOEntryCacheManager.INSTANCE;
+    public void testPut() throws Exception {
+        IOEntryRequestCache cache = IOEntryCacheManager.INSTANCE.createRequestCache();
 
         ObjectMapper mapper = JacksonUtils.MAPPER;
 
@@ -47,15 +48,69 @@ public class IOEntryCacheManagerTest {
         serializable.setId(entry.getRequestId());
         serializable.setRowNum(1l);
 
-        manager.add("a", 1, serializable);
+        cache.put(serializable);
 
-        IOEntrySerializable actual = manager.get("a", 1, 1);
+        IOEntrySerializable actual = cache.get(1);
 
         assertNotNull(actual);
+        assertEquals(serializable.getClassType(), actual.getClassType());
+        assertEquals(serializable.getDate(), actual.getDate());
+        assertEquals(serializable.getEntryValue(), actual.getEntryValue());
+        assertEquals(serializable.getId(), actual.getId());
+        assertEquals(serializable.getRowNum(), actual.getRowNum());
     }
 
     @Test
     public void testGet() throws Exception {
+        IOEntryRequestCache cache = IOEntryCacheManager.INSTANCE.createRequestCache();
 
+        assertNull(cache.get(0));
+
+        IOEntrySerializable serializable = new IOEntrySerializable();
+        serializable.setRowNum(0l);
+        cache.put(serializable);
+
+        IOEntrySerializable actual = cache.get(0);
+
+        // null fields are kept null
+        assertNotNull(actual);
+        assertNull(actual.getClassType());
+        assertNull(actual.getDate());
+        assertNull(actual.getEntryValue());
+        assertNull(actual.getId());
+
+        assertNull(cache.get(1));
+        assertNull(cache.get(1000));
+        assertNull(cache.get(-1));
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "piraso-test-" + System.nanoTime());
+        IOEntryCacheManager manager = new IOEntryCacheManager(dir, 4096);
+        IOEntryRequestCache first = manager.createRequestCache();
+        IOEntryRequestCache second = manager.createRequestCache();
+
+        assertNotSame(first, second);
+
+        for(long i = 0; i < 1000; i++) {
+            IOEntryRequestCache cache = i % 2 == 0 ? first : second;
+
+            IOEntrySerializable serializable = new IOEntrySerializable();
+            serializable.setClassType(MessageEntry.class.getName());
+            serializable.setEntryValue("{\"message\":\"message " + i + "\",\"elapseTime\":null}");
+            serializable.setRowNum(i / 2);
+            cache.put(serializable);
+        }
+
+        assertTrue(manager.getStore().getSegmentCount() > 1);
+
+        for(int i = 0; i < 500; i++) {
+            assertEquals("{\"message\":\"message " + (i * 2) + "\",\"elapseTime\":null}", first.get(i).getEntryValue());
+            assertEquals("{\"message\":\"message " + (i * 2 + 1) + "\",\"elapseTime\":null}", second.get(i).getEntryValue());
+            assertEquals(Long.valueOf(i), second.get(i).getRowNum());
+        }
+
+        assertNull(first.get(500));
     }
 }
@@ -16,21 +16,292 @@
  * limitations under the License.
  */
 
+
 package org.piraso.io.impl;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.io.EntryReadEvent;
+import org.piraso.io.IOEntry;
+import org.piraso.io.IOEntryReader;
+import org.piraso.io.IOEntrySource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Test for {@link FileEntrySave} class.
  */
 public class FileEntrySaveTest {
+
+    /**
+     * Creates a reader which received 2, 3 and 4 entries for requests 1, 2 and 3.
+     *
+     * @return the reader
+     */
+    static IOEntryReader createReader() {
+        return createReader(3);
+    }
+
+    /**
+     * Creates a reader which received {@code n + 1} entries for each request {@code n}.
+     *
+     * @param requests the number of requests
+     * @return the reader
+     */
+    static IOEntryReader createReader(int requests) {
+        IOEntrySource source = mock(IOEntrySource.class);
+        when(source.getId()).thenReturn("save-" + System.nanoTime());
+        when(source.getWatchedAddr()).thenReturn("127.0.0.1");
+
+        IOEntryReader reader = new IOEntryReader(source);
+
+        for(long requestId = 1; requestId <= requests; requestId++) {
+            for(int i = 0; i <= requestId; i++) {
+                reader.readEntry(new EntryReadEvent(reader, requestId, new MessageEntry(requestId, "message " + i), new Date()));
+            }
+        }
+
+        return reader;
+    }
+
+    static File save(IOEntryReader reader, Long... requestIds) throws Exception {
+        return save(new FileEntrySave(reader), requestIds);
+    }
+
+    static File save(FileEntrySave save, Long... requestIds) throws Exception {
+        File file = File.createTempFile("piraso", "." + PirasoFileFilter.EXTENSION);
+        file.deleteOnExit();
+        FileEntryIndex.getIndexFile(file).deleteOnExit();
+
+        return save(save, file, requestIds);
+    }
+
+    static File save(FileEntrySave save, File file, Long... requestIds) throws Exception {
+        for(Long requestId : requestIds) {
+            save.addRequest(requestId);
+        }
+
+        save.save(file);
+
+        return file;
+    }
+
     @Test
     public void testAddRequest() throws Exception {
+        File file = save(createReader(), 2l);
+        FileEntryIndex index = FileEntryIndex.read(file);
 
+        assertNotNull(index);
+        assertEquals(1, index.getRequests().size());
+        assertEquals(3, index.getRequest(2l).getEntryCount());
+        assertNull(index.getRequest(1l));
     }
 
     @Test
     public void testSave() throws Exception {
+        File file = save(createReader(), 1l, 2l, 3l);
+        FileEntryIndex index = FileEntryIndex.read(file);
+
+        assertNotNull(index);
+        assertEquals("127.0.0.1", index.getWatchedAddr());
+        assertEquals(3, index.getRequests().size());
+
+        for(FileEntryIndex.Request request : index.getRequests()) {
+            assertTrue(request.getOffset() > 0);
+            assertEquals(request.getRequestId() + 1, request.getEntryCount());
+        }
+
+        // still a single gzip stream for readers unaware of the index
+        String content = inflate(file);
+        assertTrue(content.startsWith("<?xml"));
+        assertTrue(content.endsWith("</piraso>"));
+        assertTrue(content.contains("message 3"));
+    }
+
+    @Test
+    public void testParallelSave() throws Exception {
+        IOEntryReader reader = createReader(50);
+        Long[] requestIds = new Long[50];
+        for(int i = 0; i < requestIds.length; i++) {
+            requestIds[i] = i + 1l;
+        }
+
+        FileEntrySave sequential = new FileEntrySave(reader);
+        sequential.setThreads(1);
+        sequential.setBlockEntries(100);
+
+        FileEntrySave parallel = new FileEntrySave(reader);
+        parallel.setThreads(4);
+        parallel.setBlockEntries(100);
+
+        File expected = save(sequential, requestIds);
+        File actual = save(parallel, requestIds);
+
+        assertEquals(inflate(expected), inflate(actual));
+
+        FileEntryIndex index = FileEntryIndex.read(actual);
+        Set<Long> offsets = new HashSet<Long>();
+        long previous = 0;
+
+        for(FileEntryIndex.Request request : index.getRequests()) {
+            assertTrue(request.getOffset() >= previous);
+            previous = request.getOffset();
+            offsets.add(request.getOffset());
+        }
+
+        // blocks hold whole requests of at least 100 entries
+        assertTrue(offsets.size() > 1);
+        assertTrue(offsets.size() < 50);
+    }
+
+    @Test
+    public void testEntryFailureSkipped() throws Exception {
+        final IOEntry failing = mock(IOEntry.class);
+        doReturn(new Date()).when(failing).getDate();
+        doThrow(new IllegalStateException("broken entry")).when(failing).getEntry();
+
+        FileEntrySave save = new FileEntrySave(createReader()) {
+            @Override
+            public void visit(IOEntry entry) {
+                MessageEntry message = (MessageEntry) entry.getEntry();
+
+                if(message.getRequestId() == 2l && "message 1".equals(message.getMessage())) {
+                    super.visit(failing);
+                } else {
+                    super.visit(entry);
+                }
+            }
+        };
+
+        File file = save(save, 1l, 2l, 3l);
+        FileEntryIndex index = FileEntryIndex.read(file);
+
+        assertNotNull(index);
+        assertEquals(2, index.getRequest(1l).getEntryCount());
+        assertEquals(2, index.getRequest(2l).getEntryCount());
+        assertEquals(4, index.getRequest(3l).getEntryCount());
+        assertTrue(inflate(file).endsWith("</piraso>"));
+    }
+
+    @Test
+    public void testFailedSaveKeepsFile() throws Exception {
+        File file = File.createTempFile("piraso", "." + PirasoFileFilter.EXTENSION);
+        file.deleteOnExit();
+
+        OutputStream out = new FileOutputStream(file);
+        try {
+            IOUtils.write("previous", out);
+        } finally {
+            out.close();
+        }
+
+        FileEntrySave save = new FileEntrySave(createReader()) {
+            @Override
+            public void visit(IOEntry entry) {
+                throw new IllegalStateException("save failure");
+            }
+        };
+        save.addRequest(1l);
+
+        try {
+            save.save(file);
+            fail("save should fail");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+
+        assertEquals("previous", FileUtils.readFileToString(file, "UTF-8"));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void testFailedRenameRestoresFile() throws Exception {
+        File file = save(createReader(), 1l);
+        String previous = inflate(file);
+        FileEntryIndex index = FileEntryIndex.read(file);
+
+        final File tmp = new File(file.getPath() + ".tmp");
+        FileEntrySave save = new FileEntrySave(createReader()) {
+            @Override
+            boolean rename(File from, File to) {
+                return !from.equals(tmp) && super.rename(from, to);
+            }
+        };
+        save.addRequest(2l);
+
+        try {
+            save.save(file);
+            fail("save should fail");
+        } catch (IOException expected) {
+            // expected
+        }
+
+        // the previous file and its index are left in place
+        assertEquals(previous, inflate(file));
+        assertNotNull(FileEntryIndex.read(file));
+        assertEquals(index.getRequests().size(), FileEntryIndex.read(file).getRequests().size());
+        assertFalse(tmp.exists());
+        assertFalse(new File(file.getPath() + ".bak").exists());
+    }
+
+    @Test
+    public void testReplaceRemovesBackup() throws Exception {
+        File file = save(createReader(), 1l);
+        save(new FileEntrySave(createReader()), file, 2l);
+
+        assertEquals(3, FileEntryIndex.read(file).getRequest(2l).getEntryCount());
+        assertNull(FileEntryIndex.read(file).getRequest(1l));
+        assertFalse(new File(file.getPath() + ".bak").exists());
+    }
+
+    @Test
+    public void testEntriesWithoutRequestIdSaved() throws Exception {
+        IOEntryReader reader = createReader();
+        reader.readEntry(new EntryReadEvent(reader, null, new MessageEntry("no request"), new Date()));
+
+        File file = save(reader, null, 1l);
+        FileEntryIndex index = FileEntryIndex.read(file);
+
+        // saved but left out of the index
+        assertTrue(inflate(file).contains("no request"));
+        assertEquals(1, index.getRequests().size());
+        assertEquals(2, index.getRequest(1l).getEntryCount());
+    }
+
+    @Test
+    public void testStaleIndexIgnored() throws Exception {
+        File file = save(createReader(), 1l);
+
+        OutputStream out = new FileOutputStream(file, true);
+        try {
+            IOUtils.write("garbage", out);
+        } finally {
+            out.close();
+        }
+
+        assertNull(FileEntryIndex.read(file));
+    }
+
+    private static String inflate(File file) throws Exception {
+        GZIPInputStream in = new GZIPInputStream(new FileInputStream(file));
 
+        try {
+            return IOUtils.toString(in, "UTF-8");
+        } finally {
+            in.close();
+        }
     }
 }
@@ -16,9 +16,23 @@
  * limitations under the License.
  */
 
+
 package org.piraso.io.impl;
 
 import org.junit.Test;
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.io.EntryReadAdapter;
+import org.piraso.api.io.EntryReadEvent;
+import org.piraso.io.IOEntryManager;
+import org.piraso.io.IOEntryReader;
+import org.piraso.io.util.IOEntryRequest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.*;
 
 /**
  * Test for {@link FileEntrySource} class.
@@ -26,11 +40,104 @@ import org.junit.Test;
 public class FileEntrySourceTest {
     @Test
     public void testStart() throws Exception {
+        File file = FileEntrySaveTest.save(FileEntrySaveTest.createReader(), 1l, 2l, 3l);
+
+        FileEntrySource source = new FileEntrySource(file);
+        List<EntryReadEvent> events = read(source);
 
+        source.start();
+
+        assertTrue(source.isIndexed());
+        assertEquals(9, events.size());
+        assertEquals("127.0.0.1", source.getWatchedAddr());
+    }
+
+    @Test
+    public void testLazyLoad() throws Exception {
+        File file = FileEntrySaveTest.save(FileEntrySaveTest.createReader(), 1l, 2l, 3l);
+
+        FileEntrySource source = new FileEntrySource(file);
+        source.setLazy(true);
+
+        final List<String> started = new ArrayList<String>();
+        List<EntryReadEvent> events = read(source);
+        source.addListener(new EntryReadAdapter() {
+            @Override
+            public void started(EntryReadEvent evt) {
+                started.add(evt.getWatchedAddr());
+            }
+        });
+
+        source.start();
+
+        assertEquals(Arrays.asList("127.0.0.1"), started);
+        assertTrue(events.isEmpty());
+
+        source.load(Arrays.asList(3l, 1l));
+
+        // file order
+        assertEquals(6, events.size());
+        assertEquals(Long.valueOf(1l), events.get(0).getRequestId());
+        assertEquals(Long.valueOf(3l), events.get(5).getRequestId());
+        assertEquals("message 3", ((MessageEntry) events.get(5).getEntry()).getMessage());
+    }
+
+    @Test
+    public void testParallelReplay() throws Exception {
+        Long[] requestIds = new Long[50];
+        for(int i = 0; i < requestIds.length; i++) {
+            requestIds[i] = i + 1l;
+        }
+
+        File file = FileEntrySaveTest.save(FileEntrySaveTest.createReader(50), requestIds);
+
+        FileEntrySource source = new FileEntrySource(file);
+        source.setDecodeThreads(4);
+
+        IOEntryReader reader = new IOEntryReader(source);
+        reader.start();
+
+        IOEntryManager manager = reader.getManager();
+        assertEquals(50, manager.getRequests().size());
+
+        // requests keep the file order
+        int i = 0;
+        for(IOEntryRequest request : manager.getRequests()) {
+            assertEquals(requestIds[i++], request.getId());
+        }
+
+        for(Long requestId : requestIds) {
+            assertEquals(requestId + 1, manager.size(requestId));
+
+            // rows keep the file order of the request
+            for(int row = 0; row <= requestId; row++) {
+                assertEquals("message " + row, ((MessageEntry) manager.getEntryAt(requestId, row).getEntry()).getMessage());
+            }
+        }
     }
 
     @Test
     public void testStop() throws Exception {
+        File file = FileEntrySaveTest.save(FileEntrySaveTest.createReader(), 1l);
+
+        FileEntrySource source = new FileEntrySource(file);
+        source.reset();
+        source.stop();
+
+        assertFalse(source.isAlive());
+    }
+
+    private static List<EntryReadEvent> read(FileEntrySource source) {
+        final List<EntryReadEvent> events = new ArrayList<EntryReadEvent>();
+
+        source.reset();
+        source.addListener(new EntryReadAdapter() {
+            @Override
+            public void readEntry(EntryReadEvent evt) {
+                events.add(evt);
+            }
+        });
 
+        return events;
     }
 }
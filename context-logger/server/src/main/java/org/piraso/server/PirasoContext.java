@@ -57,6 +57,11 @@ public class PirasoContext implements ContextPreference {
 
     private GroupChainId refGroupChainId;
 
+    /**
+     * Registry lookups resolved for this request, shared with child contexts.
+     */
+    private ResolvedRegistry resolved = new ResolvedRegistry();
+
     public PirasoContext(PirasoEntryPoint entryPoint) {
         this(entryPoint, LoggerRegistrySingleton.INSTANCE.getRegistry());
     }
@@ -94,6 +99,7 @@ public class PirasoContext implements ContextPreference {
         context.scopedEntryQueue = scopedEntryQueue;
         context.requestScoped = requestScoped;
         context.propertyBag = propertyBag;
+        context.resolved = resolved;
 
         return context;
     }
@@ -179,7 +185,7 @@ public class PirasoContext implements ContextPreference {
      */
     public boolean isMonitored() {
         try {
-            return CollectionUtils.isNotEmpty(registry.getContextPreferences(entryPoint));
+            return CollectionUtils.isNotEmpty(getContextPreferences());
         } catch (IOException e) {
             return false;
         }
@@ -190,10 +196,11 @@ public class PirasoContext implements ContextPreference {
      */
     public boolean isRegexEnabled(String property) {
         try {
-            List<Preferences> preferencesList = registry.getContextPreferences(entryPoint);
+            List<Preferences> preferencesList = getContextPreferences();
 
-            for(Preferences pref : preferencesList) {
-                if(pref.isRegexEnabled(property)) {
+            // indexed loop, evaluation should not allocate
+            for(int i = 0; i < preferencesList.size(); i++) {
+                if(preferencesList.get(i).isRegexEnabled(property)) {
                     return true;
                 }
             }
@@ -209,10 +216,10 @@ public class PirasoContext implements ContextPreference {
      */
     public boolean isEnabled(String property) {
         try {
-            List<Preferences> preferencesList = registry.getContextPreferences(entryPoint);
+            List<Preferences> preferencesList = getContextPreferences();
 
-            for(Preferences pref : preferencesList) {
-                if(pref.isEnabled(property)) {
+            for(int i = 0; i < preferencesList.size(); i++) {
+                if(preferencesList.get(i).isEnabled(property)) {
                     return true;
                 }
             }
@@ -228,11 +235,11 @@ public class PirasoContext implements ContextPreference {
      */
     public Integer getIntValue(String property) {
         try {
-            List<Preferences> preferencesList = registry.getContextPreferences(entryPoint);
+            List<Preferences> preferencesList = getContextPreferences();
             Integer max = null;
 
-            for(Preferences pref : preferencesList) {
-                Integer intValue = pref.getIntValue(property);
+            for(int i = 0; i < preferencesList.size(); i++) {
+                Integer intValue = preferencesList.get(i).getIntValue(property);
                 if(max == null || (intValue != null && intValue > max)) {
                     max = intValue;
                 }
@@ -244,6 +251,48 @@ public class PirasoContext implements ContextPreference {
         }
     }
 
+    /**
+     * Retrieves the {@link Preferences} watching this request, the registry is only consulted again when its
+     * generation changed.
+     *
+     * @return the context preferences
+     * @throws IOException on io error
+     */
+    private List<Preferences> getContextPreferences() throws IOException {
+        long generation = registry.getGeneration();
+        Resolved<Preferences> cached = resolved.preferences;
+
+        if(cached != null && cached.generation == generation) {
+            return cached.values;
+        }
+
+        List<Preferences> values = registry.getContextPreferences(entryPoint);
+        resolved.preferences = new Resolved<Preferences>(generation, values);
+
+        return values;
+    }
+
+    /**
+     * Retrieves the {@link ResponseLoggerService} watching this request, the registry is only consulted again when
+     * its generation changed.
+     *
+     * @return the context loggers
+     * @throws IOException on io error
+     */
+    private List<ResponseLoggerService> getContextLoggers() throws IOException {
+        long generation = registry.getGeneration();
+        Resolved<ResponseLoggerService> cached = resolved.loggers;
+
+        if(cached != null && cached.generation == generation) {
+            return cached.values;
+        }
+
+        List<ResponseLoggerService> values = registry.getContextLoggers(entryPoint);
+        resolved.loggers = new Resolved<ResponseLoggerService>(generation, values);
+
+        return values;
+    }
+
     /**
      * Log the given entry.
      *
@@ -252,9 +301,16 @@ public class PirasoContext implements ContextPreference {
      * @param entry the entry to log
      */
     public void log(Level level, GroupChainId id, Entry entry) {
+        if(level == null) {
+            level = Level.ALL;
+        }
+
+        EntryHolder holder = null;
+
         // always store scoped entries
         if(Level.SCOPED.equals(level)) {
-            scopedEntryQueue.add(new EntryHolder(id, entry));
+            holder = new EntryHolder(level, id, entry);
+            scopedEntryQueue.add(holder);
         }
 
         if(!isMonitored()) {
@@ -262,20 +318,24 @@ public class PirasoContext implements ContextPreference {
             return;
         }
 
-        if(level == null) {
-            level = Level.ALL;
+        if(holder == null) {
+            holder = new EntryHolder(level, id, entry);
         }
 
         try {
-            List<ResponseLoggerService> loggers = registry.getContextLoggers(entryPoint);
+            List<ResponseLoggerService> loggers = getContextLoggers();
 
             if(Level.SCOPED.equals(level)) {
                 for(ResponseLoggerService logger : loggers) {
+                    if(!logger.isAlive()) {
+                        continue;
+                    }
+
                     Preferences preferences = logger.getPreferences();
 
                     synchronized (this) {
                         if(requestScoped.contains(logger) || !preferences.isEnabled(GeneralPreferenceEnum.SCOPE_ENABLED.getPropertyName())) {
-                            doLog(logger, Level.SCOPED, id, entry);
+                            doLog(logger, holder);
 
                             if(!requestScoped.contains(logger)) {
                                 logger.addStopListener(new StoppedLoggerHandler(logger));
@@ -289,16 +349,20 @@ public class PirasoContext implements ContextPreference {
             }
 
             for(ResponseLoggerService logger : loggers) {
+                if(!logger.isAlive()) {
+                    continue;
+                }
+
                 Preferences preferences = logger.getPreferences();
 
                 if(Level.ALL.equals(level)) {
-                    doLog(logger, level, id, entry);
+                    doLog(logger, holder);
                 } else if(RegexLevelEntryAware.class.isInstance(entry)) {
                     if(preferences.isRegexEnabled(level.getName())) {
-                        doLog(logger, level, id, entry);
+                        doLog(logger, holder);
                     }
                 } else if(preferences.isEnabled(level.getName())) {
-                    doLog(logger, level, id, entry);
+                    doLog(logger, holder);
                 }
             }
         } catch (Exception e) {
@@ -307,52 +371,94 @@ public class PirasoContext implements ContextPreference {
     }
 
     /**
-     * Ensure to populate the group and request id.
+     * Ensure to log any queued scoped entries before logging the given entry.
      *
      * @param logger the logger service
-     * @param level the log level
-     * @param id the chain group
-     * @param entry the log entry
+     * @param holder the entry to log
      * @throws IOException on error
      */
-    private void doLog(ResponseLoggerService logger, Level level, GroupChainId id, Entry entry) throws IOException {
+    private void doLog(ResponseLoggerService logger, EntryHolder holder) throws IOException {
         synchronized (this) {
-            if(!requestScoped.contains(logger) && Level.SCOPED != level) {
+            if(!requestScoped.contains(logger) && Level.SCOPED != holder.level) {
                 logger.addStopListener(new StoppedLoggerHandler(logger));
                 requestScoped.add(logger);
 
-                for(EntryHolder holder : scopedEntryQueue) {
-                    doLog(logger, Level.SCOPED, holder.id, holder.entry);
+                for(EntryHolder scoped : scopedEntryQueue) {
+                    doLog(logger, scoped);
                 }
             }
         }
 
-        if(refGroupChainId != null) {
-            entry.setReferenceGroup(new GroupEntry(refGroupChainId.getGroupIds()));
-        }
-
-        entry.setIndent(getIndent());
-        entry.setRequestId(requestId);
-        entry.setBaseRequestId(requestId);
-        entry.setLevel(level.getName());
-        entry.setGroup(new GroupEntry(id.getGroupIds()));
-
-        if(ref != null && RequestEntry.class.isInstance(entry)) {
-            ((RequestEntry) entry).setReference(ref);
-        }
-
-        logger.log(entry);
+        logger.log(holder.getEncoded());
     }
 
+    /**
+     * Holds an entry to be logged, the entry is encoded only once and the encoded snapshot is shared by all loggers.
+     */
     private class EntryHolder {
+        private Level level;
+
         private GroupChainId id;
 
         private Entry entry;
 
-        private EntryHolder(GroupChainId id, Entry entry) {
+        private RawEntry encoded;
+
+        private EntryHolder(Level level, GroupChainId id, Entry entry) {
+            this.level = level;
             this.id = id;
             this.entry = entry;
         }
+
+        /**
+         * Ensure to populate the group and request id before encoding.
+         *
+         * @return the encoded entry
+         * @throws IOException on serialization error
+         */
+        private synchronized RawEntry getEncoded() throws IOException {
+            if(encoded != null) {
+                return encoded;
+            }
+
+            if(refGroupChainId != null) {
+                entry.setReferenceGroup(new GroupEntry(refGroupChainId.getGroupIds()));
+            }
+
+            entry.setIndent(getIndent());
+            entry.setRequestId(requestId);
+            entry.setBaseRequestId(requestId);
+            entry.setLevel(level.getName());
+            entry.setGroup(new GroupEntry(id.getGroupIds()));
+
+            if(ref != null && RequestEntry.class.isInstance(entry)) {
+                ((RequestEntry) entry).setReference(ref);
+            }
+
+            encoded = EntryUtils.toRawEntry(entry);
+
+            return encoded;
+        }
+    }
+
+    /**
+     * Registry lookups of a request, valid while the registry generation did not change.
+     */
+    private static class ResolvedRegistry {
+        private volatile Resolved<Preferences> preferences;
+
+        private volatile Resolved<ResponseLoggerService> loggers;
+    }
+
+    private static class Resolved<T> {
+        private final long generation;
+
+        private final List<T> values;
+
+        private Resolved(long generation, List<T> values) {
+            this.generation = generation;
+            this.values = values;
+        }
     }
 
     private class StoppedLoggerHandler implements StopLoggerListener {
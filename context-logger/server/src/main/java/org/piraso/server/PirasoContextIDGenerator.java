@@ -1,11 +1,13 @@
 package org.piraso.server;
 
+import org.piraso.api.LongIDGenerator;
 import org.piraso.api.NextGenerator;
+import org.piraso.api.ReservableIDGenerator;
 
 public enum PirasoContextIDGenerator implements NextGenerator<Long> {
     INSTANCE;
 
-    protected NextGenerator<Long> idGenerator;
+    protected volatile NextGenerator<Long> idGenerator = new LongIDGenerator();
 
     public NextGenerator<Long> getIdGenerator() {
         return idGenerator;
@@ -18,4 +20,21 @@ public enum PirasoContextIDGenerator implements NextGenerator<Long> {
     public Long next() {
         return idGenerator.next();
     }
+
+    /**
+     * Reserve a range of consecutive request ids.
+     *
+     * @param count the number of ids to reserve
+     * @return the first id of the range
+     * @throws UnsupportedOperationException when the id generator is not a {@link ReservableIDGenerator}
+     */
+    public long reserve(int count) {
+        NextGenerator<Long> generator = idGenerator;
+
+        if(!ReservableIDGenerator.class.isInstance(generator)) {
+            throw new UnsupportedOperationException(String.format("ID generator '%s' does not support reservation.", generator.getClass().getName()));
+        }
+
+        return ((ReservableIDGenerator) generator).reserve(count);
+    }
 }
@@ -19,6 +19,7 @@
 package org.piraso.server;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 
 /**
@@ -31,4 +32,6 @@ public interface PirasoResponse {
     void setCharacterEncoding(String encoding);
 
     PrintWriter getWriter() throws IOException;
+
+    OutputStream getOutputStream() throws IOException;
 }
@@ -22,6 +22,9 @@ import org.piraso.api.PreferenceEnum;
 
 /**
  * Preference evaluator
+ * <p>
+ * Evaluations are answered from the compiled and memoized {@link org.piraso.api.Preferences} of the watchers, so
+ * once warmed up they do not allocate.
  */
 public abstract class PreferenceEvaluator {
 
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch size and flush latency statistics of a {@link ResponseLoggerServiceImpl} writer.
+ */
+public class BatchStatistics {
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final AtomicLong entryCount = new AtomicLong();
+
+    private final AtomicLong maxBatchSize = new AtomicLong();
+
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    /**
+     * Records a written batch.
+     *
+     * @param size the number of entries in the batch
+     * @param flushNanos the time it took to flush the batch in nanoseconds
+     */
+    public void record(int size, long flushNanos) {
+        batchCount.incrementAndGet();
+        entryCount.addAndGet(size);
+        totalFlushNanos.addAndGet(flushNanos);
+
+        updateMax(maxBatchSize, size);
+        updateMax(maxFlushNanos, flushNanos);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+
+        while(value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getEntryCount() {
+        return entryCount.get();
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+
+        return batches == 0 ? 0 : (double) entryCount.get() / batches;
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    public double getAverageFlushNanos() {
+        long batches = batchCount.get();
+
+        return batches == 0 ? 0 : (double) totalFlushNanos.get() / batches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("batches=%d, entries=%d, avgBatchSize=%.2f, maxBatchSize=%d, avgFlushMicros=%.2f, maxFlushMicros=%.2f",
+                getBatchCount(), getEntryCount(), getAverageBatchSize(), getMaxBatchSize(),
+                getAverageFlushNanos() / 1000, getMaxFlushNanos() / 1000.0);
+    }
+}
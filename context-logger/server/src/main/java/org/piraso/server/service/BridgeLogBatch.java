@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import org.piraso.api.JacksonUtils;
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.EntryUtils;
+import org.piraso.api.entry.RawEntry;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Batch of entries shipped by a bridged process for a single {@link User}.
+ * <p>
+ * The batch is encoded as a gzip stream holding a magic number, the JSON user, the entry count and for each entry
+ * its optional request id, class name and JSON content. Strings are int length prefixed UTF-8.
+ * <p>
+ * Batches are read from untrusted request bodies, so the entry count, the string lengths and the inflated size are
+ * checked against {@link #MAX_ENTRIES}, {@link #MAX_STRING_LENGTH} and {@link #MAX_SIZE} before anything is
+ * allocated.
+ */
+public class BridgeLogBatch {
+
+    private static final int MAGIC = 0x50524C42;
+
+    private static final String UTF_8 = "UTF-8";
+
+    public static final int MAX_ENTRIES = 10000;
+
+    public static final int MAX_STRING_LENGTH = 8 * 1024 * 1024;
+
+    public static final long MAX_SIZE = 64 * 1024 * 1024;
+
+    private User user;
+
+    private List<RawEntry> entries;
+
+    public BridgeLogBatch(User user) {
+        this.user = user;
+        this.entries = new ArrayList<RawEntry>();
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public List<RawEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void add(Entry entry) throws IOException {
+        entries.add(EntryUtils.toRawEntry(entry));
+    }
+
+    public void add(RawEntry entry) {
+        entries.add(entry);
+    }
+
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(bytes)));
+
+        try {
+            out.writeInt(MAGIC);
+            writeString(out, JacksonUtils.MAPPER.writeValueAsString(user));
+            out.writeInt(entries.size());
+
+            for(RawEntry entry : entries) {
+                out.writeBoolean(entry.getRequestId() != null);
+                if(entry.getRequestId() != null) {
+                    out.writeLong(entry.getRequestId());
+                }
+
+                writeString(out, entry.getRawClassName());
+                writeString(out, entry.getRawContent());
+            }
+        } finally {
+            out.close();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static BridgeLogBatch read(InputStream in) throws IOException {
+        return read(in, MAX_SIZE);
+    }
+
+    /**
+     * Reads a batch.
+     *
+     * @param in the compressed batch
+     * @param maxSize the maximum inflated size
+     * @return the batch
+     * @throws IOException on io error or when the batch exceeds a limit
+     */
+    public static BridgeLogBatch read(InputStream in, long maxSize) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new LimitedInputStream(new GZIPInputStream(in), maxSize)));
+
+        if(data.readInt() != MAGIC) {
+            throw new IOException("Invalid log batch.");
+        }
+
+        BridgeLogBatch batch = new BridgeLogBatch(JacksonUtils.MAPPER.readValue(readString(data), User.class));
+        int size = data.readInt();
+        if(size < 0 || size > MAX_ENTRIES) {
+            throw new IOException(String.format("Invalid log batch entry count %d.", size));
+        }
+
+        for(int i = 0; i < size; i++) {
+            Long requestId = data.readBoolean() ? data.readLong() : null;
+            String className = readString(data);
+            String content = readString(data);
+
+            batch.entries.add(new RawEntry(requestId, className, content));
+        }
+
+        return batch;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(UTF_8);
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if(length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException(String.format("Invalid log batch string length %d.", length));
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Fails once more than the given number of bytes were read.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long max;
+
+        private long count;
+
+        private LimitedInputStream(InputStream in, long max) {
+            super(in);
+            this.max = max;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if(b >= 0) {
+                count(1);
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if(read > 0) {
+                count(read);
+            }
+
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+
+            return skipped;
+        }
+
+        private void count(long read) throws IOException {
+            count += read;
+
+            if(count > max) {
+                throw new IOException(String.format("Log batch larger than %d bytes.", max));
+            }
+        }
+    }
+}
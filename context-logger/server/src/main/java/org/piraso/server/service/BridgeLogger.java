@@ -15,6 +15,10 @@ public class BridgeLogger {
 
     private Long globalId;
 
+    private transient volatile Pattern watchedAddrPattern;
+
+    private transient String[] alternativeWatchedAddrs;
+
     public BridgeLogger() {
     }
 
@@ -26,14 +30,17 @@ public class BridgeLogger {
     }
 
     public boolean isWatched(String remoteAddr) {
-        Pattern watchedAddrPattern = Pattern.compile(watchedAddr);
-        String[] alternativeWatchedAddrs = AlternativeWatchedAddressProviderManager.INSTANCE.getAlternatives(watchedAddr);
+        Pattern pattern = watchedAddrPattern;
+        if(pattern == null) {
+            alternativeWatchedAddrs = AlternativeWatchedAddressProviderManager.INSTANCE.getAlternatives(watchedAddr);
+            watchedAddrPattern = pattern = Pattern.compile(watchedAddr);
+        }
 
         if(watchedAddr.equals(remoteAddr)) {
             return true;
         }
 
-        if(watchedAddrPattern.matcher(remoteAddr).matches()) {
+        if(pattern.matcher(remoteAddr).matches()) {
             return true;
         }
 
@@ -62,6 +69,7 @@ public class BridgeLogger {
 
     public void setWatchedAddr(String watchedAddr) {
         this.watchedAddr = watchedAddr;
+        this.watchedAddrPattern = null;
     }
 
     public User getUser() {
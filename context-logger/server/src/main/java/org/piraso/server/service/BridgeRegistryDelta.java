@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change of the bridge registry pushed to bridged processes.
+ * <p>
+ * A snapshot delta replaces the whole registry, other deltas remove the given users and add or replace the given
+ * loggers. A delta without changes is a heartbeat.
+ */
+public class BridgeRegistryDelta {
+
+    private boolean snapshot;
+
+    private List<BridgeLogger> added;
+
+    private List<User> removed;
+
+    public BridgeRegistryDelta() {
+        added = new ArrayList<BridgeLogger>();
+        removed = new ArrayList<User>();
+    }
+
+    /**
+     * Computes the delta between two states of the registry, a logger of a user is replaced when its service
+     * instance changed.
+     *
+     * @param previous the previously sent user loggers
+     * @param current the current user loggers
+     * @param snapshot whether to send the whole current registry
+     * @return the delta
+     */
+    public static BridgeRegistryDelta diff(Map<User, ResponseLoggerService> previous, Map<User, ResponseLoggerService> current, boolean snapshot) {
+        BridgeRegistryDelta delta = new BridgeRegistryDelta();
+        delta.setSnapshot(snapshot);
+
+        if(!snapshot) {
+            for(User user : previous.keySet()) {
+                if(!current.containsKey(user)) {
+                    delta.removed.add(user);
+                }
+            }
+        }
+
+        for(Map.Entry<User, ResponseLoggerService> entry : current.entrySet()) {
+            if(snapshot || previous.get(entry.getKey()) != entry.getValue()) {
+                delta.added.add(new BridgeLogger(entry.getValue()));
+            }
+        }
+
+        return delta;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public List<BridgeLogger> getAdded() {
+        return added;
+    }
+
+    public void setAdded(List<BridgeLogger> added) {
+        this.added = added;
+    }
+
+    public List<User> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<User> removed) {
+        this.removed = removed;
+    }
+}
@@ -1,6 +1,5 @@
 package org.piraso.server.service;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.logging.Log;
 import org.piraso.api.PirasoLogger;
 import org.piraso.api.Preferences;
@@ -9,6 +8,8 @@ import org.piraso.server.PirasoRequest;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -21,11 +22,27 @@ public class DefaultUserRegistryImpl implements UserRegistry {
      */
     private final Lock lock = new ReentrantLock();
 
+    /**
+     * Signalled on every generation change.
+     */
+    private final Condition changed = lock.newCondition();
+
     /**
      * Contains the map of {@link User} and {@link ResponseLoggerService}.
      */
     private Map<User, ResponseLoggerService> userLoggerMap = Collections.synchronizedMap(new LinkedHashMap<User, ResponseLoggerService>(20));
 
+    /**
+     * Copy-on-write snapshot of the associated services indexed by watched address, rebuilt on every
+     * association change. Reading this is all it takes to find out that nobody is being watched.
+     */
+    private volatile WatcherIndex index = WatcherIndex.EMPTY;
+
+    /**
+     * Bumped after every {@link #index} rebuild.
+     */
+    private volatile long generation;
+
     /**
      * Retrieve all {@link org.piraso.api.Preferences} given the monitored address.
      *
@@ -34,15 +51,14 @@ public class DefaultUserRegistryImpl implements UserRegistry {
      * @throws java.io.IOException on io error
      */
     public List<Preferences> getContextPreferences(PirasoEntryPoint entryPoint) throws IOException {
-        List<Preferences> list = new LinkedList<Preferences>();
-
-        List<ResponseLoggerService> tmp = new ArrayList<ResponseLoggerService>(userLoggerMap.values());
-        for(ResponseLoggerService rl : tmp) {
-            Preferences preferences = rl.getPreferences();
-            if(rl.isAlive() && rl.isWatched(getMonitoredAddr(entryPoint)) &&
-                    preferences.isUrlAcceptable(entryPoint.getPath())) {
-                list.add(preferences);
-            }
+        List<ResponseLoggerService> loggers = getContextLoggers(entryPoint);
+        if(loggers.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Preferences> list = new ArrayList<Preferences>(loggers.size());
+        for(ResponseLoggerService rl : loggers) {
+            list.add(rl.getPreferences());
         }
 
         return list;
@@ -60,22 +76,68 @@ public class DefaultUserRegistryImpl implements UserRegistry {
      * @throws IOException on io error
      */
     public List<ResponseLoggerService> getContextLoggers(PirasoEntryPoint request) throws IOException {
-        List<ResponseLoggerService> list = new LinkedList<ResponseLoggerService>();
+        WatcherIndex snapshot = index;
+        if(snapshot.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ResponseLoggerService> list = null;
+        for(ResponseLoggerService rl : snapshot.getWatchers(getMonitoredAddr(request))) {
+            if(rl.isAlive() && rl.getPreferences().isUrlAcceptable(request.getPath())) {
+                if(list == null) {
+                    list = new ArrayList<ResponseLoggerService>(2);
+                }
 
-        List<ResponseLoggerService> tmp = new ArrayList<ResponseLoggerService>(userLoggerMap.values());
-        for(ResponseLoggerService rl : tmp) {
-            Preferences preferences = rl.getPreferences();
-            if(rl.isAlive() && rl.isWatched(getMonitoredAddr(request)) &&
-                    preferences.isUrlAcceptable(request.getPath())) {
                 list.add(rl);
             }
         }
 
-        return list;
+        return list != null ? list : Collections.<ResponseLoggerService>emptyList();
     }
 
     public void clear() {
-        userLoggerMap.clear();
+        lock.lock();
+
+        try {
+            userLoggerMap.clear();
+            rebuildIndex();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuildIndex() {
+        index = userLoggerMap.isEmpty() ? WatcherIndex.EMPTY : new WatcherIndex(new ArrayList<ResponseLoggerService>(userLoggerMap.values()));
+
+        // always publish the index before the generation
+        generation++;
+        changed.signalAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long awaitGeneration(long known, long timeout) throws InterruptedException {
+        lock.lock();
+
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+
+            while(generation == known && nanos > 0) {
+                nanos = changed.awaitNanos(nanos);
+            }
+
+            return generation;
+        } finally {
+            lock.unlock();
+        }
     }
 
     private String getMonitoredAddr(PirasoEntryPoint request) {
@@ -83,7 +145,7 @@ public class DefaultUserRegistryImpl implements UserRegistry {
     }
 
     public boolean isWatched(PirasoEntryPoint request) throws IOException {
-        return CollectionUtils.isNotEmpty(getContextLoggers(request));
+        return !index.isEmpty() && !getContextLoggers(request).isEmpty();
     }
 
     public boolean isUserExist(User user) {
@@ -141,6 +203,7 @@ public class DefaultUserRegistryImpl implements UserRegistry {
             service.addStopListener(new StoppedLoggerHandler());
 
             userLoggerMap.put(user, service);
+            rebuildIndex();
         } finally {
             lock.unlock();
         }
@@ -162,6 +225,7 @@ public class DefaultUserRegistryImpl implements UserRegistry {
                 stopServiceIfExist(user);
 
                 userLoggerMap.remove(user);
+                rebuildIndex();
             }
         } finally {
             lock.unlock();
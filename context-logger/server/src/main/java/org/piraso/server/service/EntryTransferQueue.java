@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import org.piraso.api.entry.Entry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock free entry queue used by {@link ResponseLoggerServiceImpl} to hand entries from the logging threads
+ * to the writer thread.
+ * <p>
+ * Entries are stored in a ring buffer where each slot carries a sequence number, this allows any number of threads
+ * to offer and poll without locking. When the queue reaches its maximum size the configured {@link OverflowPolicy}
+ * is applied and each entry that was not accepted is counted as dropped.
+ */
+public class EntryTransferQueue {
+
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+
+    public static final long DEFAULT_BLOCK_TIMEOUT = 1000l;
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AtomicReferenceArray<Entry> buffer;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final int maxSize;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong sampled = new AtomicLong();
+
+    private final OverflowPolicy policy;
+
+    private int sampleRate = DEFAULT_SAMPLE_RATE;
+
+    private long blockTimeout = DEFAULT_BLOCK_TIMEOUT;
+
+    public EntryTransferQueue(int maxSize, OverflowPolicy policy) {
+        if(maxSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid max size '%d'.", maxSize));
+        }
+
+        int capacity = Integer.highestOneBit(maxSize);
+        if(capacity < maxSize) {
+            capacity <<= 1;
+        }
+
+        this.maxSize = maxSize;
+        this.policy = policy;
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<Entry>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+
+        for(int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Sets the sample rate used by {@link OverflowPolicy#SAMPLE}.
+     *
+     * @param sampleRate accept one entry out of this number of entries
+     */
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * Sets the maximum time in milliseconds a logging thread waits for room when using {@link OverflowPolicy#BLOCK}.
+     *
+     * @param blockTimeout the block timeout
+     */
+    public void setBlockTimeout(long blockTimeout) {
+        this.blockTimeout = blockTimeout;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * The number of entries not accepted by this queue because of overflow.
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Offers the entry to this queue applying the overflow policy when the queue is full.
+     *
+     * @param entry the entry to queue
+     * @return {@code true} if the entry was queued, {@code false} if it was dropped
+     */
+    public boolean offer(Entry entry) {
+        switch (policy) {
+            case FORCE_KILL:
+                if(size() + 1 >= maxSize) {
+                    return drop();
+                }
+
+                break;
+            case DROP_OLDEST:
+                while(size() >= maxSize) {
+                    if(poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+
+                break;
+            case DROP_NEWEST:
+                if(size() >= maxSize) {
+                    return drop();
+                }
+
+                break;
+            case SAMPLE:
+                int size = size();
+
+                if(size >= maxSize) {
+                    return drop();
+                } else if(size >= maxSize / 2 && sampled.getAndIncrement() % sampleRate != 0) {
+                    return drop();
+                }
+
+                break;
+            case BLOCK:
+                if(!awaitRoom()) {
+                    return drop();
+                }
+
+                break;
+        }
+
+        return tryOffer(entry) || drop();
+    }
+
+    private boolean drop() {
+        dropped.incrementAndGet();
+
+        return false;
+    }
+
+    private boolean awaitRoom() {
+        if(size() < maxSize) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+
+        while(size() >= maxSize) {
+            if(System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+
+        return true;
+    }
+
+    private boolean tryOffer(Entry entry) {
+        long pos = tail.get();
+
+        while(true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+
+            if(diff == 0) {
+                if(tail.compareAndSet(pos, pos + 1)) {
+                    buffer.set(index, entry);
+                    sequences.set(index, pos + 1);
+
+                    return true;
+                }
+            } else if(diff < 0) {
+                // ring buffer is full
+                return false;
+            }
+
+            pos = tail.get();
+        }
+    }
+
+    /**
+     * Retrieves and removes the oldest entry.
+     *
+     * @return the oldest entry or {@code null} if no entry is available
+     */
+    public Entry poll() {
+        long pos = head.get();
+
+        while(true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+
+            if(diff == 0) {
+                if(head.compareAndSet(pos, pos + 1)) {
+                    Entry entry = buffer.get(index);
+
+                    buffer.set(index, null);
+                    sequences.set(index, pos + mask + 1);
+
+                    return entry;
+                }
+            } else if(diff < 0) {
+                // no entry was published yet
+                return null;
+            }
+
+            pos = head.get();
+        }
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+
+        if(size < 0) {
+            return 0;
+        }
+
+        return (int) Math.min(size, mask + 1);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
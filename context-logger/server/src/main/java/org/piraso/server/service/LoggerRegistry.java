@@ -28,4 +28,13 @@ public interface LoggerRegistry {
      */
     List<ResponseLoggerService> getContextLoggers(PirasoEntryPoint request) throws IOException;
 
+    /**
+     * Retrieve the generation of the registered watchers, this changes whenever a watcher is added or removed.
+     * Results of {@link #getContextPreferences(PirasoEntryPoint)} and {@link #getContextLoggers(PirasoEntryPoint)}
+     * may be reused as long as the generation did not change.
+     *
+     * @return the current generation
+     */
+    long getGeneration();
+
 }
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import org.apache.commons.lang.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerConfigurationException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@link ResponseLoggerServiceImpl} instances with a fixed number of writer threads instead of one blocked
+ * thread per service.
+ * <p>
+ * A registered service is drained by one of the pool threads whenever entries are logged or the service is stopped,
+ * at most one thread drains a given service at a time. All services are also drained on every sweep so idle
+ * timeouts are detected.
+ * <p>
+ * Writes to the response are blocking, a watcher that stops reading holds its drain thread until the container
+ * write fails. A sweep that finds a drain running for longer than the {@link #setWriteTimeout(long) write timeout}
+ * force stops the service and adds a thread to the pool in place of the blocked one, so other services keep being
+ * drained. The extra thread is removed once the blocked drain returns.
+ */
+public class LoggerWriterPool {
+
+    private static final Log LOG = LogFactory.getLog(LoggerWriterPool.class);
+
+    public static final int DEFAULT_THREADS = 2;
+
+    public static final long DEFAULT_SWEEP_INTERVAL = 1000l;
+
+    public static final long DEFAULT_WRITE_TIMEOUT = 10000l;
+
+    private static final int ACTIVE = 0;
+
+    private static final int EVICTED = 1;
+
+    private static final int FINISHED = 2;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private volatile long writeTimeout = DEFAULT_WRITE_TIMEOUT;
+
+    private final AtomicInteger stalledCount = new AtomicInteger();
+
+    private final Set<Sink> sinks = Collections.newSetFromMap(new ConcurrentHashMap<Sink, Boolean>());
+
+    public LoggerWriterPool() {
+        this(DEFAULT_THREADS, DEFAULT_SWEEP_INTERVAL);
+    }
+
+    public LoggerWriterPool(int threads, long sweepInterval) {
+        Validate.isTrue(threads > 0, "threads should be greater than zero.");
+
+        executor = new ScheduledThreadPoolExecutor(threads, new WriterThreadFactory());
+        executor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                long now = System.currentTimeMillis();
+
+                for(Sink sink : sinks) {
+                    if(sink.isStalled(now)) {
+                        evict(sink);
+                    } else {
+                        sink.schedule();
+                    }
+                }
+            }
+        }, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The maximum time a single drain may take before its service is considered stalled.
+     *
+     * @param writeTimeout the timeout in milliseconds
+     */
+    public void setWriteTimeout(long writeTimeout) {
+        Validate.isTrue(writeTimeout > 0, "writeTimeout should be greater than zero.");
+        this.writeTimeout = writeTimeout;
+    }
+
+    public long getWriteTimeout() {
+        return writeTimeout;
+    }
+
+    /**
+     * Starts streaming the entries of the given service without blocking the caller.
+     *
+     * @param service the service to drive
+     * @param onFinish invoked once the service stopped and its response was closed, may be {@code null}
+     * @throws IOException on io error
+     * @throws TransformerConfigurationException on transformer error
+     * @throws ParserConfigurationException on parser error
+     */
+    public void register(ResponseLoggerServiceImpl service, Runnable onFinish) throws IOException, TransformerConfigurationException, ParserConfigurationException {
+        service.open();
+
+        Sink sink = new Sink(service, onFinish);
+        sinks.add(sink);
+        service.setWriterSignal(sink.signal);
+
+        sink.schedule();
+    }
+
+    /**
+     * The number of services currently driven by this pool.
+     *
+     * @return the active service count
+     */
+    public int getActiveCount() {
+        return sinks.size();
+    }
+
+    /**
+     * The number of evicted services whose drain is still blocked, each one has a replacement thread.
+     *
+     * @return the stalled service count
+     */
+    public int getStalledCount() {
+        return stalledCount.get();
+    }
+
+    /**
+     * Stops a stalled service and replaces the thread blocked writing its response.
+     *
+     * @param sink the stalled sink
+     */
+    private void evict(Sink sink) {
+        // the blocked drain may return meanwhile, only one of evict and finish owns the sink
+        if(!sink.state.compareAndSet(ACTIVE, EVICTED)) {
+            return;
+        }
+
+        sinks.remove(sink);
+        stalledCount.incrementAndGet();
+        resize(1);
+
+        sink.service.forceStop(String.format("Write timeout '%d' was reached.", writeTimeout));
+        LOG.warn(String.format("Service '%s' evicted, a write took more than '%d' ms.", sink.service.getId(), writeTimeout));
+
+        // finishes once the blocked drain returns, or right away when it already returned
+        sink.schedule();
+    }
+
+    private synchronized void resize(int delta) {
+        executor.setCorePoolSize(executor.getCorePoolSize() + delta);
+    }
+
+    /**
+     * Stops all driven services and the writer threads.
+     */
+    public void shutdown() {
+        for(Sink sink : sinks) {
+            try {
+                sink.service.stop();
+            } catch (IOException e) {
+                LOG.warn(e.getMessage(), e);
+            }
+        }
+
+        executor.shutdown();
+    }
+
+    private class Sink implements Runnable {
+
+        private final ResponseLoggerServiceImpl service;
+
+        private final Runnable onFinish;
+
+        /**
+         * Raised while a drain is queued or running.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * Start time of the running drain, {@code 0} when not draining.
+         */
+        private volatile long drainStarted;
+
+        /**
+         * {@link #ACTIVE}, {@link #EVICTED} or {@link #FINISHED}, decides whether an eviction or the finish owns
+         * the thread accounting.
+         */
+        private final AtomicInteger state = new AtomicInteger(ACTIVE);
+
+        private final Runnable signal = new Runnable() {
+            public void run() {
+                schedule();
+            }
+        };
+
+        private Sink(ResponseLoggerServiceImpl service, Runnable onFinish) {
+            this.service = service;
+            this.onFinish = onFinish;
+        }
+
+        private void schedule() {
+            if(scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private boolean isStalled(long now) {
+            long started = drainStarted;
+
+            return started != 0 && now - started > writeTimeout;
+        }
+
+        public void run() {
+            boolean alive;
+
+            drainStarted = System.currentTimeMillis();
+            try {
+                alive = service.drain();
+            } catch (Exception e) {
+                LOG.warn(e.getMessage(), e);
+                alive = false;
+            } finally {
+                drainStarted = 0;
+            }
+
+            if(!alive) {
+                // scheduled stays raised, this service is never drained again
+                finish();
+                return;
+            }
+
+            scheduled.set(false);
+
+            // entries logged while draining could not schedule, nor could an eviction
+            if(service.isDrainPending() || state.get() == EVICTED) {
+                schedule();
+            }
+        }
+
+        private void finish() {
+            int previous = state.getAndSet(FINISHED);
+
+            if(previous == FINISHED) {
+                return;
+            }
+
+            sinks.remove(this);
+
+            if(previous == EVICTED) {
+                // the blocked thread is back
+                stalledCount.decrementAndGet();
+                resize(-1);
+            }
+
+            try {
+                service.finish();
+            } catch (Exception e) {
+                LOG.warn(e.getMessage(), e);
+            } finally {
+                if(onFinish != null) {
+                    onFinish.run();
+                }
+            }
+        }
+    }
+
+    private static class WriterThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "piraso-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
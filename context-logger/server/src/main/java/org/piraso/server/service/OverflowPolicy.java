@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+/**
+ * Determines what the {@link EntryTransferQueue} does when a new entry arrives while the queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * The service owning the queue is forced stopped.
+     */
+    FORCE_KILL,
+
+    /**
+     * The oldest queued entry is dropped to make room for the new entry.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The new entry is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Once the queue is half full only one out of every sample rate entries is accepted, the rest are dropped.
+     */
+    SAMPLE,
+
+    /**
+     * The logging thread waits for room up to the block timeout, the new entry is dropped when the timeout is reached.
+     */
+    BLOCK
+}
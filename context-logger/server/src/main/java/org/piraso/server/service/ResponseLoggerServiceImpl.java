@@ -18,7 +18,6 @@
 
 package org.piraso.server.service;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
@@ -27,9 +26,11 @@ import org.codehaus.jackson.map.ObjectMapper;
 import org.piraso.api.GeneralPreferenceEnum;
 import org.piraso.api.JacksonUtils;
 import org.piraso.api.LongIDGenerator;
+import org.piraso.api.PirasoConstants;
 import org.piraso.api.Preferences;
 import org.piraso.api.entry.Entry;
 import org.piraso.api.entry.EntryUtils;
+import org.piraso.api.entry.RawEntry;
 import org.piraso.api.io.PirasoEntryWriter;
 import org.piraso.server.IOUtils;
 import org.piraso.server.PirasoRequest;
@@ -39,9 +40,6 @@ import javax.swing.event.EventListenerList;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerConfigurationException;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -55,7 +53,7 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
     private static final Log LOG = LogFactory.getLog(ResponseLoggerServiceImpl.class);
 
     /**
-     * If queue size reaches this size, the service will auto stop.
+     * If queue size reaches this size, the {@link #overflowPolicy} is applied.
      */
     private static final int DEFAULT_MAX_QUEUE_FORCE_KILL_SIZE = 2000;
 
@@ -64,6 +62,19 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
      */
     private static final long DEFAULT_MAX_IDLE_TIME_OUT = 60 * 60 * 1000;
 
+    /**
+     * By default each entry is flushed as soon as it is written.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 1;
+
+    private static final long DEFAULT_BATCH_TIME_OUT = 0l;
+
+    /**
+     * Maximum number of batches written per {@link #drain()} so a busy service does not starve the others sharing
+     * the same {@link LoggerWriterPool}.
+     */
+    private static final int MAX_DRAIN_BATCHES = 16;
+
     /**
      * The response content type.
      */
@@ -75,7 +86,7 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
     /**
      * The transfer queue. This holds the queue which will be streamed to response writer.
      */
-    private List<Entry> transferQueue = Collections.synchronizedList(new LinkedList<Entry>());
+    private volatile EntryTransferQueue transferQueue;
 
     /**
      * The user which monitors.
@@ -110,7 +121,7 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
     /**
      * Determines whether the service is still active or not.
      */
-    private boolean alive = true;
+    private volatile boolean alive = true;
 
     /**
      * The user logging preference.
@@ -126,12 +137,27 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
     /**
      * Reason why service was forced stopped.
      */
-    private String forcedStoppedReason;
+    private volatile String forcedStoppedReason;
 
     /**
      * Determines whether the service was force stopped.
      */
-    private boolean forcedStopped = false;
+    private volatile boolean forcedStopped = false;
+
+    /**
+     * Determines whether the writer thread is waiting for entries.
+     */
+    private volatile boolean waiting = false;
+
+    /**
+     * Invoked on new entries instead of waking up a waiting writer thread when driven by a {@link LoggerWriterPool}.
+     */
+    private volatile Runnable writerSignal;
+
+    /**
+     * Time of the last write when driven by a {@link LoggerWriterPool}, used to compute the idle time.
+     */
+    private long lastActivityTime;
 
     /**
      * maximum idle timeout
@@ -139,10 +165,36 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
     private long maxIdleTimeout = DEFAULT_MAX_IDLE_TIME_OUT;
 
     /**
-     * maximum transfer queue force stopped size
+     * maximum transfer queue size
      */
     private int maxQueueForceKillSize = DEFAULT_MAX_QUEUE_FORCE_KILL_SIZE;
 
+    /**
+     * what to do when the transfer queue is full
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.FORCE_KILL;
+
+    private int overflowSampleRate = EntryTransferQueue.DEFAULT_SAMPLE_RATE;
+
+    private long overflowBlockTimeout = EntryTransferQueue.DEFAULT_BLOCK_TIMEOUT;
+
+    /**
+     * maximum number of entries written before the response writer is flushed
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * maximum time in milliseconds to wait for more entries before the response writer is flushed
+     */
+    private long batchTimeout = DEFAULT_BATCH_TIME_OUT;
+
+    private BatchStatistics batchStatistics = new BatchStatistics();
+
+    /**
+     * whether entries are streamed using the binary framing instead of xml
+     */
+    private boolean binaryFormat;
+
     private long globalId;
 
     private ObjectMapper mapper;
@@ -167,6 +219,7 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
         this.response = response;
         this.mapper = JacksonUtils.createMapper();
         this.globalId = ID_GENERATOR.next();
+        this.transferQueue = createTransferQueue();
     }
 
     /**
@@ -179,12 +232,105 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
     }
 
     /**
-     * Sets the maximum transfer queue size before the service will be forced stopped.
+     * Sets the maximum transfer queue size. When reached the {@link OverflowPolicy} is applied, by default the
+     * service will be forced stopped.
      *
      * @param maxQueueForceKillSize the maximum transfer queue size
      */
     public void setMaxQueueForceKillSize(int maxQueueForceKillSize) {
         this.maxQueueForceKillSize = maxQueueForceKillSize;
+        this.transferQueue = createTransferQueue();
+    }
+
+    /**
+     * Sets what to do when the transfer queue is full.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        this.transferQueue = createTransferQueue();
+    }
+
+    /**
+     * Sets the sample rate used by {@link OverflowPolicy#SAMPLE}.
+     *
+     * @param overflowSampleRate accept one entry out of this number of entries
+     */
+    public void setOverflowSampleRate(int overflowSampleRate) {
+        this.overflowSampleRate = overflowSampleRate;
+        this.transferQueue = createTransferQueue();
+    }
+
+    /**
+     * Sets the maximum time in milliseconds a logging thread waits when using {@link OverflowPolicy#BLOCK}.
+     *
+     * @param overflowBlockTimeout the block timeout
+     */
+    public void setOverflowBlockTimeout(long overflowBlockTimeout) {
+        this.overflowBlockTimeout = overflowBlockTimeout;
+        this.transferQueue = createTransferQueue();
+    }
+
+    /**
+     * Sets the maximum number of entries written in one burst before the response writer is flushed.
+     *
+     * @param batchSize the maximum batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Sets the maximum time in milliseconds to wait for more entries before the response writer is flushed.
+     *
+     * @param batchTimeout the batch timeout
+     */
+    public void setBatchTimeout(long batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
+    /**
+     * The batch size and flush latency statistics of this service writer.
+     *
+     * @return the batch statistics
+     */
+    public BatchStatistics getBatchStatistics() {
+        return batchStatistics;
+    }
+
+    /**
+     * Sets whether entries are streamed using the binary framing, only for clients requesting it.
+     *
+     * @param binaryFormat {@code true} for binary, {@code false} for xml
+     */
+    public void setBinaryFormat(boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
+
+    public boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * The number of entries dropped because the transfer queue was full.
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return transferQueue.getDroppedCount();
+    }
+
+    private EntryTransferQueue createTransferQueue() {
+        EntryTransferQueue queue = new EntryTransferQueue(maxQueueForceKillSize, overflowPolicy);
+        queue.setSampleRate(overflowSampleRate);
+        queue.setBlockTimeout(overflowBlockTimeout);
+
+        return queue;
     }
 
     /**
@@ -253,54 +399,185 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
      * {@inheritDoc}
      */
     public void start() throws IOException, TransformerConfigurationException, ParserConfigurationException {
-        response.setContentType(RESPONSE_CONTENT_TYPE);
-        response.setCharacterEncoding("UTF-8");
-
         try {
-            writer = new PirasoEntryWriter(getId(), getWatchedAddr(), response.getWriter());
-
+            open();
             doLogWhileAlive();
         } finally {
-            synchronized (this) {
-                IOUtils.closeQuitely(writer);
-                notifyAll();
+            close();
+        }
+    }
+
+    /**
+     * Prepares the response for streaming the entries.
+     *
+     * @throws IOException on io error
+     * @throws TransformerConfigurationException on transformer error
+     * @throws ParserConfigurationException on parser error
+     */
+    void open() throws IOException, TransformerConfigurationException, ParserConfigurationException {
+        if(binaryFormat) {
+            response.setContentType(PirasoConstants.BINARY_CONTENT_TYPE);
+            writer = new PirasoEntryWriter(getId(), getWatchedAddr(), response.getOutputStream());
+        } else {
+            response.setContentType(RESPONSE_CONTENT_TYPE);
+            response.setCharacterEncoding("UTF-8");
+            writer = new PirasoEntryWriter(getId(), getWatchedAddr(), response.getWriter());
+        }
+
+        writer.setAutoFlush(false);
+        lastActivityTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Closes the response writer and wakes up threads waiting for this service to stop.
+     *
+     * @throws IOException on io error
+     */
+    private void close() throws IOException {
+        synchronized (this) {
+            IOUtils.closeQuitely(writer);
+            notifyAll();
+        }
+
+        if(getDroppedCount() > 0) {
+            LOG.info(String.format("Service '%s' dropped '%d' entries using overflow policy '%s'.",
+                    getId(), getDroppedCount(), overflowPolicy));
+        }
+
+        if(LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Service '%s' writer statistics: %s.", getId(), batchStatistics));
+        }
+    }
+
+    /**
+     * Non blocking counterpart of {@link #doLogWhileAlive()}, writes the queued entries without waiting for more.
+     * This also computes the idle time, which when exceeded force stops the service.
+     *
+     * @return {@code true} while the service is alive
+     * @throws ForcedStoppedException on forced stopped.
+     */
+    boolean drain() throws ForcedStoppedException {
+        if(isAlive()) {
+            int written = 0;
+
+            for(int i = 0; i < MAX_DRAIN_BATCHES && !isForcedStopped(); i++) {
+                int count = writeBatch(0);
+                if(count == 0) {
+                    break;
+                }
+
+                written += count;
+            }
+
+            long now = System.currentTimeMillis();
+            if(written > 0) {
+                lastActivityTime = now;
+            } else if(now - lastActivityTime >= maxIdleTimeout) {
+                forcedStoppedReason = String.format("Idle timeout '%d' was reached.", maxIdleTimeout);
+                forcedStopped = true;
             }
+
+            throwWhenForcedStopped();
+        }
+
+        return isAlive();
+    }
+
+    /**
+     * Determines whether a {@link #drain()} has work to do.
+     *
+     * @return {@code true} when there are queued entries or the service was stopped
+     */
+    boolean isDrainPending() {
+        return !transferQueue.isEmpty() || !alive || forcedStopped;
+    }
+
+    /**
+     * Ends a service driven by a {@link LoggerWriterPool}, the counterpart of the end of {@link #start()}.
+     *
+     * @throws IOException on io error
+     */
+    void finish() throws IOException {
+        try {
+            fireStopEvent(new StopLoggerEvent(this));
+        } finally {
+            close();
         }
     }
 
+    /**
+     * Force stops this service without waiting for its writer, no more entries are queued.
+     *
+     * @param reason the forced stop reason
+     */
+    void forceStop(String reason) {
+        forcedStoppedReason = reason;
+        forcedStopped = true;
+        alive = false;
+    }
+
+    void setWriterSignal(Runnable writerSignal) {
+        this.writerSignal = writerSignal;
+    }
+
     /**
      * Wait for {@code 1800000l} millis if not interrupted for a log. This will ensure that the owning thread will idle
      * when the {@link #transferQueue} is empty.
      * <p>
      * This is also responsible for computing for the idle time, which when the idle time exceeds the limit
      * {@link #DEFAULT_MAX_IDLE_TIME_OUT} the service will forced stopped.
+     * <p>
+     * The {@link #waiting} flag is raised before checking the queue so that a logging thread either sees the flag
+     * and notifies, or the writer sees the new entry.
      *
      * @throws IOException on io error
      */
     private void waitWhileNoEntryOrTimedOut() throws IOException {
-        if(transferQueue.isEmpty()) {
-            long start = System.currentTimeMillis();
-
-            try {
-                long timeout = 1800000l;
+        long timeout = 1800000l;
 
-                if(timeout >= maxIdleTimeout) {
-                    timeout = maxIdleTimeout;
-                }
+        if(timeout >= maxIdleTimeout) {
+            timeout = maxIdleTimeout;
+        }
 
-                wait(timeout);
-            } catch (InterruptedException ignored) {}
+        long idle = awaitEntry(timeout);
 
+        if(idle >= 0) {
             // compute for idle time
-            currentIdleTime += System.currentTimeMillis() - start;
+            currentIdleTime += idle;
 
             if(currentIdleTime >= maxIdleTimeout) {
-                forcedStopped = true;
                 forcedStoppedReason = String.format("Idle timeout '%d' was reached.", maxIdleTimeout);
+                forcedStopped = true;
             }
         }
     }
 
+    /**
+     * Wait up to the given timeout when the {@link #transferQueue} is empty.
+     *
+     * @param timeout the wait timeout in milliseconds
+     * @return the time waited in milliseconds or {@code -1} if there was no need to wait
+     */
+    private synchronized long awaitEntry(long timeout) {
+        waiting = true;
+
+        try {
+            if(!transferQueue.isEmpty() || !alive || forcedStopped) {
+                return -1;
+            }
+
+            long start = System.currentTimeMillis();
+
+            try {
+                wait(timeout);
+            } catch (InterruptedException ignored) {}
+
+            return System.currentTimeMillis() - start;
+        } finally {
+            waiting = false;
+        }
+    }
+
     /**
      * Throws a {@link ForcedStoppedException} when forced stopped.
      *
@@ -314,43 +591,109 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
     }
 
     /**
-     * Empty the transfer queue and write to response stream writer. This will also reset the {@link #currentIdleTime}
-     * to {@code 0}.
+     * Empty the transfer queue and write to response stream writer in batches.
      */
     private void writeAllTransfer() {
-        while(CollectionUtils.isNotEmpty(transferQueue) && !isForcedStopped()) {
-            try {
-                Entry entry = transferQueue.remove(0);
+        while(!isForcedStopped() && writeBatch(batchTimeout) > 0) {
+            // keep writing while there are entries
+        }
+    }
 
-                // only do this for no id request
-                // clone and set request id to global id
-                if(preferences.isEnabled(GeneralPreferenceEnum.NO_REQUEST_CONTEXT.getPropertyName())) {
-                    entry.setRequestId(globalId);
+    /**
+     * Writes up to {@link #batchSize} entries, waiting up to the given timeout for more entries once the
+     * queue is drained, then flush the response writer once.
+     *
+     * @param timeout the maximum time to wait for more entries
+     * @return the number of entries written
+     */
+    private int writeBatch(long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+        int count = 0;
+
+        while(count < batchSize && !isForcedStopped()) {
+            Entry entry = transferQueue.poll();
+
+            if(entry == null) {
+                long remaining = deadline - System.currentTimeMillis();
+
+                if(count == 0 || remaining <= 0 || (awaitEntry(remaining) < 0 && transferQueue.isEmpty())) {
+                    break;
                 }
 
-                writer.write(entry);
-                currentIdleTime = 0;
-            } catch (Exception e) {
-                LOG.warn(e.getMessage(), e);
+                continue;
+            }
+
+            writeEntry(entry);
+            count++;
+        }
+
+        if(count > 0) {
+            long start = System.nanoTime();
+            writer.flush();
+
+            batchStatistics.record(count, System.nanoTime() - start);
+        }
+
+        return count;
+    }
+
+    /**
+     * Write the entry to response stream writer. This will also reset the {@link #currentIdleTime} to {@code 0}.
+     *
+     * @param entry the entry to write
+     */
+    private void writeEntry(Entry entry) {
+        try {
+            // only do this for no id request
+            // set request id to global id, encoded entries are shared so a copy is used
+            if(preferences.isEnabled(GeneralPreferenceEnum.NO_REQUEST_CONTEXT.getPropertyName())) {
+                if(RawEntry.class.isInstance(entry)) {
+                    RawEntry raw = (RawEntry) entry;
+                    entry = new RawEntry(globalId, raw.getRawClassName(), raw.getRawContent());
+                } else {
+                    entry.setRequestId(globalId);
+                }
             }
+
+            writer.write(entry);
+            currentIdleTime = 0;
+        } catch (Exception e) {
+            LOG.warn(e.getMessage(), e);
         }
     }
 
     /**
-     * Ensure to wait and do log while still not stopped or was forced to stop.
+     * Ensure to wait and do log while still not stopped or was forced to stop. The service monitor is only held
+     * while waiting, logging threads never wait for the writer.
      *
      * @throws IOException on io error
      */
     private void doLogWhileAlive() throws IOException {
-        synchronized (this) {
-            try {
-                while(isAlive()) {
-                    waitWhileNoEntryOrTimedOut();
-                    writeAllTransfer();
-                    throwWhenForcedStopped();
-                }
-            } finally {
-                fireStopEvent(new StopLoggerEvent(this));
+        try {
+            while(isAlive()) {
+                waitWhileNoEntryOrTimedOut();
+                writeAllTransfer();
+                throwWhenForcedStopped();
+            }
+        } finally {
+            fireStopEvent(new StopLoggerEvent(this));
+        }
+    }
+
+    /**
+     * Wakes up the writer thread if it is waiting for entries, or signals the {@link LoggerWriterPool} driving
+     * this service.
+     */
+    private void signalWriter() {
+        Runnable signal = writerSignal;
+        if(signal != null) {
+            signal.run();
+            return;
+        }
+
+        if(waiting) {
+            synchronized (this) {
+                notifyAll();
             }
         }
     }
@@ -363,6 +706,8 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
             alive = false;
             notifyAll();
         }
+
+        signalWriter();
     }
 
     /**
@@ -386,22 +731,25 @@ public class ResponseLoggerServiceImpl implements ResponseLoggerService {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Encoded {@link RawEntry} snapshots are queued as is, any other entry is cloned since the caller may still
+     * modify it.
      */
     public void log(Entry entry) throws IOException {
-        synchronized (this) {
-            Validate.notNull(entry.getRequestId(), "Entry id should not be null.");
+        Validate.notNull(entry.getRequestId(), "Entry id should not be null.");
 
-            if(transferQueue.size() + 1 >= maxQueueForceKillSize) {
-                forcedStopped = true;
-                forcedStoppedReason = String.format("Max queue force kill size '%d' was reached.", maxQueueForceKillSize);
-                notifyAll();
+        if(!RawEntry.class.isInstance(entry)) {
+            entry = EntryUtils.cloneEntry(entry);
+        }
 
-                return;
-            }
+        EntryTransferQueue queue = transferQueue;
 
-            transferQueue.add(EntryUtils.cloneEntry(entry));
-            notifyAll();
+        if(!queue.offer(entry) && queue.getPolicy() == OverflowPolicy.FORCE_KILL) {
+            forcedStoppedReason = String.format("Max queue force kill size '%d' was reached.", maxQueueForceKillSize);
+            forcedStopped = true;
         }
+
+        signalWriter();
     }
 
     /**
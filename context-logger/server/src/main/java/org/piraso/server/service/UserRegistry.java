@@ -46,4 +46,14 @@ public interface UserRegistry extends LoggerRegistry {
     void associate(User user, ResponseLoggerService service) throws IOException;
 
     void removeUser(User user) throws IOException;
+
+    /**
+     * Waits until the generation differs from the known one.
+     *
+     * @param known the known generation
+     * @param timeout the maximum time to wait in milliseconds
+     * @return the current generation, still the known one on timeout
+     * @throws InterruptedException when interrupted while waiting
+     */
+    long awaitGeneration(long known, long timeout) throws InterruptedException;
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable snapshot of the associated {@link ResponseLoggerService} instances indexed by watched address.
+ * <p>
+ * Plain watched addresses (and their alternatives) are resolved with a single map lookup. Watched addresses
+ * which are regular expressions are precompiled and only evaluated when at least one such watcher exists.
+ * Dots in plain addresses are treated literally.
+ */
+final class WatcherIndex {
+
+    public static final WatcherIndex EMPTY = new WatcherIndex(Collections.<ResponseLoggerService>emptyList());
+
+    private static final Pattern LITERAL_ADDRESS = Pattern.compile("[\\w.:%\\-]+");
+
+    private final List<Watcher> watchers;
+
+    private final Map<String, List<ResponseLoggerService>> exact;
+
+    private final boolean hasPatterns;
+
+    WatcherIndex(Collection<ResponseLoggerService> services) {
+        List<Watcher> tmpWatchers = new ArrayList<Watcher>(services.size());
+        Map<String, List<ResponseLoggerService>> tmpExact = new HashMap<String, List<ResponseLoggerService>>();
+        boolean tmpHasPatterns = false;
+
+        for(ResponseLoggerService service : services) {
+            Watcher watcher = new Watcher(service);
+            tmpWatchers.add(watcher);
+
+            if(watcher.addresses != null) {
+                for(String address : watcher.addresses) {
+                    List<ResponseLoggerService> list = tmpExact.get(address);
+                    if(list == null) {
+                        list = new ArrayList<ResponseLoggerService>(2);
+                        tmpExact.put(address, list);
+                    }
+
+                    if(!list.contains(service)) {
+                        list.add(service);
+                    }
+                }
+            } else {
+                tmpHasPatterns = true;
+            }
+        }
+
+        this.watchers = tmpWatchers;
+        this.exact = tmpExact;
+        this.hasPatterns = tmpHasPatterns;
+    }
+
+    public boolean isEmpty() {
+        return watchers.isEmpty();
+    }
+
+    /**
+     * Retrieves the services watching the given remote address, in association order.
+     *
+     * @param remoteAddr the remote address
+     * @return the watching services, never {@code null}
+     */
+    public List<ResponseLoggerService> getWatchers(String remoteAddr) {
+        if(!hasPatterns) {
+            List<ResponseLoggerService> list = exact.get(remoteAddr);
+            return list != null ? list : Collections.<ResponseLoggerService>emptyList();
+        }
+
+        List<ResponseLoggerService> list = new ArrayList<ResponseLoggerService>(2);
+        for(Watcher watcher : watchers) {
+            if(watcher.isWatched(remoteAddr)) {
+                list.add(watcher.service);
+            }
+        }
+
+        return list;
+    }
+
+    private static final class Watcher {
+
+        private final ResponseLoggerService service;
+
+        /**
+         * Exact addresses watched, {@code null} when the watched address is not a plain address.
+         */
+        private final Set<String> addresses;
+
+        private final String watchedAddr;
+
+        private final Pattern pattern;
+
+        private final String[] alternatives;
+
+        private Watcher(ResponseLoggerService service) {
+            this.service = service;
+            this.watchedAddr = service.getWatchedAddr();
+
+            if(watchedAddr != null && LITERAL_ADDRESS.matcher(watchedAddr).matches()) {
+                addresses = new HashSet<String>();
+                addresses.add(watchedAddr);
+                addresses.addAll(Arrays.asList(AlternativeWatchedAddressProviderManager.INSTANCE.getAlternatives(watchedAddr)));
+
+                pattern = null;
+                alternatives = null;
+            } else {
+                addresses = null;
+                pattern = compile(watchedAddr);
+                alternatives = watchedAddr != null ? AlternativeWatchedAddressProviderManager.INSTANCE.getAlternatives(watchedAddr) : null;
+            }
+        }
+
+        private static Pattern compile(String watchedAddr) {
+            if(watchedAddr == null) {
+                return null;
+            }
+
+            try {
+                return Pattern.compile(watchedAddr);
+            } catch(PatternSyntaxException e) {
+                return null;
+            }
+        }
+
+        private boolean isWatched(String remoteAddr) {
+            if(addresses != null) {
+                return addresses.contains(remoteAddr);
+            }
+
+            if(pattern == null) {
+                // nothing to precompile, let the service decide
+                return service.isWatched(remoteAddr);
+            }
+
+            if(remoteAddr == null) {
+                return false;
+            }
+
+            if(watchedAddr.equals(remoteAddr) || pattern.matcher(remoteAddr).matches()) {
+                return true;
+            }
+
+            for(String alternative : alternatives) {
+                if(alternative.equals(remoteAddr)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
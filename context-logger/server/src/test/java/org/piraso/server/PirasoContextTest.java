@@ -23,12 +23,15 @@ import org.piraso.api.Level;
 import org.piraso.api.LongIDGenerator;
 import org.piraso.api.entry.Entry;
 import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.RawEntry;
 import org.piraso.server.service.DefaultUserRegistryImpl;
 import org.piraso.server.service.ResponseLoggerService;
 import org.piraso.server.service.User;
 import org.piraso.server.service.UserRegistry;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.springframework.mock.web.MockHttpServletRequest;
 
@@ -174,8 +177,8 @@ public class PirasoContextTest {
 
         context.log(Level.get("varyingProperty"), id, entry);
 
-        verify(service, times(1)).log(entry);
-        verify(service2, times(0)).log(entry);
+        verify(service, times(1)).log(encoded(entry));
+        verify(service2, times(0)).log(encoded(entry));
     }
 
     @Test
@@ -190,8 +193,8 @@ public class PirasoContextTest {
 
         context.log(null, id, entry);
 
-        verify(registry.getLogger(user), times(1)).log(entry);
-        verify(registry.getLogger(user2), times(1)).log(entry);
+        verify(registry.getLogger(user), times(1)).log(encoded(entry));
+        verify(registry.getLogger(user2), times(1)).log(encoded(entry));
     }
 
     @Test
@@ -209,8 +212,8 @@ public class PirasoContextTest {
 
         context.log(Level.SCOPED, id, entry);
 
-        verify(service, times(0)).log(entry);
-        verify(service2, times(1)).log(entry);
+        verify(service, times(0)).log(encoded(entry));
+        verify(service2, times(1)).log(encoded(entry));
     }
 
     @Test
@@ -234,13 +237,13 @@ public class PirasoContextTest {
 
         context.log(Level.SCOPED, id, entry);
 
-        verify(service, times(0)).log(entry);
-        verify(service2, times(1)).log(entry);
+        verify(service, times(0)).log(encoded(entry));
+        verify(service2, times(1)).log(encoded(entry));
 
         context.log(null, id, entry);
 
-        verify(service, times(2)).log(entry);
-        verify(service2, times(2)).log(entry);
+        verify(service, times(2)).log(encoded(entry));
+        verify(service2, times(2)).log(encoded(entry));
     }
 
     @Test
@@ -267,9 +270,67 @@ public class PirasoContextTest {
         context.log(Level.SCOPED, id, entry);
 
         // all should be invoked since all are non-scoped aware
-        verify(service, times(1)).log(entry);
-        verify(service2, times(1)).log(entry);
-        verify(service3, times(1)).log(entry);
+        verify(service, times(1)).log(encoded(entry));
+        verify(service2, times(1)).log(encoded(entry));
+        verify(service3, times(1)).log(encoded(entry));
+    }
+
+    @Test
+    public void testLogEncodedOnce() throws Exception {
+        User user = associateUser(request);
+
+        MockHttpServletRequest request2 = mockRequest(MONITORED_ADDR);
+        User user2 = associateUser(request2);
+
+        context.log(Level.ALL, new GroupChainId("test"), new MessageEntry("test"));
+
+        ArgumentCaptor<Entry> captor = ArgumentCaptor.forClass(Entry.class);
+        ArgumentCaptor<Entry> captor2 = ArgumentCaptor.forClass(Entry.class);
+
+        verify(registry.getLogger(user)).log(captor.capture());
+        verify(registry.getLogger(user2)).log(captor2.capture());
+
+        // all loggers share the same encoded entry
+        assertTrue(RawEntry.class.isInstance(captor.getValue()));
+        assertSame(captor.getValue(), captor2.getValue());
+        assertEquals(context.getRequestId(), captor.getValue().getRequestId());
+        assertTrue(((RawEntry) captor.getValue()).getRawContent().contains("\"message\":\"test\""));
+    }
+
+    @Test
+    public void testRegistryResolvedOncePerGeneration() throws Exception {
+        User user = associateUser(request);
+        ResponseLoggerService service = registry.getLogger(user);
+
+        for(int i = 0; i < 5; i++) {
+            context.log(Level.ALL, new GroupChainId("test"), new MessageEntry("test" + i));
+        }
+
+        assertFalse(context.isEnabled("any property"));
+
+        verify(service, times(5)).log(Matchers.<Entry>any());
+        verify(registry, times(1)).getContextPreferences(pirasoRequest);
+        verify(registry, times(1)).getContextLoggers(pirasoRequest);
+
+        // a new watcher invalidates the resolved loggers
+        MockHttpServletRequest request2 = mockRequest(MONITORED_ADDR);
+        User user2 = associateUser(request2);
+
+        context.createChildContext(new GroupChainId("child")).log(Level.ALL, new GroupChainId("test"), new MessageEntry("test"));
+
+        verify(registry.getLogger(user2), times(1)).log(Matchers.<Entry>any());
+        verify(registry, times(2)).getContextPreferences(pirasoRequest);
+        verify(registry, times(2)).getContextLoggers(pirasoRequest);
+    }
+
+    private static Entry encoded(final Entry entry) {
+        return argThat(new ArgumentMatcher<Entry>() {
+            @Override
+            public boolean matches(Object argument) {
+                return RawEntry.class.isInstance(argument) &&
+                        entry.getClass().getName().equals(((RawEntry) argument).getRawClassName());
+            }
+        });
     }
 
     private User associateUser(MockHttpServletRequest request) throws IOException {
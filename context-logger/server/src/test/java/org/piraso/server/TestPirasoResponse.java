@@ -20,6 +20,7 @@ package org.piraso.server;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 
 /**
@@ -43,4 +44,8 @@ public class TestPirasoResponse implements PirasoResponse{
     public PrintWriter getWriter() throws IOException {
         return response.getWriter();
     }
+
+    public OutputStream getOutputStream() throws IOException {
+        return response.getOutputStream();
+    }
 }
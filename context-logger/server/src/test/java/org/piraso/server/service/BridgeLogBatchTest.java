@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.RawEntry;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Test for {@link BridgeLogBatch} class.
+ */
+public class BridgeLogBatchTest {
+
+    @Test
+    public void testReadWrite() throws Exception {
+        User user = new User("127.0.0.1", "uuid");
+        BridgeLogBatch batch = new BridgeLogBatch(user);
+
+        batch.add(new MessageEntry(1l, "été"));
+        batch.add(new RawEntry(null, "a.b.C", "{}"));
+
+        BridgeLogBatch actual = BridgeLogBatch.read(new ByteArrayInputStream(batch.toByteArray()));
+
+        assertEquals(user, actual.getUser());
+        assertEquals(2, actual.size());
+        assertEquals(Long.valueOf(1l), actual.getEntries().get(0).getRequestId());
+        assertEquals(MessageEntry.class.getName(), actual.getEntries().get(0).getRawClassName());
+        assertEquals(batch.getEntries().get(0).getRawContent(), actual.getEntries().get(0).getRawContent());
+        assertNull(actual.getEntries().get(1).getRequestId());
+        assertEquals("a.b.C", actual.getEntries().get(1).getRawClassName());
+        assertEquals("{}", actual.getEntries().get(1).getRawContent());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidBatch() throws Exception {
+        BridgeLogBatch.read(new ByteArrayInputStream(new byte[] {1, 2, 3}));
+    }
+
+    @Test(expected = IOException.class)
+    public void testStringLengthLimit() throws Exception {
+        // a few bytes declaring a 2 GB user string
+        BridgeLogBatch.read(new ByteArrayInputStream(forge(Integer.MAX_VALUE)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testEntryCountLimit() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes));
+
+        out.writeInt(0x50524C42);
+        out.writeInt(2);
+        out.write("{}".getBytes("UTF-8"));
+        out.writeInt(BridgeLogBatch.MAX_ENTRIES + 1);
+        out.close();
+
+        BridgeLogBatch.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testSizeLimit() throws Exception {
+        BridgeLogBatch batch = new BridgeLogBatch(new User("127.0.0.1", "uuid"));
+
+        for(int i = 0; i < 100; i++) {
+            batch.add(new MessageEntry(1l, "message " + i));
+        }
+
+        BridgeLogBatch.read(new ByteArrayInputStream(batch.toByteArray()), 1024);
+    }
+
+    private static byte[] forge(int length) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes));
+
+        out.writeInt(0x50524C42);
+        out.writeInt(length);
+        out.close();
+
+        return bytes.toByteArray();
+    }
+}
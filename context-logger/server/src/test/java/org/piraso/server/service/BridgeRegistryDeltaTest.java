@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.server.service;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Mockito.doReturn;
+import static org.piraso.server.CommonMockObjects.createUser;
+import static org.piraso.server.CommonMockObjects.mockService;
+
+/**
+ * Test for {@link BridgeRegistryDelta} class.
+ */
+public class BridgeRegistryDeltaTest {
+
+    @Test
+    public void testDiff() throws Exception {
+        User removed = createUser("127.0.0.1", "a1");
+        User kept = createUser("127.0.0.1", "a2");
+        User replaced = createUser("127.0.0.1", "a3");
+        User added = createUser("127.0.0.1", "a4");
+
+        ResponseLoggerService keptService = service(kept);
+
+        Map<User, ResponseLoggerService> previous = new HashMap<User, ResponseLoggerService>();
+        previous.put(removed, service(removed));
+        previous.put(kept, keptService);
+        previous.put(replaced, service(replaced));
+
+        Map<User, ResponseLoggerService> current = new HashMap<User, ResponseLoggerService>();
+        current.put(kept, keptService);
+        current.put(replaced, service(replaced));
+        current.put(added, service(added));
+
+        BridgeRegistryDelta delta = BridgeRegistryDelta.diff(previous, current, false);
+
+        assertFalse(delta.isSnapshot());
+        assertEquals(1, delta.getRemoved().size());
+        assertEquals(removed, delta.getRemoved().get(0));
+        assertEquals(2, delta.getAdded().size());
+
+        for(BridgeLogger logger : delta.getAdded()) {
+            assertTrue(logger.getUser().equals(replaced) || logger.getUser().equals(added));
+        }
+    }
+
+    @Test
+    public void testDiffSnapshot() throws Exception {
+        User user = createUser("127.0.0.1", "a1");
+        ResponseLoggerService service = service(user);
+
+        Map<User, ResponseLoggerService> current = new HashMap<User, ResponseLoggerService>();
+        current.put(user, service);
+
+        BridgeRegistryDelta delta = BridgeRegistryDelta.diff(current, current, true);
+
+        assertTrue(delta.isSnapshot());
+        assertTrue(delta.getRemoved().isEmpty());
+        assertEquals(1, delta.getAdded().size());
+        assertEquals(user, delta.getAdded().get(0).getUser());
+    }
+
+    private static ResponseLoggerService service(User user) {
+        ResponseLoggerService service = mockService(user.getRemoteAddr(), true);
+        doReturn(user).when(service).getUser();
+
+        return service;
+    }
+}
@@ -146,4 +146,101 @@ public class DefaultUserRegistryImplTest {
         assertEquals(1, registry.getContextPreferences(orig).size());
         assertEquals(1, registry.getContextLoggers(orig).size());
     }
+
+    @Test
+    public void testWatchedAddrPattern() throws Exception {
+        TestPirasoRequest request = mockPirasoRequest("test", "a1");
+
+        User user = registry.createOrGetUser(request);
+        ResponseLoggerService service = mockService("te.*", true);
+
+        registry.associate(user, service);
+
+        assertTrue(registry.isWatched(request));
+        assertTrue(registry.isWatched(mockPirasoRequest("test2")));
+        assertFalse(registry.isWatched(mockPirasoRequest("other")));
+
+        // exact watcher is still resolved alongside the pattern watcher
+        TestPirasoRequest request2 = mockPirasoRequest("test2", "a2");
+        registry.associate(registry.createOrGetUser(request2), mockService("test2", true));
+
+        assertEquals(2, registry.getContextLoggers(request2).size());
+        assertEquals(1, registry.getContextLoggers(request).size());
+    }
+
+    @Test
+    public void testAlternativeWatchedAddr() throws Exception {
+        TestPirasoRequest request = mockPirasoRequest("127.0.0.1", "a1");
+
+        User user = registry.createOrGetUser(request);
+        ResponseLoggerService service = mockService(request.getRemoteAddr(), true);
+
+        registry.associate(user, service);
+
+        assertTrue(registry.isWatched(request));
+        assertTrue(registry.isWatched(mockPirasoRequest("0:0:0:0:0:0:0:1%0")));
+        assertFalse(registry.isWatched(mockPirasoRequest("127.0.0.2")));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        TestPirasoRequest request = mockPirasoRequest("test", "a1");
+
+        User user = registry.createOrGetUser(request);
+        registry.associate(user, mockService(request.getRemoteAddr(), true));
+
+        assertTrue(registry.isWatched(request));
+
+        ((DefaultUserRegistryImpl) registry).clear();
+
+        assertFalse(registry.isUserExist(user));
+        assertFalse(registry.isWatched(request));
+        assertTrue(registry.getContextLoggers(request).isEmpty());
+    }
+
+    @Test
+    public void testGeneration() throws Exception {
+        TestPirasoRequest request = mockPirasoRequest("test", "a1");
+        long generation = registry.getGeneration();
+
+        User user = registry.createOrGetUser(request);
+        registry.associate(user, mockService(request.getRemoteAddr(), true));
+
+        assertTrue(registry.getGeneration() > generation);
+        generation = registry.getGeneration();
+
+        // lookups do not change the generation
+        registry.getContextLoggers(request);
+        assertEquals(generation, registry.getGeneration());
+
+        registry.removeUser(user);
+        assertTrue(registry.getGeneration() > generation);
+    }
+
+    @Test
+    public void testAwaitGeneration() throws Exception {
+        final TestPirasoRequest request = mockPirasoRequest("test", "a1");
+        long generation = registry.getGeneration();
+
+        // times out without changes
+        assertEquals(generation, registry.awaitGeneration(generation, 10));
+
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(50);
+
+                    User user = registry.createOrGetUser(request);
+                    registry.associate(user, mockService(request.getRemoteAddr(), true));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        thread.start();
+
+        assertTrue(registry.awaitGeneration(generation, 5000) > generation);
+        thread.join();
+    }
 }
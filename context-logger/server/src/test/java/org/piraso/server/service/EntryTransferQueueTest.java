@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import org.junit.Test;
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.MessageEntry;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Test for {@link EntryTransferQueue} class.
+ */
+public class EntryTransferQueueTest {
+
+    @Test
+    public void testOfferAndPoll() throws Exception {
+        EntryTransferQueue queue = new EntryTransferQueue(10, OverflowPolicy.DROP_NEWEST);
+
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        for(int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(new MessageEntry(1l, "message_" + i)));
+        }
+
+        assertEquals(5, queue.size());
+
+        for(int i = 0; i < 5; i++) {
+            assertEquals("message_" + i, ((MessageEntry) queue.poll()).getMessage());
+        }
+
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testForceKill() throws Exception {
+        EntryTransferQueue queue = new EntryTransferQueue(2, OverflowPolicy.FORCE_KILL);
+
+        assertTrue(queue.offer(new MessageEntry(1l, "message_1")));
+        assertFalse(queue.offer(new MessageEntry(1l, "message_2")));
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        EntryTransferQueue queue = new EntryTransferQueue(3, OverflowPolicy.DROP_NEWEST);
+
+        for(int i = 0; i < 5; i++) {
+            queue.offer(new MessageEntry(1l, "message_" + i));
+        }
+
+        assertEquals(3, queue.size());
+        assertEquals(2, queue.getDroppedCount());
+        assertEquals("message_0", ((MessageEntry) queue.poll()).getMessage());
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        EntryTransferQueue queue = new EntryTransferQueue(3, OverflowPolicy.DROP_OLDEST);
+
+        for(int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(new MessageEntry(1l, "message_" + i)));
+        }
+
+        assertEquals(3, queue.size());
+        assertEquals(2, queue.getDroppedCount());
+        assertEquals("message_2", ((MessageEntry) queue.poll()).getMessage());
+    }
+
+    @Test
+    public void testSample() throws Exception {
+        EntryTransferQueue queue = new EntryTransferQueue(100, OverflowPolicy.SAMPLE);
+        queue.setSampleRate(10);
+
+        for(int i = 0; i < 150; i++) {
+            queue.offer(new MessageEntry(1l, "message_" + i));
+        }
+
+        // first 50 entries accepted, 1 in 10 of the next 100
+        assertEquals(60, queue.size());
+        assertEquals(90, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testBlockTimeout() throws Exception {
+        EntryTransferQueue queue = new EntryTransferQueue(1, OverflowPolicy.BLOCK);
+        queue.setBlockTimeout(50l);
+
+        assertTrue(queue.offer(new MessageEntry(1l, "message_1")));
+
+        long start = System.currentTimeMillis();
+        assertFalse(queue.offer(new MessageEntry(1l, "message_2")));
+
+        assertTrue(System.currentTimeMillis() - start >= 50l);
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testBlockUntilPolled() throws Exception {
+        final EntryTransferQueue queue = new EntryTransferQueue(1, OverflowPolicy.BLOCK);
+        queue.setBlockTimeout(10000l);
+        queue.offer(new MessageEntry(1l, "message_1"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(50l);
+                } catch (InterruptedException ignored) {}
+
+                queue.poll();
+            }
+        });
+
+        assertTrue(queue.offer(new MessageEntry(1l, "message_2")));
+        assertEquals(0, queue.getDroppedCount());
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final int producers = 4;
+        final int count = 10000;
+        final EntryTransferQueue queue = new EntryTransferQueue(producers * count, OverflowPolicy.DROP_NEWEST);
+        final CountDownLatch latch = new CountDownLatch(producers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for(int p = 0; p < producers; p++) {
+            final long requestId = p;
+
+            executor.submit(new Runnable() {
+                public void run() {
+                    for(int i = 0; i < count; i++) {
+                        queue.offer(new MessageEntry(requestId, String.valueOf(i)));
+                    }
+
+                    latch.countDown();
+                }
+            });
+        }
+
+        Set<String> polled = new HashSet<String>();
+        while(polled.size() < producers * count) {
+            Entry entry = queue.poll();
+
+            if(entry != null) {
+                assertTrue(polled.add(entry.getRequestId() + ":" + ((MessageEntry) entry).getMessage()));
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getDroppedCount());
+
+        executor.shutdown();
+    }
+}
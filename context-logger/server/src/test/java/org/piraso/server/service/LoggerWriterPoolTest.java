@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.service;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.piraso.api.JacksonUtils;
+import org.piraso.api.Preferences;
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.io.EntryReadAdapter;
+import org.piraso.api.io.EntryReadEvent;
+import org.piraso.api.io.PirasoEntryReader;
+import org.piraso.server.PirasoResponse;
+import org.piraso.server.TestPirasoRequest;
+import org.piraso.server.TestPirasoResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test for {@link LoggerWriterPool} class.
+ */
+public class LoggerWriterPoolTest {
+
+    private LoggerWriterPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new LoggerWriterPool(2, 50l);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testManyServicesFewThreads() throws Exception {
+        int size = 20;
+        List<ResponseLoggerServiceImpl> services = new ArrayList<ResponseLoggerServiceImpl>();
+        List<MockHttpServletResponse> responses = new ArrayList<MockHttpServletResponse>();
+        final CountDownLatch finished = new CountDownLatch(size);
+
+        for(int i = 0; i < size; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            ResponseLoggerServiceImpl service = createService(response);
+
+            pool.register(service, new Runnable() {
+                public void run() {
+                    finished.countDown();
+                }
+            });
+
+            services.add(service);
+            responses.add(response);
+        }
+
+        assertEquals(size, pool.getActiveCount());
+
+        for(int i = 0; i < 100; i++) {
+            for(ResponseLoggerServiceImpl service : services) {
+                service.log(new MessageEntry(1l, "test" + i));
+            }
+        }
+
+        for(ResponseLoggerServiceImpl service : services) {
+            service.stopAndWait(5000l);
+            assertFalse(service.isAlive());
+        }
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(0, pool.getActiveCount());
+
+        // the entries logged before stop are not guaranteed to be written, but the response is complete
+        for(MockHttpServletResponse response : responses) {
+            assertTrue(read(response).size() <= 100);
+        }
+    }
+
+    @Test
+    public void testEntriesWritten() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        final ResponseLoggerServiceImpl service = createService(response);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        pool.register(service, new Runnable() {
+            public void run() {
+                finished.countDown();
+            }
+        });
+
+        for(int i = 0; i < 100; i++) {
+            service.log(new MessageEntry(1l, "test" + i));
+        }
+
+        // wait till written
+        long deadline = System.currentTimeMillis() + 5000l;
+        while(service.getBatchStatistics().getEntryCount() < 100 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10l);
+        }
+
+        service.stop();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(100, read(response).size());
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        ResponseLoggerServiceImpl service = createService(new MockHttpServletResponse());
+        StopLoggerListener listener = mock(StopLoggerListener.class);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        service.setMaxIdleTimeout(100l);
+        service.addStopListener(listener);
+        pool.register(service, new Runnable() {
+            public void run() {
+                finished.countDown();
+            }
+        });
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertTrue(service.isForcedStopped());
+        assertFalse(service.isAlive());
+        verify(listener).stopped(Matchers.<StopLoggerEvent>any());
+    }
+
+    @Test
+    public void testStalledWriterEvicted() throws Exception {
+        LoggerWriterPool single = new LoggerWriterPool(1, 50l);
+        single.setWriteTimeout(200l);
+
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            BlockingWriter blocking = new BlockingWriter(release);
+            ResponseLoggerServiceImpl stalled = createService(new BlockingPirasoResponse(blocking));
+            ResponseLoggerServiceImpl healthy = createService(new MockHttpServletResponse());
+
+            final CountDownLatch stalledFinished = new CountDownLatch(1);
+            single.register(stalled, new Runnable() {
+                public void run() {
+                    stalledFinished.countDown();
+                }
+            });
+            single.register(healthy, null);
+
+            // the only writer thread blocks on the next flush, as if the watcher stopped reading
+            blocking.block();
+            stalled.log(new MessageEntry(1l, "stalled"));
+
+            for(int i = 0; i < 10; i++) {
+                healthy.log(new MessageEntry(1l, "test" + i));
+            }
+
+            long deadline = System.currentTimeMillis() + 5000l;
+            while(healthy.getBatchStatistics().getEntryCount() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10l);
+            }
+
+            assertEquals(10, healthy.getBatchStatistics().getEntryCount());
+            assertTrue(stalled.isForcedStopped());
+            assertEquals(1, single.getStalledCount());
+            assertEquals(1, single.getActiveCount());
+
+            release.countDown();
+
+            assertTrue(stalledFinished.await(5, TimeUnit.SECONDS));
+            assertEquals(0, single.getStalledCount());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    private ResponseLoggerServiceImpl createService(MockHttpServletResponse response) throws Exception {
+        return createService(new TestPirasoResponse(response));
+    }
+
+    private ResponseLoggerServiceImpl createService(PirasoResponse response) throws Exception {
+        ObjectMapper mapper = JacksonUtils.createMapper();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        TestPirasoRequest pirasoRequest = new TestPirasoRequest(request);
+
+        request.addParameter("watchedAddr", "127.0.0.1");
+        request.addParameter("preferences", mapper.writeValueAsString(new Preferences()));
+
+        return new ResponseLoggerServiceImpl(new User(pirasoRequest), pirasoRequest, response);
+    }
+
+    private List<Entry> read(MockHttpServletResponse response) throws Exception {
+        final List<Entry> entriesRead = new ArrayList<Entry>();
+        PirasoEntryReader reader = new PirasoEntryReader(new ByteArrayInputStream(response.getContentAsByteArray()));
+        reader.addListener(new EntryReadAdapter() {
+            @Override
+            public void readEntry(EntryReadEvent evt) {
+                entriesRead.add(evt.getEntry());
+            }
+        });
+
+        reader.start();
+
+        return entriesRead;
+    }
+
+    /**
+     * Writer whose flush never completes once blocking, until released.
+     */
+    private static class BlockingWriter extends StringWriter {
+
+        private final CountDownLatch release;
+
+        private volatile boolean blocking;
+
+        private BlockingWriter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        private void block() {
+            blocking = true;
+        }
+
+        @Override
+        public void flush() {
+            if(blocking) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static class BlockingPirasoResponse implements PirasoResponse {
+
+        private final PrintWriter writer;
+
+        private BlockingPirasoResponse(Writer writer) {
+            this.writer = new PrintWriter(writer);
+        }
+
+        public void setContentType(String contentType) {
+        }
+
+        public void setCharacterEncoding(String encoding) {
+        }
+
+        public PrintWriter getWriter() throws IOException {
+            return writer;
+        }
+
+        public OutputStream getOutputStream() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
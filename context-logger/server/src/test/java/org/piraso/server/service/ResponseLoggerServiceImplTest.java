@@ -20,6 +20,7 @@ package org.piraso.server.service;
 
 import org.piraso.api.GeneralPreferenceEnum;
 import org.piraso.api.JacksonUtils;
+import org.piraso.api.PirasoConstants;
 import org.piraso.api.Preferences;
 import org.piraso.api.entry.Entry;
 import org.piraso.api.entry.MessageEntry;
@@ -45,6 +46,7 @@ import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -133,6 +135,18 @@ public class ResponseLoggerServiceImplTest {
         service.start();
     }
 
+    @Test
+    public void testDropNewestOverflowPolicy() throws Exception {
+        service.setMaxQueueForceKillSize(2);
+        service.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+        service.log(new MessageEntry(1l, "test"));
+        service.log(new MessageEntry(1l, "test2"));
+        service.log(new MessageEntry(1l, "test3"));
+
+        assertFalse(service.isForcedStopped());
+        assertEquals(1, service.getDroppedCount());
+    }
+
     @Test
     public void testWaitAndStop() throws Exception {
         final AtomicBoolean fail = new AtomicBoolean(false);
@@ -247,12 +261,98 @@ public class ResponseLoggerServiceImplTest {
         assertEquals(expectedEntries.size(), entriesRead.size());
     }
 
+    @Test
+    public void testBatchedLogging() throws Exception {
+        service.setBatchSize(100);
+        service.setBatchTimeout(10l);
+
+        for(int i = 0; i < 1000; i++) {
+            service.log(new MessageEntry(1l, "test_" + (i + 1)));
+        }
+
+        // stop the service when all entries are written.
+        stopOnWriteTimes(1000);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future future = executor.submit(new Runnable() {
+            public void run() {
+                try {
+                    service.start();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        future.get();
+        executor.shutdown();
+
+        final List<Entry> entriesRead = new ArrayList<Entry>();
+        PirasoEntryReader reader = new PirasoEntryReader(new ByteArrayInputStream(response.getContentAsByteArray()));
+        reader.addListener(new EntryReadAdapter() {
+            @Override
+            public void readEntry(EntryReadEvent evt) {
+                entriesRead.add(evt.getEntry());
+            }
+        });
+
+        reader.start();
+
+        BatchStatistics statistics = service.getBatchStatistics();
+
+        assertEquals(1000, entriesRead.size());
+        assertEquals(1000, statistics.getEntryCount());
+        assertEquals(100, statistics.getMaxBatchSize());
+        assertEquals(10, statistics.getBatchCount());
+    }
+
     /**
      * Helper method to ensure that the service stops when number of logs is reached.
      *
      * @param count the log count before stop
      * @throws UnsupportedEncodingException on error
      */
+    @Test
+    public void testBinaryFormat() throws Exception {
+        service.setBinaryFormat(true);
+
+        for(int i = 0; i < 10; i++) {
+            service.log(new MessageEntry(1l, "test_" + i));
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> future = executor.submit(new Callable<Void>() {
+            public Void call() throws Exception {
+                service.start();
+                return null;
+            }
+        });
+
+        long deadline = System.currentTimeMillis() + 5000l;
+        while(service.getBatchStatistics().getEntryCount() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10l);
+        }
+
+        service.stop();
+        future.get();
+        executor.shutdown();
+
+        final List<Entry> entriesRead = new ArrayList<Entry>();
+        PirasoEntryReader reader = new PirasoEntryReader(new ByteArrayInputStream(response.getContentAsByteArray()));
+        reader.addListener(new EntryReadAdapter() {
+            @Override
+            public void readEntry(EntryReadEvent evt) {
+                entriesRead.add(evt.getEntry());
+            }
+        });
+
+        reader.start();
+
+        assertEquals(PirasoConstants.BINARY_CONTENT_TYPE, response.getContentType());
+        assertEquals(service.getId(), reader.getId());
+        assertEquals(10, entriesRead.size());
+    }
+
     private void stopOnWriteTimes(final int count) throws UnsupportedEncodingException {
         PrintWriter writer =  spy(response.getWriter());
         doReturn(writer).when(response).getWriter();
@@ -260,13 +360,13 @@ public class ResponseLoggerServiceImplTest {
 
         doAnswer(new Answer() {
             public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
-                if(ctr.addAndGet(1) > count) {
+                if(ctr.addAndGet(1) >= count) {
                     service.stop();
                 }
 
                 return invocationOnMock.callRealMethod();
             }
-        }).when(writer).println(anyString());
+        }).when(writer).println();
     }
 
     private class ExceptionThrowEntry extends Entry {
@@ -3,7 +3,9 @@ package org.piraso.server.bridge;
 import org.piraso.client.net.HttpPirasoTestHandler;
 import org.piraso.server.bridge.net.HttpPirasoGetBridgeRegistryHandler;
 import org.piraso.server.bridge.net.HttpPirasoIDRequestHandler;
+import org.piraso.server.bridge.net.HttpPirasoLogBatchHandler;
 import org.piraso.server.bridge.net.HttpPirasoLogHandler;
+import org.piraso.server.bridge.net.HttpPirasoWatchBridgeRegistryHandler;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -25,6 +27,13 @@ public class BridgeHttpHandlerFactory implements ApplicationContextAware {
         return handler;
     }
 
+    public HttpPirasoWatchBridgeRegistryHandler createWatchRegistryHandler() {
+        HttpPirasoWatchBridgeRegistryHandler handler = applicationContext.getBean(HttpPirasoWatchBridgeRegistryHandler.class);
+        initializer.init(handler);
+
+        return handler;
+    }
+
     public HttpPirasoIDRequestHandler createIDRequestHandler() {
         HttpPirasoIDRequestHandler handler = applicationContext.getBean(HttpPirasoIDRequestHandler.class);
         initializer.init(handler);
@@ -39,6 +48,13 @@ public class BridgeHttpHandlerFactory implements ApplicationContextAware {
         return handler;
     }
 
+    public HttpPirasoLogBatchHandler createLogBatchHandler() {
+        HttpPirasoLogBatchHandler handler = applicationContext.getBean(HttpPirasoLogBatchHandler.class);
+        initializer.init(handler);
+
+        return handler;
+    }
+
     public HttpPirasoTestHandler createTestHandler() {
         HttpPirasoTestHandler handler = applicationContext.getBean(HttpPirasoTestHandler.class);
         initializer.init(handler);
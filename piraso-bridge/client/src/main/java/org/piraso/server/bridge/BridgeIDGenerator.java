@@ -1,27 +1,217 @@
 package org.piraso.server.bridge;
 
-import org.piraso.api.NextGenerator;
+import org.apache.commons.lang.Validate;
+import org.apache.log4j.Logger;
+import org.piraso.api.ReservableIDGenerator;
 import org.piraso.server.bridge.net.HttpPirasoIDRequestHandler;
 import org.springframework.beans.factory.annotation.Required;
 
-public class BridgeIDGenerator implements NextGenerator<Long> {
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request ids of a bridged process, leased from the bridge server in blocks and handed out locally.
+ * <p>
+ * The next block is reserved in the background once the current one is {@link #PREFETCH_RATIO} used, so request
+ * creation normally never waits for the network. Failed reservations are retried and leasing stays on, only a
+ * bridge server answering that it does not know id reservation switches to one call per id.
+ */
+public class BridgeIDGenerator implements ReservableIDGenerator {
+
+    private static final Logger LOG = Logger.getLogger(BridgeIDGenerator.class);
+
+    public static final int DEFAULT_BLOCK_SIZE = 10000;
+
+    public static final double PREFETCH_RATIO = 0.8;
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    public static final long DEFAULT_RETRY_DELAY = 200l;
 
     private BridgeHttpHandlerFactory factory;
 
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+
+    private long retryDelay = DEFAULT_RETRY_DELAY;
+
+    private volatile Lease lease = new Lease(0, 0, 0);
+
+    private volatile boolean leasing = true;
+
+    private Future<Long> prefetched;
+
+    private ExecutorService executor;
+
     @Required
     public void setFactory(BridgeHttpHandlerFactory factory) {
         this.factory = factory;
     }
 
+    public void setBlockSize(int blockSize) {
+        Validate.isTrue(blockSize > 0, "blockSize should be greater than zero.");
+        this.blockSize = blockSize;
+    }
+
+    public void setRetryDelay(long retryDelay) {
+        Validate.isTrue(retryDelay >= 0, "retryDelay should not be negative.");
+        this.retryDelay = retryDelay;
+    }
+
     public Long next() {
+        while(leasing) {
+            Lease current = lease;
+            long id = current.next.getAndIncrement();
+
+            if(id < current.end) {
+                if(id == current.prefetchAt) {
+                    prefetch();
+                }
+
+                return id;
+            }
+
+            renew(current);
+        }
+
+        return request(null);
+    }
+
+    /**
+     * Replaces the exhausted lease, by the prefetched block when available.
+     *
+     * @param exhausted the exhausted lease
+     * @throws IllegalStateException when the bridge server could not be reached, leasing is tried again next call
+     */
+    private synchronized void renew(Lease exhausted) {
+        if(lease != exhausted || !leasing) {
+            // renewed by another thread
+            return;
+        }
+
+        Future<Long> future = prefetched;
+        prefetched = null;
+
+        Long start = null;
+
+        if(future != null) {
+            try {
+                start = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e.getMessage(), e);
+            } catch (ExecutionException e) {
+                LOG.warn(e.getMessage(), e.getCause());
+            }
+        }
+
+        if(start == null) {
+            start = reserveBlock();
+        }
+
+        if(start == null) {
+            LOG.warn("Bridge server does not support request id reservation, requesting ids one at a time.");
+            leasing = false;
+
+            return;
+        }
+
+        lease = new Lease(start, blockSize, start + (long) (blockSize * PREFETCH_RATIO));
+    }
+
+    private synchronized void prefetch() {
+        if(prefetched != null) {
+            return;
+        }
+
+        if(executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "piraso-bridge-id-prefetch");
+                    thread.setDaemon(true);
+
+                    return thread;
+                }
+            });
+        }
+
+        prefetched = executor.submit(new Callable<Long>() {
+            public Long call() throws Exception {
+                return request(blockSize);
+            }
+        });
+    }
+
+    /**
+     * Reserves the next block, retrying failed attempts.
+     *
+     * @return the first id of the block, {@code null} when the bridge server does not support reservation
+     */
+    private Long reserveBlock() {
+        for(int attempt = 1;; attempt++) {
+            try {
+                return request(blockSize);
+            } catch (IllegalStateException e) {
+                if(attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+
+                LOG.warn(String.format("Request id reservation failed, attempt %d of %d.", attempt, MAX_ATTEMPTS), e);
+            }
+
+            try {
+                Thread.sleep(retryDelay * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+    }
+
+    public long reserve(int count) {
+        Long start = request(count);
+
+        if(start == null) {
+            throw new UnsupportedOperationException("Bridge server does not support request id reservation.");
+        }
+
+        return start;
+    }
+
+    /**
+     * Requests a single id, or a range when {@code count} is given.
+     *
+     * @param count the number of ids to reserve, {@code null} for a single id
+     * @return the id, {@code null} when the bridge server does not support reservation
+     */
+    private Long request(Integer count) {
         HttpPirasoIDRequestHandler handler = factory.createIDRequestHandler();
+        handler.setCount(count);
 
         try {
             handler.execute();
-
-            return handler.getRequestID();
         } catch (Exception e) {
             throw new IllegalStateException(e.getMessage(), e);
         }
+
+        if(!handler.isSupported()) {
+            return null;
+        }
+
+        return handler.getRequestID();
+    }
+
+    private static final class Lease {
+
+        private final AtomicLong next;
+
+        private final long end;
+
+        private final long prefetchAt;
+
+        private Lease(long start, int size, long prefetchAt) {
+            this.next = new AtomicLong(start);
+            this.end = start + size;
+            this.prefetchAt = prefetchAt;
+        }
     }
 }
@@ -0,0 +1,224 @@
+package org.piraso.server.bridge;
+
+import org.apache.commons.lang.Validate;
+import org.apache.log4j.Logger;
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.EntryUtils;
+import org.piraso.api.entry.RawEntry;
+import org.piraso.server.bridge.net.HttpPirasoLogBatchHandler;
+import org.piraso.server.bridge.net.HttpPirasoLogHandler;
+import org.piraso.server.service.BridgeLogBatch;
+import org.piraso.server.service.User;
+import org.springframework.beans.factory.annotation.Required;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ships the entries logged in a bridged process to the bridge server from a background thread.
+ * <p>
+ * Logging threads only enqueue to a bounded buffer and never block, entries are dropped once the buffer is full.
+ * The shipping thread sends what accumulated while the previous batch was in flight as one compressed batch per
+ * user, reusing the kept alive connection of the shared http client. Bridge servers without the batch service get
+ * each entry posted on its own instead.
+ */
+public class BridgeLogShipper implements Runnable {
+
+    private static final Logger LOG = Logger.getLogger(BridgeLogShipper.class);
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final long POLL_TIMEOUT = 500l;
+
+    private BridgeHttpHandlerFactory factory;
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private BlockingQueue<Item> queue;
+
+    private Thread thread;
+
+    private volatile boolean running;
+
+    private volatile boolean batching = true;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Required
+    public void setFactory(BridgeHttpHandlerFactory factory) {
+        this.factory = factory;
+    }
+
+    public void setCapacity(int capacity) {
+        Validate.isTrue(capacity > 0, "capacity should be greater than zero.");
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param batchSize the maximum entries per shipped request, at most {@link BridgeLogBatch#MAX_ENTRIES}
+     */
+    public void setBatchSize(int batchSize) {
+        Validate.isTrue(batchSize > 0 && batchSize <= BridgeLogBatch.MAX_ENTRIES,
+                String.format("batchSize should be between 1 and %d.", BridgeLogBatch.MAX_ENTRIES));
+        this.batchSize = batchSize;
+    }
+
+    public synchronized void start() {
+        if(running) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<Item>(capacity);
+        running = true;
+
+        thread = new Thread(this, "piraso-bridge-shipper");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the shipping thread once the buffered entries are sent.
+     *
+     * @throws InterruptedException when interrupted while waiting for the thread
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        if(!running) {
+            return;
+        }
+
+        running = false;
+        thread.join();
+    }
+
+    /**
+     * Enqueues the entry without blocking.
+     *
+     * @param user the watching user
+     * @param entry the entry
+     * @return {@code false} when the buffer is full or the shipper not started, the entry is then dropped
+     * @throws IOException on entry encoding error
+     */
+    public boolean offer(User user, Entry entry) throws IOException {
+        // encoded right away as the entry may change once logged
+        if(!running || !queue.offer(new Item(user, EntryUtils.toRawEntry(entry)))) {
+            if(dropped.incrementAndGet() % capacity == 1) {
+                LOG.warn(String.format("Bridge log buffer full, %d entries dropped so far.", dropped.get()));
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return {@code false} once the bridge server rejected a batch, entries are then posted one at a time
+     */
+    public boolean isBatching() {
+        return batching;
+    }
+
+    public void run() {
+        List<Item> items = new ArrayList<Item>(batchSize);
+
+        while(running || !queue.isEmpty()) {
+            try {
+                Item first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+
+                items.add(first);
+                queue.drainTo(items, batchSize - 1);
+
+                ship(items);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                items.clear();
+            }
+        }
+    }
+
+    private void ship(List<Item> items) {
+        Map<User, BridgeLogBatch> batches = new LinkedHashMap<User, BridgeLogBatch>();
+
+        for(Item item : items) {
+            BridgeLogBatch batch = batches.get(item.user);
+            if(batch == null) {
+                batch = new BridgeLogBatch(item.user);
+                batches.put(item.user, batch);
+            }
+
+            batch.add(item.entry);
+        }
+
+        for(BridgeLogBatch batch : batches.values()) {
+            if(batching) {
+                try {
+                    HttpPirasoLogBatchHandler handler = factory.createLogBatchHandler();
+                    handler.setBatch(batch);
+                    handler.execute();
+
+                    if(handler.isSupported()) {
+                        continue;
+                    }
+
+                    LOG.warn("Bridge server does not support log batches, posting entries one at a time.");
+                    batching = false;
+                } catch (Exception e) {
+                    LOG.warn(e.getMessage(), e);
+                    continue;
+                }
+            }
+
+            post(batch);
+        }
+    }
+
+    /**
+     * Posts each entry of the batch on its own, for bridge servers without the batch service.
+     *
+     * @param batch the batch
+     */
+    private void post(BridgeLogBatch batch) {
+        for(RawEntry entry : batch.getEntries()) {
+            try {
+                HttpPirasoLogHandler handler = factory.createLogHandler();
+                handler.setEntry(entry);
+                handler.setUser(batch.getUser());
+                handler.execute();
+            } catch (Exception e) {
+                LOG.warn(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class Item {
+
+        private final User user;
+
+        private final RawEntry entry;
+
+        private Item(User user, RawEntry entry) {
+            this.user = user;
+            this.entry = entry;
+        }
+    }
+}
@@ -6,26 +6,80 @@ import org.apache.commons.logging.LogFactory;
 import org.piraso.api.Preferences;
 import org.piraso.server.PirasoEntryPoint;
 import org.piraso.server.bridge.net.HttpPirasoGetBridgeRegistryHandler;
+import org.piraso.server.bridge.net.HttpPirasoWatchBridgeRegistryHandler;
 import org.piraso.server.service.*;
 import org.springframework.beans.factory.annotation.Required;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local copy of the bridge server registry.
+ * <p>
+ * The registry is loaded on {@link #init()} and then kept in sync by the changes the bridge server pushes over a
+ * long lived stream, watch checks never leave the process.
+ */
 public class BridgeLoggerRegistryImpl implements LoggerRegistry {
 
     private static final Log LOG = LogFactory.getLog(BridgeLoggerRegistryImpl.class);
 
+    public static final long RECONNECT_DELAY = 5000l;
+
     private DefaultUserRegistryImpl registry = new DefaultUserRegistryImpl();
 
+    /**
+     * Generations handed out when the bridge registry is queried always, these never repeat.
+     */
+    private final AtomicLong uncachedGeneration = new AtomicLong();
+
     private BridgeHttpHandlerFactory factory;
 
+    private BridgeLogShipper shipper;
+
+    private volatile boolean watching;
+
+    private RegistryWatcher watcher;
+
     @Required
     public void setFactory(BridgeHttpHandlerFactory factory) {
         this.factory = factory;
     }
 
+    public void setShipper(BridgeLogShipper shipper) {
+        this.shipper = shipper;
+    }
+
     public void init() {
+        load();
+
+        synchronized (this) {
+            if(!watching) {
+                watching = true;
+                watcher = new RegistryWatcher();
+
+                Thread thread = new Thread(watcher, "piraso-bridge-registry");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Stops following the bridge server registry changes.
+     */
+    public synchronized void destroy() {
+        watching = false;
+
+        if(watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    private synchronized void load() {
         try {
             HttpPirasoGetBridgeRegistryHandler handler = factory.createGetRegistryHandler();
             handler.execute();
@@ -40,7 +94,7 @@ public class BridgeLoggerRegistryImpl implements LoggerRegistry {
                     LOG.debug(String.format("User - Remote Address: %s, ID: %s.", user.getRemoteAddr(), user.getActivityUuid()));
                 }
 
-                registry.associate(user, new BridgeLoggerServiceImpl(logger, factory));
+                registry.associate(user, new BridgeLoggerServiceImpl(logger, factory, shipper));
             }
 
             if(LOG.isDebugEnabled()) {
@@ -54,7 +108,36 @@ public class BridgeLoggerRegistryImpl implements LoggerRegistry {
 
     public void refreshLoggers() {
         if(BridgeConfig.INSTANCE.isQueryAlways()) {
-            init();
+            load();
+        }
+    }
+
+    /**
+     * Applies a pushed registry change, each associate or remove publishes a new watcher snapshot.
+     *
+     * @param delta the registry change
+     * @throws IOException on registry error
+     */
+    private synchronized void apply(BridgeRegistryDelta delta) throws IOException {
+        if(delta.isSnapshot()) {
+            Set<User> users = new HashSet<User>();
+            for(BridgeLogger logger : delta.getAdded()) {
+                users.add(logger.getUser());
+            }
+
+            for(User user : registry.getUserLoggerMap().keySet()) {
+                if(!users.contains(user)) {
+                    registry.removeUser(user);
+                }
+            }
+        }
+
+        for(User user : delta.getRemoved()) {
+            registry.removeUser(user);
+        }
+
+        for(BridgeLogger logger : delta.getAdded()) {
+            registry.associate(logger.getUser(), new BridgeLoggerServiceImpl(logger, factory, shipper));
         }
     }
 
@@ -62,6 +145,20 @@ public class BridgeLoggerRegistryImpl implements LoggerRegistry {
         return CollectionUtils.isNotEmpty(getContextLoggers(request));
     }
 
+    /**
+     * When the bridge registry is queried always the watchers may change on every call, so a new generation is
+     * returned every time.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        if(BridgeConfig.INSTANCE.isQueryAlways()) {
+            return -uncachedGeneration.incrementAndGet();
+        }
+
+        return registry.getGeneration();
+    }
+
     public List<Preferences> getContextPreferences(PirasoEntryPoint entryPoint) throws IOException {
         refreshLoggers();
 
@@ -73,4 +170,52 @@ public class BridgeLoggerRegistryImpl implements LoggerRegistry {
 
         return registry.getContextLoggers(request);
     }
+
+    /**
+     * Follows the registry change stream, reconnecting when it ends. Each connection starts with a snapshot so
+     * changes missed while disconnected are recovered.
+     */
+    private class RegistryWatcher implements Runnable, HttpPirasoWatchBridgeRegistryHandler.DeltaListener {
+
+        private volatile HttpPirasoWatchBridgeRegistryHandler handler;
+
+        public void deltaReceived(BridgeRegistryDelta delta) throws IOException {
+            apply(delta);
+        }
+
+        private void stop() {
+            HttpPirasoWatchBridgeRegistryHandler tmp = handler;
+
+            if(tmp != null) {
+                tmp.abort();
+            }
+        }
+
+        public void run() {
+            while(watching) {
+                try {
+                    handler = factory.createWatchRegistryHandler();
+                    handler.setListener(this);
+                    handler.execute();
+
+                    if(!handler.isSupported()) {
+                        LOG.warn("Bridge server does not push registry changes, the registry is only loaded once.");
+                        return;
+                    }
+                } catch (Exception e) {
+                    if(watching) {
+                        LOG.warn(e.getMessage(), e);
+                    }
+                } finally {
+                    handler = null;
+                }
+
+                try {
+                    Thread.sleep(RECONNECT_DELAY);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
 }
@@ -2,40 +2,63 @@ package org.piraso.server.bridge;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.piraso.api.GeneralPreferenceEnum;
-import org.piraso.api.JacksonUtils;
 import org.piraso.api.Preferences;
 import org.piraso.api.entry.Entry;
-import org.piraso.proxy.RegexMethodInterceptorAdapter;
-import org.piraso.proxy.RegexMethodInterceptorEvent;
-import org.piraso.proxy.RegexProxyFactory;
+import org.piraso.api.entry.EntryUtils;
+import org.piraso.api.entry.RawEntry;
 import org.piraso.server.bridge.net.HttpPirasoLogHandler;
 import org.piraso.server.service.*;
 
 import java.io.IOException;
-import java.io.StringWriter;
-import java.lang.reflect.Method;
 
-public class BridgeLoggerServiceImpl extends RegexMethodInterceptorAdapter<Preferences> implements ResponseLoggerService {
+public class BridgeLoggerServiceImpl implements ResponseLoggerService {
 
     private static final Log LOG = LogFactory.getLog(BridgeLoggerServiceImpl.class);
 
     private BridgeLogger logger;
 
-    private ObjectMapper mapper;
-
     private BridgeHttpHandlerFactory factory;
 
-    private RegexProxyFactory<Preferences> proxyFactory;
+    private BridgeLogShipper shipper;
+
+    /**
+     * The effective preferences, services are recreated on every registry update so this is computed once.
+     */
+    private Preferences preferences;
 
     public BridgeLoggerServiceImpl(BridgeLogger logger, BridgeHttpHandlerFactory factory) {
+        this(logger, factory, null);
+    }
+
+    /**
+     * @param logger the bridged logger
+     * @param factory the http handler factory
+     * @param shipper ships the logged entries in the background, {@code null} to post each entry when logged
+     */
+    public BridgeLoggerServiceImpl(BridgeLogger logger, BridgeHttpHandlerFactory factory, BridgeLogShipper shipper) {
         this.logger = logger;
         this.factory = factory;
-        mapper = JacksonUtils.MAPPER;
+        this.shipper = shipper;
+
+        this.preferences = createPreferences(logger.getPreferences());
+    }
+
+    /**
+     * When this process has a bridge identifier that the watcher did not enable through the
+     * {@code bridge.<identifier>} regex, nothing is logged and every boolean preference is {@code false}.
+     *
+     * @param preferences the watcher preferences
+     * @return the effective preferences
+     */
+    private static Preferences createPreferences(Preferences preferences) {
+        String identifier = BridgeConfig.INSTANCE.getIdentifier();
+
+        if(identifier == null || preferences == null || preferences.isRegexEnabled("bridge." + identifier)) {
+            return preferences;
+        }
 
-        proxyFactory = new RegexProxyFactory<Preferences>(Preferences.class);
-        proxyFactory.addMethodListener(".*", this);
+        return new DisabledPreferences(preferences);
     }
 
     public User getUser() {
@@ -59,7 +82,7 @@ public class BridgeLoggerServiceImpl extends RegexMethodInterceptorAdapter<Prefe
     }
 
     public Preferences getPreferences() {
-        return proxyFactory.getProxy(logger.getPreferences());
+        return preferences;
     }
 
     public void start() throws Exception {
@@ -81,11 +104,13 @@ public class BridgeLoggerServiceImpl extends RegexMethodInterceptorAdapter<Prefe
 
     public void log(Entry entry) throws IOException {
         if(getPreferences().isEnabled(GeneralPreferenceEnum.NO_REQUEST_CONTEXT.getPropertyName())) {
-            StringWriter writer = new StringWriter();
-            mapper.writeValue(writer, entry);
-            entry = mapper.readValue(writer.toString(), entry.getClass());
+            RawEntry raw = EntryUtils.toRawEntry(entry);
+            entry = new RawEntry(getGlobalId(), raw.getRawClassName(), raw.getRawContent());
+        }
 
-            entry.setRequestId(getGlobalId());
+        if(shipper != null) {
+            shipper.offer(getUser(), entry);
+            return;
         }
 
         try {
@@ -107,15 +132,30 @@ public class BridgeLoggerServiceImpl extends RegexMethodInterceptorAdapter<Prefe
     public void fireStopEvent(StopLoggerEvent event) {
     }
 
-    @Override
-    public void afterCall(RegexMethodInterceptorEvent<Preferences> evt) {
-        if(BridgeConfig.INSTANCE.getIdentifier() != null) {
-            boolean bridgeEnabled = logger.getPreferences().isRegexEnabled("bridge." + BridgeConfig.INSTANCE.getIdentifier());
-            Method method = evt.getInvocation().getMethod();
+    /**
+     * Preferences of a watcher that did not enable this bridged process, the integer properties still apply.
+     */
+    private static final class DisabledPreferences extends Preferences {
+
+        private DisabledPreferences(Preferences preferences) {
+            setBooleanProperties(preferences.getBooleanProperties());
+            setIntegerProperties(preferences.getIntegerProperties());
+            setUrlPatterns(preferences.getUrlPatterns());
+        }
+
+        @Override
+        public boolean isUrlAcceptable(String url) {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled(String property) {
+            return false;
+        }
 
-            if(method.getReturnType() == Boolean.TYPE && !bridgeEnabled) {
-                evt.setReturnedValue(false);
-            }
+        @Override
+        public boolean isRegexEnabled(String name) {
+            return false;
         }
     }
 }
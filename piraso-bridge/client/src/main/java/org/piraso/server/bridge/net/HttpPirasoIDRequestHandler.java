@@ -28,6 +28,10 @@ public class HttpPirasoIDRequestHandler extends AbstractHttpHandler {
 
     private Long requestID;
 
+    private Integer count;
+
+    private boolean supported = true;
+
     public HttpPirasoIDRequestHandler(HttpClient client, HttpContext context) {
         super(client, context);
     }
@@ -49,18 +53,31 @@ public class HttpPirasoIDRequestHandler extends AbstractHttpHandler {
         HttpPost post = new HttpPost(uri.getPath());
 
         List<NameValuePair> params = new ArrayList<NameValuePair>();
-        params.add(new BasicNameValuePair(SERVICE_PARAMETER, SERVICE_REQUEST_ID_PARAMETER_VALUE));
+
+        if(count != null) {
+            params.add(new BasicNameValuePair(SERVICE_PARAMETER, SERVICE_RESERVE_REQUEST_ID_PARAMETER_VALUE));
+            params.add(new BasicNameValuePair(REQUEST_ID_COUNT_PARAMETER, String.valueOf(count)));
+        } else {
+            params.add(new BasicNameValuePair(SERVICE_PARAMETER, SERVICE_REQUEST_ID_PARAMETER_VALUE));
+        }
 
         post.setEntity(new UrlEncodedFormEntity(params, ENCODING_UTF_8));
 
         HttpResponse response = client.execute(targetHost, post, context);
         StatusLine status = response.getStatusLine();
+        responseEntity = response.getEntity();
+
+        if(count != null && (status.getStatusCode() == HttpStatus.SC_BAD_REQUEST
+                || status.getStatusCode() == HttpStatus.SC_NOT_IMPLEMENTED)) {
+            // id reservation unknown to older bridge servers
+            supported = false;
+            return;
+        }
 
         if(status.getStatusCode() != HttpStatus.SC_OK) {
             throw new HttpPirasoException(status.toString());
         }
 
-        responseEntity = response.getEntity();
         String contentType = responseEntity.getContentType().getValue().toLowerCase();
 
         if(!contentType.contains(PLAIN_CONTENT_TYPE)) {
@@ -70,6 +87,24 @@ public class HttpPirasoIDRequestHandler extends AbstractHttpHandler {
         this.requestID = Long.valueOf(IOUtils.toString(responseEntity.getContent()));
     }
 
+    /**
+     * Reserves a range of ids instead of a single one, the returned id is then the first of the range.
+     *
+     * @param count the number of ids to reserve
+     */
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    /**
+     * Whether the bridge server answered the id reservation, {@code false} when it does not know the service.
+     *
+     * @return {@code true} when supported
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
     public Long getRequestID() {
         return requestID;
     }
@@ -0,0 +1,91 @@
+package org.piraso.server.bridge.net;
+
+import org.apache.commons.lang.Validate;
+import org.apache.http.*;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.piraso.client.net.AbstractHttpHandler;
+import org.piraso.client.net.HttpPirasoException;
+import org.piraso.server.service.BridgeLogBatch;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+
+import static org.piraso.api.PirasoConstants.*;
+
+/**
+ * Posts a {@link BridgeLogBatch} as a compressed request body.
+ */
+public class HttpPirasoLogBatchHandler extends AbstractHttpHandler {
+
+    private static final Logger LOG = Logger.getLogger(HttpPirasoLogBatchHandler.class);
+
+    private BridgeLogBatch batch;
+
+    private HttpEntity responseEntity;
+
+    private boolean supported = true;
+
+    public HttpPirasoLogBatchHandler(HttpClient client, HttpContext context) {
+        super(client, context);
+    }
+
+    public void setBatch(BridgeLogBatch batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * Whether the bridge server accepted the batch service, known once {@link #execute()} returned.
+     *
+     * @return {@code false} when the bridge server rejected the service, the batch was then not logged
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    @Override
+    public void execute() throws IOException, SAXException, ParserConfigurationException {
+        try {
+            doExecute();
+        } finally {
+            EntityUtils.consume(responseEntity);
+        }
+    }
+
+    private void doExecute() throws IOException, SAXException, ParserConfigurationException {
+        Validate.notNull(uri, "uri should not be null.");
+        Validate.notNull(batch, "batch should not be null.");
+
+        if(LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Executing %s with %d entries...", uri, batch.size()));
+        }
+
+        // the body is not form encoded, the service is passed in the query
+        HttpPost post = new HttpPost(String.format("%s?%s=%s", uri.getPath(), SERVICE_PARAMETER, SERVICE_LOG_BATCH_PARAMETER_VALUE));
+
+        ByteArrayEntity entity = new ByteArrayEntity(batch.toByteArray());
+        entity.setContentType(BATCH_CONTENT_TYPE);
+        post.setEntity(entity);
+
+        HttpResponse response = client.execute(targetHost, post, context);
+        StatusLine status = response.getStatusLine();
+
+        // consumed even on error so the kept alive connection is released
+        responseEntity = response.getEntity();
+
+        if(status.getStatusCode() == HttpStatus.SC_BAD_REQUEST || status.getStatusCode() == HttpStatus.SC_NOT_IMPLEMENTED) {
+            // service unknown to older bridge servers
+            supported = false;
+            return;
+        }
+
+        if(status.getStatusCode() != HttpStatus.SC_OK) {
+            throw new HttpPirasoException(status.toString());
+        }
+    }
+}
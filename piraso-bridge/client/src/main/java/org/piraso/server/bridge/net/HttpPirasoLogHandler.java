@@ -12,6 +12,8 @@ import org.apache.log4j.Logger;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.piraso.api.JacksonUtils;
 import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.EntryUtils;
+import org.piraso.api.entry.RawEntry;
 import org.piraso.client.net.AbstractHttpHandler;
 import org.piraso.client.net.HttpPirasoException;
 import org.piraso.server.service.User;
@@ -68,12 +70,13 @@ public class HttpPirasoLogHandler extends AbstractHttpHandler {
         LOG.info(String.format("Executing %s...", uri));
 
         HttpPost post = new HttpPost(uri.getPath());
+        RawEntry raw = EntryUtils.toRawEntry(entry);
 
         List<NameValuePair> params = new ArrayList<NameValuePair>();
         params.add(new BasicNameValuePair(SERVICE_PARAMETER, SERVICE_LOG_PARAMETER_VALUE));
-        params.add(new BasicNameValuePair(ENTRY_CLASS_NAME_PARAMETER, entry.getClass().getName()));
-        params.add(new BasicNameValuePair(ENTRY_REQUEST_ID_PARAMETER, String.valueOf(entry.getRequestId())));
-        params.add(new BasicNameValuePair(ENTRY_PARAMETER, mapper.writeValueAsString(entry)));
+        params.add(new BasicNameValuePair(ENTRY_CLASS_NAME_PARAMETER, raw.getRawClassName()));
+        params.add(new BasicNameValuePair(ENTRY_REQUEST_ID_PARAMETER, String.valueOf(raw.getRequestId())));
+        params.add(new BasicNameValuePair(ENTRY_PARAMETER, raw.getRawContent()));
         params.add(new BasicNameValuePair(USER_PARAMETER, mapper.writeValueAsString(user)));
 
         post.setEntity(new UrlEncodedFormEntity(params, ENCODING_UTF_8));
@@ -81,10 +84,11 @@ public class HttpPirasoLogHandler extends AbstractHttpHandler {
         HttpResponse response = client.execute(targetHost, post, context);
         StatusLine status = response.getStatusLine();
 
+        // consumed even on error so the kept alive connection is released
+        responseEntity = response.getEntity();
+
         if(status.getStatusCode() != HttpStatus.SC_OK) {
             throw new HttpPirasoException(status.toString());
         }
-
-        responseEntity = response.getEntity();
     }
 }
@@ -0,0 +1,128 @@
+package org.piraso.server.bridge.net;
+
+import org.apache.commons.lang.Validate;
+import org.apache.http.*;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.map.ObjectReader;
+import org.piraso.api.JacksonUtils;
+import org.piraso.client.net.AbstractHttpHandler;
+import org.piraso.client.net.HttpPirasoException;
+import org.piraso.server.service.BridgeRegistryDelta;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.piraso.api.PirasoConstants.*;
+
+/**
+ * Follows the bridge registry change stream, {@link #execute()} returns once the stream ends.
+ */
+public class HttpPirasoWatchBridgeRegistryHandler extends AbstractHttpHandler {
+
+    private static final Logger LOG = Logger.getLogger(HttpPirasoWatchBridgeRegistryHandler.class);
+
+    private HttpEntity responseEntity;
+
+    private ObjectReader reader;
+
+    private DeltaListener listener;
+
+    private volatile HttpPost post;
+
+    private boolean supported = true;
+
+    public HttpPirasoWatchBridgeRegistryHandler(HttpClient client, HttpContext context) {
+        super(client, context);
+
+        reader = JacksonUtils.MAPPER.reader(BridgeRegistryDelta.class);
+    }
+
+    public void setListener(DeltaListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Whether the bridge server supports registry change streams, known once {@link #execute()} returned.
+     *
+     * @return {@code false} when the bridge server rejected the service
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Closes the stream from another thread.
+     */
+    public void abort() {
+        HttpPost tmp = post;
+
+        if(tmp != null) {
+            tmp.abort();
+        }
+    }
+
+    @Override
+    public void execute() throws IOException, SAXException, ParserConfigurationException {
+        try {
+            doExecute();
+        } finally {
+            EntityUtils.consume(responseEntity);
+        }
+    }
+
+    private void doExecute() throws IOException, SAXException, ParserConfigurationException {
+        Validate.notNull(uri, "uri should not be null.");
+        Validate.notNull(listener, "listener should not be null.");
+
+        LOG.info(String.format("Executing %s...", uri));
+
+        post = new HttpPost(uri.getPath());
+
+        List<NameValuePair> params = new ArrayList<NameValuePair>();
+        params.add(new BasicNameValuePair(SERVICE_PARAMETER, SERVICE_WATCH_REGISTRY_PARAMETER_VALUE));
+
+        post.setEntity(new UrlEncodedFormEntity(params, ENCODING_UTF_8));
+
+        HttpResponse response = client.execute(targetHost, post, context);
+        StatusLine status = response.getStatusLine();
+        responseEntity = response.getEntity();
+
+        if(status.getStatusCode() == HttpStatus.SC_BAD_REQUEST) {
+            // service unknown to older bridge servers
+            supported = false;
+            return;
+        }
+
+        if(status.getStatusCode() != HttpStatus.SC_OK) {
+            throw new HttpPirasoException(status.toString());
+        }
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(responseEntity.getContent(), ENCODING_UTF_8));
+        String line;
+
+        while((line = in.readLine()) != null) {
+            if(line.length() > 0) {
+                listener.deltaReceived((BridgeRegistryDelta) reader.readValue(line));
+            }
+        }
+    }
+
+    /**
+     * Receives the registry changes in order.
+     */
+    public interface DeltaListener {
+
+        void deltaReceived(BridgeRegistryDelta delta) throws IOException;
+    }
+}
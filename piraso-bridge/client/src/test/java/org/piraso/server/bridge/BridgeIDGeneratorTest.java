@@ -0,0 +1,193 @@
+package org.piraso.server.bridge;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.piraso.client.net.HttpPirasoException;
+import org.piraso.server.bridge.net.HttpPirasoIDRequestHandler;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link BridgeIDGenerator} class.
+ */
+public class BridgeIDGeneratorTest {
+
+    private BridgeIDGenerator generator;
+
+    private AtomicLong serverNext;
+
+    private List<Integer> counts;
+
+    private AtomicInteger failures;
+
+    private boolean reservationSupported;
+
+    @Before
+    public void setUp() throws Exception {
+        serverNext = new AtomicLong(100);
+        counts = new CopyOnWriteArrayList<Integer>();
+        failures = new AtomicInteger();
+        reservationSupported = true;
+
+        BridgeHttpHandlerFactory factory = mock(BridgeHttpHandlerFactory.class);
+        doAnswer(new Answer<HttpPirasoIDRequestHandler>() {
+            public HttpPirasoIDRequestHandler answer(InvocationOnMock invocation) {
+                return new FakeHandler();
+            }
+        }).when(factory).createIDRequestHandler();
+
+        generator = new BridgeIDGenerator();
+        generator.setFactory(factory);
+        generator.setBlockSize(10);
+        generator.setRetryDelay(0);
+    }
+
+    @Test
+    public void testLease() throws Exception {
+        for(long i = 100; i < 108; i++) {
+            assertEquals(Long.valueOf(i), generator.next());
+        }
+
+        // one reservation for the whole block
+        assertEquals(1, counts.size());
+        assertEquals(Integer.valueOf(10), counts.get(0));
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        for(long i = 100; i < 109; i++) {
+            assertEquals(Long.valueOf(i), generator.next());
+        }
+
+        // 80% of the block used, the next block is reserved in the background
+        awaitReservations(2);
+
+        assertEquals(Long.valueOf(109), generator.next());
+        assertEquals(Long.valueOf(110), generator.next());
+
+        // the prefetched block was used, no extra reservation
+        assertEquals(2, counts.size());
+        assertEquals(Integer.valueOf(10), counts.get(1));
+    }
+
+    @Test
+    public void testFallbackWhenUnsupported() throws Exception {
+        reservationSupported = false;
+
+        assertEquals(Long.valueOf(100), generator.next());
+        assertEquals(Long.valueOf(101), generator.next());
+        assertEquals(Long.valueOf(102), generator.next());
+
+        // reservation tried once, no id lost by the fallback
+        assertEquals(4, counts.size());
+        assertEquals(Integer.valueOf(10), counts.get(0));
+        assertNull(counts.get(1));
+        assertNull(counts.get(2));
+        assertNull(counts.get(3));
+    }
+
+    @Test
+    public void testTransientFailureRetried() throws Exception {
+        failures.set(BridgeIDGenerator.MAX_ATTEMPTS - 1);
+
+        assertEquals(Long.valueOf(100), generator.next());
+        assertEquals(Long.valueOf(101), generator.next());
+
+        assertEquals(BridgeIDGenerator.MAX_ATTEMPTS, counts.size());
+
+        for(Integer count : counts) {
+            assertEquals(Integer.valueOf(10), count);
+        }
+    }
+
+    @Test
+    public void testTransientFailureKeepsLeasing() throws Exception {
+        failures.set(BridgeIDGenerator.MAX_ATTEMPTS);
+
+        try {
+            generator.next();
+            fail("expected failure");
+        } catch (IllegalStateException expected) {
+            // bridge server unreachable
+        }
+
+        assertEquals(Long.valueOf(100), generator.next());
+        assertEquals(Long.valueOf(101), generator.next());
+
+        // still leasing, no single id requests
+        for(Integer count : counts) {
+            assertEquals(Integer.valueOf(10), count);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReserveUnsupported() throws Exception {
+        reservationSupported = false;
+
+        generator.reserve(5);
+    }
+
+    private void awaitReservations(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while(counts.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(expected, counts.size());
+    }
+
+    private class FakeHandler extends HttpPirasoIDRequestHandler {
+
+        private Integer count;
+
+        private Long requestID;
+
+        private boolean supported = true;
+
+        private FakeHandler() {
+            super(null, null);
+        }
+
+        @Override
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+
+        @Override
+        public void execute() throws IOException {
+            counts.add(count);
+
+            if(failures.getAndDecrement() > 0) {
+                throw new HttpPirasoException("HTTP/1.1 503 Service Unavailable");
+            }
+
+            if(count != null && !reservationSupported) {
+                supported = false;
+                return;
+            }
+
+            requestID = serverNext.getAndAdd(count != null ? count : 1);
+        }
+
+        @Override
+        public boolean isSupported() {
+            return supported;
+        }
+
+        @Override
+        public Long getRequestID() {
+            return requestID;
+        }
+    }
+}
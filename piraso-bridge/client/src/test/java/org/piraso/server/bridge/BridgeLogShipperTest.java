@@ -0,0 +1,204 @@
+package org.piraso.server.bridge;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.RawEntry;
+import org.piraso.server.bridge.net.HttpPirasoLogBatchHandler;
+import org.piraso.server.bridge.net.HttpPirasoLogHandler;
+import org.piraso.server.service.BridgeLogBatch;
+import org.piraso.server.service.User;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link BridgeLogShipper} class.
+ */
+public class BridgeLogShipperTest {
+
+    private BridgeLogShipper shipper;
+
+    private List<BridgeLogBatch> shipped;
+
+    private CountDownLatch executing;
+
+    private CountDownLatch release;
+
+    private List<RawEntry> posted;
+
+    private volatile boolean batchSupported;
+
+    @Before
+    public void setUp() throws Exception {
+        shipped = new CopyOnWriteArrayList<BridgeLogBatch>();
+        executing = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        posted = new CopyOnWriteArrayList<RawEntry>();
+        batchSupported = true;
+
+        BridgeHttpHandlerFactory factory = mock(BridgeHttpHandlerFactory.class);
+        doAnswer(new Answer<HttpPirasoLogBatchHandler>() {
+            public HttpPirasoLogBatchHandler answer(InvocationOnMock invocation) {
+                return new RecordingHandler();
+            }
+        }).when(factory).createLogBatchHandler();
+        doAnswer(new Answer<HttpPirasoLogHandler>() {
+            public HttpPirasoLogHandler answer(InvocationOnMock invocation) {
+                return new RecordingLogHandler();
+            }
+        }).when(factory).createLogHandler();
+
+        shipper = new BridgeLogShipper();
+        shipper.setFactory(factory);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        shipper.shutdown();
+    }
+
+    @Test
+    public void testDroppedWhenNotStarted() throws Exception {
+        assertFalse(shipper.offer(new User("127.0.0.1", "a1"), new MessageEntry(1l, "test")));
+        assertEquals(1, shipper.getDroppedCount());
+    }
+
+    @Test
+    public void testDroppedWhenFull() throws Exception {
+        User user = new User("127.0.0.1", "a1");
+
+        shipper.setCapacity(5);
+        shipper.start();
+
+        // the shipping thread holds the first entry while its batch is in flight
+        assertTrue(shipper.offer(user, new MessageEntry(1l, "first")));
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+
+        for(int i = 0; i < 5; i++) {
+            assertTrue(shipper.offer(user, new MessageEntry(1l, "test" + i)));
+        }
+
+        assertFalse(shipper.offer(user, new MessageEntry(1l, "dropped")));
+        assertEquals(1, shipper.getDroppedCount());
+    }
+
+    @Test
+    public void testBatchingAndShutdownDrain() throws Exception {
+        User user1 = new User("127.0.0.1", "a1");
+        User user2 = new User("127.0.0.1", "a2");
+
+        shipper.start();
+
+        assertTrue(shipper.offer(user1, new MessageEntry(1l, "first")));
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+
+        // accumulate while the first batch is in flight
+        for(int i = 0; i < 100; i++) {
+            assertTrue(shipper.offer(i % 2 == 0 ? user1 : user2, new MessageEntry(1l, "test" + i)));
+        }
+
+        release.countDown();
+        shipper.shutdown();
+
+        // the first batch, then one batch per user
+        assertEquals(3, shipped.size());
+        assertEquals(1, shipped.get(0).size());
+        assertEquals(user1, shipped.get(1).getUser());
+        assertEquals(50, shipped.get(1).size());
+        assertEquals(user2, shipped.get(2).getUser());
+        assertEquals(50, shipped.get(2).size());
+        assertTrue(shipped.get(1).getEntries().get(0).getRawContent().contains("test0"));
+        assertEquals(0, shipper.getDroppedCount());
+    }
+
+    @Test
+    public void testFallbackWhenBatchUnsupported() throws Exception {
+        User user = new User("127.0.0.1", "a1");
+
+        batchSupported = false;
+        release.countDown();
+        shipper.start();
+
+        for(int i = 0; i < 3; i++) {
+            assertTrue(shipper.offer(user, new MessageEntry(1l, "test" + i)));
+        }
+
+        shipper.shutdown();
+
+        // rejected batches are posted entry by entry, later ones directly
+        assertFalse(shipper.isBatching());
+        assertEquals(1, shipped.size());
+        assertEquals(3, posted.size());
+
+        for(int i = 0; i < 3; i++) {
+            assertTrue(posted.get(i).getRawContent().contains("test" + i));
+        }
+
+        assertEquals(0, shipper.getDroppedCount());
+    }
+
+    /**
+     * Records the shipped batches, the first execution blocks until released.
+     */
+    private class RecordingHandler extends HttpPirasoLogBatchHandler {
+
+        private BridgeLogBatch batch;
+
+        private RecordingHandler() {
+            super(null, null);
+        }
+
+        @Override
+        public void setBatch(BridgeLogBatch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public boolean isSupported() {
+            return batchSupported;
+        }
+
+        @Override
+        public void execute() {
+            shipped.add(batch);
+            executing.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Records the entries posted one at a time.
+     */
+    private class RecordingLogHandler extends HttpPirasoLogHandler {
+
+        private RecordingLogHandler() {
+            super(null, null);
+        }
+
+        @Override
+        public void setEntry(Entry entry) {
+            posted.add((RawEntry) entry);
+        }
+
+        @Override
+        public void execute() {
+        }
+    }
+}
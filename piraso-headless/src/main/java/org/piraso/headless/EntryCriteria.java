@@ -19,28 +19,99 @@
 package org.piraso.headless;
 
 import org.piraso.api.entry.Entry;
+import org.piraso.headless.restriction.IndexedRestriction;
 import org.piraso.headless.restriction.Restriction;
-import org.piraso.io.IOEntry;
-import org.piraso.io.IOEntryManager;
-import org.piraso.io.IOEntryVisitor;
-import org.apache.commons.collections.CollectionUtils;
+import org.piraso.io.*;
+import org.piraso.io.util.IOEntryRequest;
+import org.apache.commons.lang.Validate;
 
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Restriction class instance
+ * <p>
+ * Restrictions answered by the manager {@link IOEntryIndex} narrow the entries to check, only the candidates are
+ * then checked against all restrictions. Without such restriction all entries are checked.
+ * <p>
+ * Results are evaluated lazily in received order, {@link #firstResult()}, {@link #uniqueResult()} and
+ * {@link #iterate()} stop checking entries once they have what they need. With a parallelism greater than one,
+ * {@link #list()} and {@link #count()} check the entries of different requests concurrently, results are still in
+ * received order.
+ * <p>
+ * Live sessions can be waited on with {@link #await(long, TimeUnit)} or {@link #firstResultFuture()}, and followed
+ * with {@link #subscribe(EntryMatchListener)}. Only newly received entries are then checked.
  */
 public class EntryCriteria {
 
-    private IOEntryManager manager;
+    /**
+     * Work chunks per thread for parallel evaluation, evens out requests of different sizes.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Threads shared by all parallel evaluations, idle threads are released after a minute.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "piraso-headless-criteria-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    });
+
+    private static final ChunkEvaluator<List<Entry>> LIST = new ChunkEvaluator<List<Entry>>() {
+        public List<Entry> evaluate(Iterator<Entry> scan) {
+            List<Entry> results = new ArrayList<Entry>();
+
+            while(scan.hasNext()) {
+                results.add(scan.next());
+            }
+
+            return results;
+        }
+
+        public int size(List<Entry> result) {
+            return result.size();
+        }
+    };
+
+    private static final ChunkEvaluator<Integer> COUNT = new ChunkEvaluator<Integer>() {
+        public Integer evaluate(Iterator<Entry> scan) {
+            int count = 0;
+
+            for(; scan.hasNext(); scan.next()) {
+                count++;
+            }
+
+            return count;
+        }
+
+        public int size(Integer result) {
+            return result;
+        }
+    };
+
+    private IOEntryReader reader;
 
     private List<Restriction> restrictions;
 
-    EntryCriteria(IOEntryManager manager) {
-        this.manager = manager;
+    private ConcurrentMap<EntryMatchListener, IOEntryReceivedListener> subscribers;
+
+    private int maxResults = -1;
+
+    private int parallelism = 1;
+
+    EntryCriteria(IOEntryReader reader) {
+        this.reader = reader;
         restrictions = new LinkedList<Restriction>();
+        subscribers = new ConcurrentHashMap<EntryMatchListener, IOEntryReceivedListener>();
     }
 
     public EntryCriteria add(Restriction restriction) {
@@ -49,6 +120,32 @@ public class EntryCriteria {
         return this;
     }
 
+    /**
+     * Limits the number of results.
+     *
+     * @param maxResults the maximum results, negative for no limit
+     * @return this criteria
+     */
+    public EntryCriteria setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+
+        return this;
+    }
+
+    /**
+     * Sets the number of threads checking entries for {@link #list()} and {@link #count()}, restrictions should be
+     * thread safe when greater than one.
+     *
+     * @param parallelism the number of threads
+     * @return this criteria
+     */
+    public EntryCriteria setParallelism(int parallelism) {
+        Validate.isTrue(parallelism > 0, "parallelism should be greater than zero.");
+        this.parallelism = parallelism;
+
+        return this;
+    }
+
     private boolean matches(IOEntry entry) {
         for(Restriction r : restrictions) {
             if(!r.matches(entry.getEntry())) {
@@ -60,55 +157,503 @@ public class EntryCriteria {
     }
 
     public Entry uniqueResult() {
-        List<Entry> items = list();
+        Iterator<Entry> it = iterate();
 
-        if(CollectionUtils.isEmpty(items)) {
+        if(!it.hasNext()) {
             return null;
         }
 
-        if(CollectionUtils.size(items) > 1) {
+        Entry result = it.next();
+
+        // stops at the second match
+        if(it.hasNext()) {
             throw new PirasoHeadlessException("Has more than one entries found.");
         }
 
-        return items.iterator().next();
+        return result;
     }
 
     public Entry firstResult() {
-        LinkedList<Entry> items = list();
+        Iterator<Entry> it = iterate();
 
-        if(CollectionUtils.isEmpty(items)) {
-            return null;
+        return it.hasNext() ? it.next() : null;
+    }
+
+    public Entry lastResult() {
+        Entry last = null;
+
+        for(Iterator<Entry> it = iterate(); it.hasNext();) {
+            last = it.next();
         }
 
-        return items.getFirst();
+        return last;
     }
 
+    /**
+     * Lazily evaluated results in received order.
+     *
+     * @return the result iterator
+     */
+    public Iterator<Entry> iterate() {
+        IOEntryManager manager = reader.getManager();
 
-    public Entry lastResult() {
-        LinkedList<Entry> items = list();
+        if(manager == null) {
+            // nothing received yet
+            return Collections.<Entry>emptyList().iterator();
+        }
 
-        if(CollectionUtils.isEmpty(items)) {
-            return null;
+        long[] candidates = getCandidates(manager);
+
+        if(candidates != null) {
+            return new Scan(manager, candidates, 0, candidates.length, maxResults);
         }
 
-        return items.getLast();
+        return new Scan(manager, manager.getRequests(), maxResults);
+    }
+
+    /**
+     * Counts the results without keeping them.
+     *
+     * @return the result count
+     */
+    public int count() {
+        if(parallelism > 1) {
+            int count = 0;
+
+            for(Integer chunk : evaluate(COUNT)) {
+                count += chunk;
+            }
+
+            return maxResults >= 0 ? Math.min(count, maxResults) : count;
+        }
+
+        int count = 0;
+        for(Iterator<Entry> it = iterate(); it.hasNext(); it.next()) {
+            count++;
+        }
+
+        return count;
     }
 
     public LinkedList<Entry> list() {
-        final LinkedList<Entry> results = new LinkedList<Entry>();
+        LinkedList<Entry> results = new LinkedList<Entry>();
+
+        if(parallelism > 1) {
+            for(List<Entry> chunk : evaluate(LIST)) {
+                results.addAll(chunk);
+            }
+
+            while(maxResults >= 0 && results.size() > maxResults) {
+                results.removeLast();
+            }
+
+            return results;
+        }
+
+        for(Iterator<Entry> it = iterate(); it.hasNext();) {
+            results.add(it.next());
+        }
+
+        return results;
+    }
+
+    /**
+     * Waits for a matching entry, returns at once when one was already received.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the timeout unit
+     * @return the matching entry or {@code null} when none was received in time
+     */
+    public Entry await(long timeout, TimeUnit unit) {
+        Future<Entry> future = firstResultFuture();
+
+        try {
+            return future.get(timeout, unit);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PirasoHeadlessException("Interrupted while waiting for piraso entries.", e);
+        } catch (ExecutionException e) {
+            throw new PirasoHeadlessException("Error while waiting for piraso entries.", e.getCause());
+        } finally {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Future of the first existing matching entry or, when none, of the first matching entry received. Cancel the
+     * future to stop listening when no longer needed.
+     *
+     * @return the future matching entry
+     */
+    public Future<Entry> firstResultFuture() {
+        MatchFuture future = new MatchFuture();
+
+        // listen first so no entry is missed while scanning
+        reader.addReceivedListener(future);
+
+        try {
+            future.scanned(firstResult());
+        } catch (RuntimeException e) {
+            future.cancel(false);
+            throw e;
+        }
+
+        return future;
+    }
+
+    /**
+     * Notifies the listener of the matching entries received from now on.
+     *
+     * @param listener the listener
+     */
+    public void subscribe(final EntryMatchListener listener) {
+        IOEntryReceivedListener received = new IOEntryReceivedListener() {
+            public void receivedEntry(IOEntryEvent evt) {
+                if(evt.getEntry() != null && matches(evt.getEntry())) {
+                    listener.matched(evt.getEntry().getEntry());
+                }
+            }
+        };
+
+        if(subscribers.putIfAbsent(listener, received) == null) {
+            reader.addReceivedListener(received);
+        }
+    }
+
+    public void unsubscribe(EntryMatchListener listener) {
+        IOEntryReceivedListener received = subscribers.remove(listener);
+
+        if(received != null) {
+            reader.removeReceivedListener(received);
+        }
+    }
+
+    /**
+     * Intersects the candidates of the indexed restrictions.
+     *
+     * @return the sorted candidate entry references or {@code null} when all entries are candidates
+     */
+    private long[] getCandidates(IOEntryManager manager) {
+        IOEntryIndex index = manager.getIndex();
+        long[] candidates = null;
+
+        for(Restriction r : restrictions) {
+            if(!IndexedRestriction.class.isInstance(r)) {
+                continue;
+            }
+
+            long[] tmp = ((IndexedRestriction) r).getCandidates(index);
+
+            if(tmp != null) {
+                candidates = candidates == null ? tmp : IOEntryIndex.intersect(candidates, tmp);
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Checks the entries in chunks on up to {@link #parallelism} shared threads, once the results of the leading
+     * chunks reach {@link #maxResults} the remaining chunks are cancelled.
+     *
+     * @param evaluator evaluates the matching entries of a chunk
+     * @return the results of each chunk in received order
+     */
+    private <T> List<T> evaluate(final ChunkEvaluator<T> evaluator) {
+        IOEntryManager manager = reader.getManager();
+
+        if(manager == null) {
+            return Collections.emptyList();
+        }
+
+        List<Scan> scans = new ArrayList<Scan>();
+        long[] candidates = getCandidates(manager);
+
+        if(candidates != null) {
+            int chunk = Math.max(1, (candidates.length + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD));
+
+            for(int from = 0; from < candidates.length; from += chunk) {
+                scans.add(new Scan(manager, candidates, from, Math.min(candidates.length, from + chunk), maxResults));
+            }
+        } else {
+            List<IOEntryRequest> requests = new ArrayList<IOEntryRequest>(manager.getRequests());
+            int chunk = Math.max(1, (requests.size() + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD));
+
+            for(int from = 0; from < requests.size(); from += chunk) {
+                scans.add(new Scan(manager, requests.subList(from, Math.min(requests.size(), from + chunk)), maxResults));
+            }
+        }
+
+        final List<FutureTask<T>> tasks = new ArrayList<FutureTask<T>>(scans.size());
+
+        for(final Scan scan : scans) {
+            tasks.add(new FutureTask<T>(new Callable<T>() {
+                public T call() throws Exception {
+                    return evaluator.evaluate(scan);
+                }
+            }));
+        }
+
+        // each worker takes the next chunk in order, cancelled chunks are skipped
+        final AtomicInteger next = new AtomicInteger();
+        Runnable worker = new Runnable() {
+            public void run() {
+                int i;
+
+                while((i = next.getAndIncrement()) < tasks.size()) {
+                    tasks.get(i).run();
+                }
+            }
+        };
+
+        for(int i = 0; i < Math.min(parallelism, tasks.size()); i++) {
+            EXECUTOR.execute(worker);
+        }
 
         try {
-            manager.visit(new IOEntryVisitor() {
-                public void visit(IOEntry entry) {
+            List<T> results = new ArrayList<T>(tasks.size());
+            int size = 0;
+
+            for(FutureTask<T> task : tasks) {
+                if(maxResults >= 0 && size >= maxResults) {
+                    break;
+                }
+
+                T chunk = task.get();
+                results.add(chunk);
+                size += evaluator.size(chunk);
+            }
+
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PirasoHeadlessException("Interrupted while visiting piraso entries.", e);
+        } catch (ExecutionException e) {
+            if(PirasoHeadlessException.class.isInstance(e.getCause())) {
+                throw (PirasoHeadlessException) e.getCause();
+            }
+
+            throw new PirasoHeadlessException("Error while visiting piraso entries.", e.getCause());
+        } finally {
+            for(FutureTask<T> task : tasks) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the matching entries of a chunk for {@link #evaluate(ChunkEvaluator)}.
+     */
+    private static interface ChunkEvaluator<T> {
+
+        T evaluate(Iterator<Entry> scan);
+
+        int size(T result);
+    }
+
+    /**
+     * Completed by the first existing match found by the scan or else by the first match received.
+     */
+    private class MatchFuture implements Future<Entry>, IOEntryReceivedListener {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private volatile Entry result;
+
+        private volatile boolean cancelled;
+
+        private boolean scanning = true;
+
+        /**
+         * First match received while scanning, kept in case the scan finds none.
+         */
+        private Entry pending;
+
+        public void receivedEntry(IOEntryEvent evt) {
+            if(completed.get() || evt.getEntry() == null || !matches(evt.getEntry())) {
+                return;
+            }
+
+            synchronized (this) {
+                if(!scanning) {
+                    complete(evt.getEntry().getEntry(), false);
+                } else if(pending == null) {
+                    pending = evt.getEntry().getEntry();
+                }
+            }
+        }
+
+        private synchronized void scanned(Entry first) {
+            scanning = false;
+
+            if(first != null) {
+                complete(first, false);
+            } else if(pending != null) {
+                complete(pending, false);
+            }
+        }
+
+        private boolean complete(Entry entry, boolean cancel) {
+            if(!completed.compareAndSet(false, true)) {
+                return false;
+            }
+
+            result = entry;
+            cancelled = cancel;
+            reader.removeReceivedListener(this);
+            done.countDown();
+
+            return true;
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return complete(null, true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        public Entry get() throws InterruptedException {
+            done.await();
+
+            return getResult();
+        }
+
+        public Entry get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            if(!done.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+
+            return getResult();
+        }
+
+        private Entry getResult() {
+            if(cancelled) {
+                throw new CancellationException();
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Lazily checks either the candidate entry references or all the entries of the given requests.
+     */
+    private class Scan implements Iterator<Entry> {
+
+        private final IOEntryManager manager;
+
+        private final long[] references;
+
+        private int referenceIndex;
+
+        private int referenceEnd;
+
+        private final Iterator<IOEntryRequest> requests;
+
+        private IOEntryRequest request;
+
+        private int rowNum;
+
+        private int rowEnd;
+
+        private Entry next;
+
+        /**
+         * Results left before stopping, negative for no limit.
+         */
+        private int remaining;
+
+        private Scan(IOEntryManager manager, long[] references, int from, int to, int limit) {
+            this.manager = manager;
+            this.references = references;
+            this.referenceIndex = from;
+            this.referenceEnd = to;
+            this.requests = null;
+            this.remaining = limit;
+        }
+
+        private Scan(IOEntryManager manager, Collection<IOEntryRequest> requests, int limit) {
+            this.manager = manager;
+            this.references = null;
+            this.requests = requests.iterator();
+            this.remaining = limit;
+        }
+
+        private IOEntry nextCandidate() throws IOException {
+            if(references != null) {
+                while(referenceIndex < referenceEnd) {
+                    IOEntry entry = manager.getEntry(references[referenceIndex++]);
+
+                    if(entry != null) {
+                        return entry;
+                    }
+                }
+
+                return null;
+            }
+
+            while(request == null || rowNum >= rowEnd) {
+                if(!requests.hasNext()) {
+                    return null;
+                }
+
+                // rows added after this point are left out
+                request = requests.next();
+                rowNum = 0;
+                rowEnd = request.size();
+            }
+
+            return request.get(rowNum++);
+        }
+
+        public boolean hasNext() {
+            if(next != null || remaining == 0) {
+                return next != null;
+            }
+
+            try {
+                IOEntry entry;
+
+                while((entry = nextCandidate()) != null) {
                     if(matches(entry)) {
-                        results.add(entry.getEntry());
+                        next = entry.getEntry();
+                        break;
                     }
                 }
-            });
-        } catch (IOException e) {
-            throw new PirasoHeadlessException("Error while visiting all piraso entries.", e);
+            } catch (IOException e) {
+                throw new PirasoHeadlessException("Error while visiting piraso entries.", e);
+            }
+
+            return next != null;
         }
 
-        return results;
+        public Entry next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Entry result = next;
+            next = null;
+
+            if(remaining > 0) {
+                remaining--;
+            }
+
+            return result;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 }
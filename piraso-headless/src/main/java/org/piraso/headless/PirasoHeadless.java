@@ -68,7 +68,7 @@ public class PirasoHeadless {
     }
 
     public EntryCriteria createCriteria() {
-        return new EntryCriteria(reader.getManager());
+        return new EntryCriteria(reader);
     }
 
     public void start() {
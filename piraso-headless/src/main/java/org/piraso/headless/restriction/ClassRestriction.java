@@ -19,11 +19,12 @@
 package org.piraso.headless.restriction;
 
 import org.piraso.api.entry.Entry;
+import org.piraso.io.IOEntryIndex;
 
 /**
  * Entry class restriction
  */
-public class ClassRestriction implements Restriction {
+public class ClassRestriction implements IndexedRestriction {
 
     private Class clazz;
 
@@ -34,4 +35,8 @@ public class ClassRestriction implements Restriction {
     public boolean matches(Entry entry) {
         return clazz.isAssignableFrom(entry.getClass());
     }
+
+    public long[] getCandidates(IOEntryIndex index) {
+        return index.getByClass(clazz);
+    }
 }
@@ -19,14 +19,16 @@
 package org.piraso.headless.restriction;
 
 import org.piraso.api.entry.Entry;
+import org.piraso.io.IOEntryIndex;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * Will or all provided restrictions
  */
-public class DisjunctionRestriction implements Restriction {
+public class DisjunctionRestriction implements IndexedRestriction {
 
     private List<Restriction> restrictions = new LinkedList<Restriction>();
 
@@ -45,4 +47,24 @@ public class DisjunctionRestriction implements Restriction {
 
         return false;
     }
+
+    public long[] getCandidates(IOEntryIndex index) {
+        List<long[]> lists = new ArrayList<long[]>(restrictions.size());
+
+        // the union is only exhaustive when every restriction is indexed
+        for(Restriction restriction : restrictions) {
+            if(!IndexedRestriction.class.isInstance(restriction)) {
+                return null;
+            }
+
+            long[] candidates = ((IndexedRestriction) restriction).getCandidates(index);
+            if(candidates == null) {
+                return null;
+            }
+
+            lists.add(candidates);
+        }
+
+        return IOEntryIndex.union(lists);
+    }
 }
@@ -19,13 +19,14 @@
 package org.piraso.headless.restriction;
 
 import org.piraso.api.entry.Entry;
+import org.piraso.io.IOEntryIndex;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 
 /**
  * Group restriction
  */
-public class GroupRestriction implements Restriction {
+public class GroupRestriction implements IndexedRestriction {
 
     private String group;
 
@@ -48,4 +49,8 @@ public class GroupRestriction implements Restriction {
 
         return false;
     }
+
+    public long[] getCandidates(IOEntryIndex index) {
+        return group != null ? index.getByGroup(group) : null;
+    }
 }
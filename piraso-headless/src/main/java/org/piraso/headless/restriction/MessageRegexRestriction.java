@@ -20,19 +20,26 @@ package org.piraso.headless.restriction;
 
 import org.piraso.api.entry.Entry;
 import org.piraso.api.entry.MessageEntry;
+import org.piraso.io.IOEntryIndex;
 
 import java.util.regex.Pattern;
 
-public class MessageRegexRestriction implements Restriction {
+public class MessageRegexRestriction implements IndexedRestriction {
 
     private Pattern pattern;
 
+    /**
+     * Longest run of token characters any match contains, {@code null} when none could be found.
+     */
+    private String literal;
+
     public MessageRegexRestriction(String regex) {
         this(regex, 0);
     }
 
     public MessageRegexRestriction(String regex, int flag) {
         this.pattern = Pattern.compile(regex, flag);
+        this.literal = findLiteral(regex, flag);
     }
 
     public boolean matches(Entry entry) {
@@ -44,4 +51,153 @@ public class MessageRegexRestriction implements Restriction {
 
         return pattern.matcher(messageEntry.getMessage()).matches();
     }
+
+    public long[] getCandidates(IOEntryIndex index) {
+        if(literal != null) {
+            return index.getByMessageFragment(literal);
+        }
+
+        return index.getByClass(MessageEntry.class);
+    }
+
+    /**
+     * Finds the longest literal of token characters required by the regex. Only plain top level literals are
+     * considered, regex with alternations, inline flags, quoting or flags other than case insensitive are not.
+     *
+     * @param regex the regex
+     * @param flag the pattern flags
+     * @return the literal or {@code null} when none could be found
+     */
+    static String findLiteral(String regex, int flag) {
+        if((flag & ~Pattern.CASE_INSENSITIVE) != 0 || regex.contains("|") || regex.contains("(?") || regex.contains("\\Q")
+                || regex.contains("[]") || regex.contains("[^]")) {
+            return null;
+        }
+
+        String best = null;
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+
+        for(int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+
+            if(isTokenChar(c)) {
+                if(depth == 0) {
+                    run.append(c);
+                }
+
+                continue;
+            }
+
+            if(c == '?' || c == '*' || c == '{') {
+                // the last character is optional
+                if(run.length() > 0) {
+                    run.setLength(run.length() - 1);
+                }
+            }
+
+            best = longest(best, run);
+            run.setLength(0);
+
+            if(c == '\\') {
+                i = skipEscape(regex, i);
+            } else if(c == '{') {
+                i = skip(regex, i, '{', '}');
+            } else if(c == '[') {
+                i = skip(regex, i, '[', ']');
+            } else if(c == '(') {
+                depth++;
+            } else if(c == ')') {
+                depth--;
+            }
+
+            if(i < 0) {
+                return null;
+            }
+        }
+
+        return longest(best, run);
+    }
+
+    private static boolean isTokenChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static String longest(String best, StringBuilder run) {
+        if(run.length() > 0 && (best == null || run.length() > best.length())) {
+            return run.toString();
+        }
+
+        return best;
+    }
+
+    /**
+     * Skips an escape with its argument, e.g. {@code \u0041}, {@code \x{41}}, {@code \p{Lu}} or {@code \12}, so
+     * the literal characters following it are kept.
+     *
+     * @return the index of the last escape character or {@code -1} when incomplete
+     */
+    private static int skipEscape(String regex, int start) {
+        int i = start + 1;
+
+        if(i >= regex.length()) {
+            return -1;
+        }
+
+        switch (regex.charAt(i)) {
+            case 'u':
+                i += 4;
+                break;
+            case 'x':
+                i = i + 1 < regex.length() && regex.charAt(i + 1) == '{' ? skip(regex, i + 1, '{', '}') : i + 2;
+                break;
+            case 'p':
+            case 'P':
+                i = i + 1 < regex.length() && regex.charAt(i + 1) == '{' ? skip(regex, i + 1, '{', '}') : i + 1;
+                break;
+            case 'c':
+                i++;
+                break;
+            case 'k':
+                i = regex.indexOf('>', i);
+                break;
+            case '0':
+                for(int n = 0; n < 3 && i + 1 < regex.length() && regex.charAt(i + 1) >= '0' && regex.charAt(i + 1) <= '7'; n++) {
+                    i++;
+                }
+                break;
+            default:
+                // back references take all following digits
+                if(regex.charAt(i) >= '1' && regex.charAt(i) <= '9') {
+                    while(i + 1 < regex.length() && Character.isDigit(regex.charAt(i + 1))) {
+                        i++;
+                    }
+                }
+        }
+
+        return i < regex.length() ? i : -1;
+    }
+
+    /**
+     * Skips a possibly nested bracket construct.
+     *
+     * @return the index of the closing character or {@code -1} when not found
+     */
+    private static int skip(String regex, int start, char open, char close) {
+        int nested = 0;
+
+        for(int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+
+            if(c == '\\') {
+                i++;
+            } else if(c == open) {
+                nested++;
+            } else if(c == close && --nested == 0) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
 }
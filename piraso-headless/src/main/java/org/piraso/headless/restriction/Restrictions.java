@@ -37,6 +37,10 @@ public class Restrictions {
         return new GroupRestriction(group);
     }
 
+    public static Restriction level(String level) {
+        return new LevelRestriction(level);
+    }
+
     public static Restriction messageRegex(String regex) {
         return messageRegex(regex, false);
     }
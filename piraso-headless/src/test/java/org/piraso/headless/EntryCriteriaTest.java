@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.headless;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.piraso.api.entry.Entry;
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.ThrowableEntry;
+import org.piraso.api.io.EntryReadEvent;
+import org.piraso.headless.restriction.Restriction;
+import org.piraso.headless.restriction.Restrictions;
+import org.piraso.io.IOEntryReader;
+import org.piraso.io.IOEntrySource;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link EntryCriteria} class.
+ */
+public class EntryCriteriaTest {
+
+    private static final String[] MESSAGES = {
+            "select * from users", "Select count(*) from orders", "update users set name = ?", "42 rows",
+            "7 rows fetched", "colour changed", "color changed", "foobar started", "FOO done", "(nested) call"
+    };
+
+    private IOEntryReader reader;
+
+    @Before
+    public void setUp() throws Exception {
+        reader = new IOEntryReader(mock(IOEntrySource.class));
+    }
+
+    private void receive(long requestId, Entry entry) {
+        reader.readEntry(new EntryReadEvent(this, requestId, entry, new Date()));
+    }
+
+    private void receiveAll() {
+        for(int i = 0; i < MESSAGES.length * 3; i++) {
+            long requestId = i % 4 + 1;
+
+            receive(requestId, new MessageEntry(requestId, MESSAGES[i % MESSAGES.length] + " #" + i));
+
+            if(i % 5 == 0) {
+                receive(requestId, new ThrowableEntry(new IllegalStateException("users")));
+            }
+        }
+    }
+
+    private static List<String> messages(Collection<Entry> entries) {
+        List<String> messages = new ArrayList<String>();
+
+        for(Entry entry : entries) {
+            messages.add(((MessageEntry) entry).getMessage());
+        }
+
+        return messages;
+    }
+
+    /**
+     * Same restriction hidden from the index, forces a scan of all entries.
+     */
+    private static Restriction unindexed(final Restriction restriction) {
+        return new Restriction() {
+            public boolean matches(Entry entry) {
+                return restriction.matches(entry);
+            }
+        };
+    }
+
+    /**
+     * Counts the checked entries, matches the entries the given restriction matches.
+     */
+    private static class CountingRestriction implements Restriction {
+
+        private final AtomicInteger checked = new AtomicInteger();
+
+        private final Restriction restriction;
+
+        private CountingRestriction(Restriction restriction) {
+            this.restriction = restriction;
+        }
+
+        public boolean matches(Entry entry) {
+            checked.incrementAndGet();
+
+            return restriction == null || restriction.matches(entry);
+        }
+    }
+
+    private void assertIndexedMatchesScan(Restriction restriction) {
+        List<String> indexed = messages(new EntryCriteria(reader).add(restriction).list());
+        List<String> scanned = messages(new EntryCriteria(reader).add(unindexed(restriction)).list());
+
+        assertEquals(scanned, indexed);
+    }
+
+    @Test
+    public void testListIndexedMatchesScan() throws Exception {
+        receiveAll();
+
+        assertIndexedMatchesScan(Restrictions.messageRegex("select .*"));
+        assertIndexedMatchesScan(Restrictions.messageRegex("select .*", true));
+        assertIndexedMatchesScan(Restrictions.messageRegex(".*users.*"));
+        assertIndexedMatchesScan(Restrictions.messageRegex("\\d+ rows.*"));
+        assertIndexedMatchesScan(Restrictions.messageRegex("colou?r changed.*"));
+        assertIndexedMatchesScan(Restrictions.messageRegex("foo.*", true));
+        assertIndexedMatchesScan(Restrictions.messageRegex("\\(nested\\) call.*"));
+        assertIndexedMatchesScan(Restrictions.messageRegex("(update|select) .*"));
+        assertIndexedMatchesScan(Restrictions.messageRegex("[a-z]+ changed #\\d+"));
+
+        assertEquals(6, new EntryCriteria(reader).add(Restrictions.messageRegex("colou?r changed.*")).list().size());
+        assertTrue(new EntryCriteria(reader).add(Restrictions.messageRegex("nothing.*")).list().isEmpty());
+    }
+
+    @Test
+    public void testIterate() throws Exception {
+        receiveAll();
+
+        Restriction rows = Restrictions.messageRegex(".*rows.*");
+        List<Entry> results = new ArrayList<Entry>();
+
+        Iterator<Entry> it = new EntryCriteria(reader).add(rows).iterate();
+        while(it.hasNext()) {
+            assertTrue(it.hasNext());
+            results.add(it.next());
+        }
+
+        assertEquals(messages(new EntryCriteria(reader).add(rows).list()), messages(results));
+        // received order of the requests, then of the rows
+        assertEquals(Arrays.asList("7 rows fetched #4", "7 rows fetched #24", "42 rows #13", "7 rows fetched #14",
+                "42 rows #3", "42 rows #23"), messages(results));
+
+        try {
+            it.next();
+            fail("expected NoSuchElementException");
+        } catch (NoSuchElementException expected) {
+            // all results returned
+        }
+    }
+
+    @Test
+    public void testIterateNothingReceived() throws Exception {
+        assertFalse(new EntryCriteria(reader).iterate().hasNext());
+        assertTrue(new EntryCriteria(reader).setParallelism(4).list().isEmpty());
+        assertEquals(0, new EntryCriteria(reader).setParallelism(4).count());
+    }
+
+    @Test
+    public void testMaxResults() throws Exception {
+        receiveAll();
+
+        Restriction messages = Restrictions.clazz(MessageEntry.class);
+        List<String> all = messages(new EntryCriteria(reader).add(messages).list());
+
+        assertEquals(MESSAGES.length * 3, all.size());
+        assertEquals(all.subList(0, 5), messages(new EntryCriteria(reader).add(messages).setMaxResults(5).list()));
+        assertEquals(5, new EntryCriteria(reader).add(messages).setMaxResults(5).count());
+        assertTrue(new EntryCriteria(reader).add(messages).setMaxResults(0).list().isEmpty());
+        assertEquals(0, new EntryCriteria(reader).add(messages).setMaxResults(0).count());
+        assertEquals(all.size(), new EntryCriteria(reader).add(messages).setMaxResults(100).count());
+    }
+
+    @Test
+    public void testParallelism() throws Exception {
+        receiveAll();
+
+        Restriction[] restrictions = {
+                Restrictions.clazz(MessageEntry.class),
+                unindexed(Restrictions.clazz(MessageEntry.class)),
+                Restrictions.messageRegex(".*users.*"),
+                unindexed(Restrictions.messageRegex(".*users.*"))
+        };
+
+        for(Restriction restriction : restrictions) {
+            List<String> serial = messages(new EntryCriteria(reader).add(restriction).list());
+            int count = new EntryCriteria(reader).add(restriction).count();
+
+            for(int parallelism = 2; parallelism <= 5; parallelism++) {
+                assertEquals(serial, messages(new EntryCriteria(reader).add(restriction).setParallelism(parallelism).list()));
+                assertEquals(count, new EntryCriteria(reader).add(restriction).setParallelism(parallelism).count());
+
+                assertEquals(serial.subList(0, 3), messages(new EntryCriteria(reader).add(restriction)
+                        .setParallelism(parallelism).setMaxResults(3).list()));
+                assertEquals(3, new EntryCriteria(reader).add(restriction).setParallelism(parallelism).setMaxResults(3).count());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelism() throws Exception {
+        new EntryCriteria(reader).setParallelism(0);
+    }
+
+    @Test
+    public void testFirstResultStopsEarly() throws Exception {
+        receiveAll();
+
+        CountingRestriction counting = new CountingRestriction(null);
+
+        assertEquals("select * from users #0", ((MessageEntry) new EntryCriteria(reader).add(counting).firstResult()).getMessage());
+        assertEquals(1, counting.checked.get());
+    }
+
+    @Test
+    public void testUniqueResultStopsEarly() throws Exception {
+        receiveAll();
+
+        CountingRestriction counting = new CountingRestriction(null);
+
+        try {
+            new EntryCriteria(reader).add(counting).uniqueResult();
+            fail("expected PirasoHeadlessException");
+        } catch (PirasoHeadlessException expected) {
+            // stops at the second match
+        }
+
+        assertEquals(2, counting.checked.get());
+
+        Entry unique = new EntryCriteria(reader).add(Restrictions.messageRegex("FOO done #8")).uniqueResult();
+        assertEquals("FOO done #8", ((MessageEntry) unique).getMessage());
+        assertNull(new EntryCriteria(reader).add(Restrictions.messageRegex("nothing")).uniqueResult());
+    }
+
+    @Test
+    public void testAwaitExistingMatch() throws Exception {
+        receiveAll();
+
+        EntryCriteria criteria = new EntryCriteria(reader).add(Restrictions.messageRegex("FOO done.*"));
+        long start = System.currentTimeMillis();
+
+        assertEquals("FOO done #8", ((MessageEntry) criteria.await(5, TimeUnit.SECONDS)).getMessage());
+        assertTrue(System.currentTimeMillis() - start < 5000);
+
+        Future<Entry> future = criteria.firstResultFuture();
+        assertTrue(future.isDone());
+        assertEquals("FOO done #8", ((MessageEntry) future.get()).getMessage());
+    }
+
+    @Test
+    public void testAwaitLaterMatch() throws Exception {
+        receiveAll();
+
+        Thread sender = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                receive(5, new MessageEntry(5l, "unrelated"));
+                receive(5, new MessageEntry(5l, "awaited entry"));
+                receive(5, new MessageEntry(5l, "awaited again"));
+            }
+        });
+
+        sender.start();
+
+        try {
+            Entry entry = new EntryCriteria(reader).add(Restrictions.messageRegex("awaited.*")).await(5, TimeUnit.SECONDS);
+
+            assertNotNull(entry);
+            assertEquals("awaited entry", ((MessageEntry) entry).getMessage());
+        } finally {
+            sender.join();
+        }
+    }
+
+    @Test
+    public void testAwaitTimeout() throws Exception {
+        receiveAll();
+
+        assertNull(new EntryCriteria(reader).add(Restrictions.messageRegex("never.*")).await(100, TimeUnit.MILLISECONDS));
+
+        // nothing received at all
+        assertNull(new EntryCriteria(new IOEntryReader(mock(IOEntrySource.class))).await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFirstResultFutureCancel() throws Exception {
+        Future<Entry> future = new EntryCriteria(reader).add(Restrictions.messageRegex("later.*")).firstResultFuture();
+
+        assertFalse(future.isDone());
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+
+        // completing after cancel has no effect
+        receive(1, new MessageEntry(1l, "later"));
+        assertTrue(future.isCancelled());
+
+        try {
+            future.get();
+            fail("expected CancellationException");
+        } catch (CancellationException expected) {
+            // cancelled
+        }
+    }
+
+    @Test
+    public void testSubscribe() throws Exception {
+        receiveAll();
+
+        final List<String> matched = new CopyOnWriteArrayList<String>();
+        EntryMatchListener listener = new EntryMatchListener() {
+            public void matched(Entry entry) {
+                matched.add(((MessageEntry) entry).getMessage());
+            }
+        };
+
+        EntryCriteria criteria = new EntryCriteria(reader).add(Restrictions.messageRegex("event.*"));
+        criteria.subscribe(listener);
+
+        // subscribing twice notifies once
+        criteria.subscribe(listener);
+
+        receive(5, new MessageEntry(5l, "event 1"));
+        receive(5, new MessageEntry(5l, "other"));
+        receive(6, new MessageEntry(6l, "event 2"));
+
+        // existing entries are not notified
+        assertEquals(Arrays.asList("event 1", "event 2"), matched);
+
+        criteria.unsubscribe(listener);
+
+        receive(5, new MessageEntry(5l, "event 3"));
+
+        assertEquals(Arrays.asList("event 1", "event 2"), matched);
+
+        // unknown listener ignored
+        criteria.unsubscribe(listener);
+    }
+}
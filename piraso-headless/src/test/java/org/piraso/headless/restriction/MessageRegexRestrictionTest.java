@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.piraso.headless.restriction;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static junit.framework.Assert.*;
+import static org.piraso.headless.restriction.MessageRegexRestriction.findLiteral;
+
+/**
+ * Test for {@link MessageRegexRestriction} class.
+ */
+public class MessageRegexRestrictionTest {
+
+    @Test
+    public void testPlainLiteral() throws Exception {
+        assertEquals("hello", findLiteral("hello", 0));
+        assertEquals("start", findLiteral("^start.*end$", 0));
+
+        // first of equally long runs
+        assertEquals("hello", findLiteral("hello world", 0));
+        assertEquals("world", findLiteral("hi world", 0));
+    }
+
+    @Test
+    public void testQuantifiers() throws Exception {
+        assertEquals("colo", findLiteral("colou?r", 0));
+        assertEquals("cd", findLiteral("ab*cd", 0));
+        assertEquals("cde", findLiteral("ab{2}cde", 0));
+        assertEquals("ab", findLiteral("ab+", 0));
+        assertEquals("yz", findLiteral("x+?yz", 0));
+        assertNull(findLiteral("a?", 0));
+    }
+
+    @Test
+    public void testEscapes() throws Exception {
+        assertEquals("foo", findLiteral("\\dfoo", 0));
+        assertEquals("word", findLiteral("\\bword\\b", 0));
+        assertEquals("log", findLiteral("\\.log", 0));
+        assertEquals("bcd", findLiteral("\\u0041bcd", 0));
+        assertEquals("bcd", findLiteral("\\x{41}bcd", 0));
+        assertEquals("abc", findLiteral("\\p{Lu}abc", 0));
+        assertEquals("abc", findLiteral("\\pLabc", 0));
+        assertEquals("abc", findLiteral("(x)\\1abc", 0));
+    }
+
+    @Test
+    public void testCharacterClasses() throws Exception {
+        assertEquals("foo", findLiteral("[a-z]+foo", 0));
+        assertEquals("cd", findLiteral("[a[b]]cd", 0));
+        assertEquals("xy", findLiteral("[\\]abc]xy", 0));
+    }
+
+    @Test
+    public void testGroups() throws Exception {
+        assertEquals("ba", findLiteral("(foo)ba", 0));
+        assertEquals("ba", findLiteral("(foo(bar))?ba", 0));
+        assertEquals("foo", findLiteral("\\(foo\\)", 0));
+    }
+
+    @Test
+    public void testCaseInsensitive() throws Exception {
+        assertEquals("Foo", findLiteral("Foo", Pattern.CASE_INSENSITIVE));
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+        assertNull(findLiteral("foo|bar", 0));
+        assertNull(findLiteral("(?i)foo", 0));
+        assertNull(findLiteral("(?:foo)bar", 0));
+        assertNull(findLiteral("\\Qfoo\\E", 0));
+        assertNull(findLiteral("foo", Pattern.MULTILINE));
+        assertNull(findLiteral("foo", Pattern.CASE_INSENSITIVE | Pattern.COMMENTS));
+        assertNull(findLiteral("foo", Pattern.LITERAL));
+        assertNull(findLiteral(".*", 0));
+    }
+}
@@ -22,6 +22,7 @@ import org.piraso.server.PirasoResponse;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 
 /**
@@ -46,4 +47,8 @@ public class PirasoHttpServletResponse implements PirasoResponse {
     public PrintWriter getWriter() throws IOException {
         return response.getWriter();
     }
+
+    public OutputStream getOutputStream() throws IOException {
+        return response.getOutputStream();
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012. Piraso Alvin R. de Leon. All Rights Reserved.
+ *
+ * See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The Piraso licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.piraso.server.spring.web;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.piraso.server.service.LoggerWriterPool;
+import org.piraso.server.service.ResponseLoggerServiceImpl;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Servlet 3 async support for {@link PirasoServlet}. Kept apart so the servlet still loads in Servlet 2.x
+ * containers, this class is only used once the async api was found on the classpath.
+ */
+final class AsyncLoggerSupport {
+
+    private static final Log LOG = LogFactory.getLog(AsyncLoggerSupport.class);
+
+    private AsyncLoggerSupport() {}
+
+    static boolean isAsyncSupported(HttpServletRequest request) {
+        try {
+            return request.isAsyncSupported();
+        } catch (LinkageError e) {
+            // request of a pre Servlet 3 container, e.g. AbstractMethodError or NoSuchMethodError
+            return false;
+        }
+    }
+
+    /**
+     * Releases the container thread and lets the writer pool stream the service entries.
+     *
+     * @param request the start request
+     * @param service the service to start
+     * @param pool the writer pool
+     * @param onFinish invoked once the service stopped
+     * @throws Exception on error starting the service
+     */
+    static void start(HttpServletRequest request, final ResponseLoggerServiceImpl service, LoggerWriterPool pool, final Runnable onFinish) throws Exception {
+        final AsyncContext context = request.startAsync();
+
+        // the service idle timeout applies instead
+        context.setTimeout(0);
+        context.addListener(new AsyncListener() {
+            public void onComplete(AsyncEvent event) throws IOException {
+            }
+
+            public void onTimeout(AsyncEvent event) throws IOException {
+                service.stop();
+            }
+
+            public void onError(AsyncEvent event) throws IOException {
+                service.stop();
+            }
+
+            public void onStartAsync(AsyncEvent event) throws IOException {
+            }
+        });
+
+        try {
+            pool.register(service, new Runnable() {
+                public void run() {
+                    try {
+                        onFinish.run();
+                    } finally {
+                        complete(context);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            complete(context);
+            throw e;
+        }
+    }
+
+    private static void complete(AsyncContext context) {
+        try {
+            context.complete();
+        } catch (IllegalStateException e) {
+            LOG.debug(e.getMessage(), e);
+        }
+    }
+}
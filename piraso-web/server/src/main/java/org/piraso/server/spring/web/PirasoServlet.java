@@ -35,6 +35,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Collections;
 import java.util.Map;
 
 import static org.piraso.api.PirasoConstants.*;
@@ -49,16 +50,45 @@ public class PirasoServlet implements HttpRequestHandler {
      */
     private static final Log LOG = LogFactory.getLog(PirasoServlet.class);
 
+    /**
+     * Whether the Servlet 3 async api is on the classpath, {@link AsyncLoggerSupport} is never loaded otherwise.
+     */
+    private static final boolean ASYNC_API = isAsyncApiAvailable();
+
     public static final long DEFAULT_STOP_TIMEOUT = 10000l;
 
+    public static final int MAX_RESERVED_REQUEST_IDS = 1000000;
+
+    public static final long DEFAULT_REGISTRY_HEARTBEAT_INTERVAL = 10000l;
+
     private Integer maxQueueForceKillSize;
 
     private Long maxIdleTimeout;
 
+    private Integer batchSize;
+
+    private Long batchTimeout;
+
+    private OverflowPolicy overflowPolicy;
+
+    private Integer overflowSampleRate;
+
+    private Long overflowBlockTimeout;
+
     private Long stopTimeout = DEFAULT_STOP_TIMEOUT;
 
+    private boolean asyncEnabled;
+
+    private Integer writerThreads;
+
+    private Long writeTimeout;
+
+    private LoggerWriterPool writerPool;
+
     private String version;
 
+    private long registryHeartbeatInterval = DEFAULT_REGISTRY_HEARTBEAT_INTERVAL;
+
     public void setVersion(String version) {
         this.version = version;
     }
@@ -71,10 +101,108 @@ public class PirasoServlet implements HttpRequestHandler {
         this.maxQueueForceKillSize = maxQueueForceKillSize;
     }
 
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchTimeout(Long batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setOverflowSampleRate(Integer overflowSampleRate) {
+        this.overflowSampleRate = overflowSampleRate;
+    }
+
+    public void setOverflowBlockTimeout(Long overflowBlockTimeout) {
+        this.overflowBlockTimeout = overflowBlockTimeout;
+    }
+
     public void setStopTimeout(Long stopTimeout) {
         this.stopTimeout = stopTimeout;
     }
 
+    /**
+     * Interval of the empty deltas sent to idle bridge registry watchers, should be less than their read timeout.
+     *
+     * @param registryHeartbeatInterval the interval in milliseconds
+     */
+    public void setRegistryHeartbeatInterval(long registryHeartbeatInterval) {
+        this.registryHeartbeatInterval = registryHeartbeatInterval;
+    }
+
+    /**
+     * When enabled and the container supports Servlet 3 async requests, monitoring sessions no longer hold a
+     * container thread, entries are streamed by a shared {@link LoggerWriterPool} instead.
+     *
+     * @param asyncEnabled whether async streaming is enabled
+     */
+    public void setAsyncEnabled(boolean asyncEnabled) {
+        if(asyncEnabled && !ASYNC_API) {
+            LOG.warn("Servlet 3 async api not available, monitoring sessions will hold a container thread.");
+        }
+
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    private static boolean isAsyncApiAvailable() {
+        try {
+            Class.forName("javax.servlet.AsyncContext", false, HttpServletRequest.class.getClassLoader());
+            HttpServletRequest.class.getMethod("isAsyncSupported");
+
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (NoSuchMethodException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    public void setWriterThreads(Integer writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    /**
+     * @param writeTimeout time after which an async session whose watcher stopped reading is evicted
+     * @see LoggerWriterPool#setWriteTimeout(long)
+     */
+    public void setWriteTimeout(Long writeTimeout) {
+        this.writeTimeout = writeTimeout;
+    }
+
+    public void setWriterPool(LoggerWriterPool writerPool) {
+        this.writerPool = writerPool;
+    }
+
+    public synchronized LoggerWriterPool getWriterPool() {
+        if(writerPool == null) {
+            writerPool = writerThreads != null ?
+                    new LoggerWriterPool(writerThreads, LoggerWriterPool.DEFAULT_SWEEP_INTERVAL) :
+                    new LoggerWriterPool();
+
+            if(writeTimeout != null) {
+                writerPool.setWriteTimeout(writeTimeout);
+            }
+        }
+
+        return writerPool;
+    }
+
+    /**
+     * Stops the async monitoring sessions, if any.
+     */
+    public synchronized void destroy() {
+        if(writerPool != null) {
+            writerPool.shutdown();
+            writerPool = null;
+        }
+    }
+
     public UserRegistry getRegistry() {
         return (UserRegistry) LoggerRegistrySingleton.INSTANCE.getRegistry();
     }
@@ -103,11 +231,18 @@ public class PirasoServlet implements HttpRequestHandler {
 
         if(SERVICE_GET_REGISTRY_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
             retrieveRegistry(response);
+        } else if(SERVICE_WATCH_REGISTRY_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
+            watchRegistry(response);
         } else if(SERVICE_LOG_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
             log(request);
             writeResponse(response, PLAIN_CONTENT_TYPE, "OK");
+        } else if(SERVICE_LOG_BATCH_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
+            logBatch(request);
+            writeResponse(response, PLAIN_CONTENT_TYPE, "OK");
         } else if(SERVICE_REQUEST_ID_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
             writeResponse(response, PLAIN_CONTENT_TYPE, String.valueOf(PirasoContextIDGenerator.INSTANCE.next()));
+        } else if(SERVICE_RESERVE_REQUEST_ID_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
+            reserveRequestIds(request, response);
         } else if(SERVICE_START_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
             startLoggerService(request, response, user);
         } else if(SERVICE_STOP_PARAMETER_VALUE.equals(request.getParameter(SERVICE_PARAMETER))) {
@@ -132,6 +267,50 @@ public class PirasoServlet implements HttpRequestHandler {
         writeResponse(response, JSON_CONTENT_TYPE, JacksonUtils.MAPPER.writeValueAsString(bridgeRegistry));
     }
 
+    /**
+     * Streams the bridge registry changes as new line separated JSON {@link BridgeRegistryDelta}, starting with a
+     * snapshot, until the bridged process disconnects.
+     *
+     * @param response the response
+     * @throws IOException on io error
+     */
+    private void watchRegistry(HttpServletResponse response) throws IOException {
+        UserRegistry registry = getRegistry();
+
+        response.setContentType(JSON_CONTENT_TYPE);
+        response.setCharacterEncoding(ENCODING_UTF_8);
+
+        PrintWriter out = response.getWriter();
+        Map<User, ResponseLoggerService> sent = Collections.emptyMap();
+        boolean snapshot = true;
+
+        try {
+            while(true) {
+                // read first so a change while sending is never missed
+                long generation = registry.getGeneration();
+                Map<User, ResponseLoggerService> current = registry.getUserLoggerMap();
+
+                out.write(JacksonUtils.MAPPER.writeValueAsString(BridgeRegistryDelta.diff(sent, current, snapshot)));
+                out.write('\n');
+                out.flush();
+
+                if(out.checkError()) {
+                    // disconnected
+                    return;
+                }
+
+                sent = current;
+                snapshot = false;
+
+                registry.awaitGeneration(generation, registryHeartbeatInterval);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            out.close();
+        }
+    }
+
     private void log(HttpServletRequest request) throws IOException {
         String userContent = request.getParameter(USER_PARAMETER);
         String requestId = request.getParameter(ENTRY_REQUEST_ID_PARAMETER);
@@ -153,6 +332,52 @@ public class PirasoServlet implements HttpRequestHandler {
         }
     }
 
+    /**
+     * Logs a {@link BridgeLogBatch} posted by a bridged process.
+     *
+     * @param request the request holding the batch in its body
+     * @throws IOException on batch read error
+     */
+    private void logBatch(HttpServletRequest request) throws IOException {
+        BridgeLogBatch batch = BridgeLogBatch.read(request.getInputStream());
+        ResponseLoggerService service = getRegistry().getLogger(batch.getUser());
+
+        if(service != null && service.isAlive()) {
+            for(RawEntry entry : batch.getEntries()) {
+                service.log(entry);
+            }
+        }
+    }
+
+    /**
+     * Reserves a block of request ids for a bridged process, responds with the first id of the block.
+     *
+     * @param request the request holding the id count
+     * @param response the response
+     * @throws IOException on io error
+     */
+    private void reserveRequestIds(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int count;
+
+        try {
+            count = Integer.parseInt(request.getParameter(REQUEST_ID_COUNT_PARAMETER));
+        } catch (NumberFormatException e) {
+            count = -1;
+        }
+
+        if(count <= 0 || count > MAX_RESERVED_REQUEST_IDS) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    String.format("Request Parameter 'count' should be between 1 and %d.", MAX_RESERVED_REQUEST_IDS));
+            return;
+        }
+
+        try {
+            writeResponse(response, PLAIN_CONTENT_TYPE, String.valueOf(PirasoContextIDGenerator.INSTANCE.reserve(count)));
+        } catch (UnsupportedOperationException e) {
+            response.sendError(HttpServletResponse.SC_NOT_IMPLEMENTED, e.getMessage());
+        }
+    }
+
     private void stopService(HttpServletResponse response, User user) throws IOException {
         ResponseLoggerService service = getRegistry().getLogger(user);
 
@@ -193,13 +418,65 @@ public class PirasoServlet implements HttpRequestHandler {
             service.setMaxIdleTimeout(maxIdleTimeout);
         }
 
+        if(batchSize != null) {
+            service.setBatchSize(batchSize);
+        }
+
+        if(batchTimeout != null) {
+            service.setBatchTimeout(batchTimeout);
+        }
+
+        if(overflowPolicy != null) {
+            service.setOverflowPolicy(overflowPolicy);
+        }
+
+        if(overflowSampleRate != null) {
+            service.setOverflowSampleRate(overflowSampleRate);
+        }
+
+        if(overflowBlockTimeout != null) {
+            service.setOverflowBlockTimeout(overflowBlockTimeout);
+        }
+
+        if(FORMAT_BINARY_PARAMETER_VALUE.equals(request.getParameter(FORMAT_PARAMETER))) {
+            service.setBinaryFormat(true);
+        }
+
+        boolean async = false;
+
         try {
             getRegistry().associate(user, service);
-            service.start();
+
+            if(asyncEnabled && ASYNC_API && AsyncLoggerSupport.isAsyncSupported(request)) {
+                AsyncLoggerSupport.start(request, service, getWriterPool(), new RemoveUserHandler(user));
+                async = true;
+            } else {
+                service.start();
+            }
         } catch (Exception e) {
             LOG.warn(e.getMessage(), e);
         } finally {
-            getRegistry().removeUser(user);
+            // async services are removed once they stop
+            if(!async) {
+                getRegistry().removeUser(user);
+            }
+        }
+    }
+
+    private class RemoveUserHandler implements Runnable {
+
+        private User user;
+
+        private RemoveUserHandler(User user) {
+            this.user = user;
+        }
+
+        public void run() {
+            try {
+                getRegistry().removeUser(user);
+            } catch (IOException e) {
+                LOG.warn(e.getMessage(), e);
+            }
         }
     }
 }
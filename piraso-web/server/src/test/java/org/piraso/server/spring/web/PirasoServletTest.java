@@ -21,10 +21,15 @@ package org.piraso.server.spring.web;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.piraso.api.JacksonUtils;
+import org.piraso.api.LongIDGenerator;
 import org.piraso.api.Preferences;
+import org.piraso.api.entry.MessageEntry;
+import org.piraso.api.entry.RawEntry;
 import org.piraso.server.CommonMockObjects;
+import org.piraso.server.PirasoContextIDGenerator;
 import org.piraso.server.PirasoRequest;
 import org.piraso.server.service.*;
 import org.piraso.web.base.PirasoHttpServletRequest;
@@ -194,4 +199,55 @@ public class PirasoServletTest {
 
         verify(registry).removeUser(registry.createOrGetUser(Matchers.<PirasoRequest>any()));
     }
+
+    @Test
+    public void testLogBatch() throws Exception {
+        User user = new User(MONITORED_ADDR, "1");
+        BridgeLogBatch batch = new BridgeLogBatch(user);
+        batch.add(new MessageEntry(1l, "first"));
+        batch.add(new MessageEntry(null, "second"));
+
+        request.addParameter("service", "logBatch");
+        request.setContent(batch.toByteArray());
+
+        ResponseLoggerService service = mock(ResponseLoggerService.class);
+
+        doReturn(true).when(service).isAlive();
+        doReturn(service).when(registry).getLogger(user);
+
+        servlet.handleRequest(request, response);
+
+        ArgumentCaptor<RawEntry> captor = ArgumentCaptor.forClass(RawEntry.class);
+        verify(service, times(2)).log(captor.capture());
+
+        assertEquals(Long.valueOf(1l), captor.getAllValues().get(0).getRequestId());
+        assertEquals(MessageEntry.class.getName(), captor.getAllValues().get(0).getRawClassName());
+        assertEquals(null, captor.getAllValues().get(1).getRequestId());
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    }
+
+    @Test
+    public void testReserveRequestIds() throws Exception {
+        PirasoContextIDGenerator.INSTANCE.setIdGenerator(new LongIDGenerator());
+
+        request.addParameter("service", "reserveRequestId");
+        request.addParameter("count", "10");
+
+        servlet.handleRequest(request, response);
+
+        assertEquals("1", response.getContentAsString());
+
+        // ids of the block are never handed out again
+        assertEquals(Long.valueOf(11l), PirasoContextIDGenerator.INSTANCE.next());
+    }
+
+    @Test
+    public void testReserveRequestIdsInvalidCount() throws Exception {
+        request.addParameter("service", "reserveRequestId");
+        request.addParameter("count", "0");
+
+        servlet.handleRequest(request, response);
+
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    }
 }